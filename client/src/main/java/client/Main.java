@@ -16,7 +16,10 @@
 package client;
 
 import client.scenes.*;
+import client.utils.ClientExecutor;
+import client.utils.GameSessionUtils;
 import com.google.inject.Injector;
+import jakarta.ws.rs.client.Client;
 import javafx.application.Application;
 import javafx.scene.Parent;
 import javafx.stage.Stage;
@@ -60,4 +63,13 @@ public class Main extends Application {
         var mainCtrl = INJECTOR.getInstance(MainCtrl.class);
         mainCtrl.initialize(primaryStage, pairs);
     }
+
+    @Override
+    public void stop() {
+        var sessionUtils = INJECTOR.getInstance(GameSessionUtils.class);
+        System.out.println("session requests: " + sessionUtils.getIssuedRequests() + " sent, "
+                + sessionUtils.getCoalescedRequests() + " shared or reused");
+        INJECTOR.getInstance(ClientExecutor.class).shutdown();
+        INJECTOR.getInstance(Client.class).close();
+    }
 }
\ No newline at end of file
@@ -17,11 +17,19 @@ package client;
 
 
 import client.scenes.*;
+import client.utils.ClientExecutor;
+import client.utils.GameSessionUtils;
+import client.utils.ImageCache;
+import client.utils.LeaderboardUtils;
 import client.utils.LongPollingUtils;
+import client.utils.QuestionUtils;
+import client.utils.RestClientProvider;
+import client.utils.SessionStore;
 import client.utils.WebSocketsUtils;
 import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.google.inject.Scopes;
+import jakarta.ws.rs.client.Client;
 
 public class MyModule implements Module {
 
@@ -42,6 +50,13 @@ public class MyModule implements Module {
         binder.bind(PodiumCtrl.class).in(Scopes.SINGLETON);
         binder.bind(EndGameScreenCtrl.class).in(Scopes.SINGLETON);
 
+        binder.bind(Client.class).toProvider(RestClientProvider.class).in(Scopes.SINGLETON);
+        binder.bind(ClientExecutor.class).in(Scopes.SINGLETON);
+        binder.bind(ImageCache.class).in(Scopes.SINGLETON);
+        binder.bind(GameSessionUtils.class).in(Scopes.SINGLETON);
+        binder.bind(QuestionUtils.class).in(Scopes.SINGLETON);
+        binder.bind(LeaderboardUtils.class).in(Scopes.SINGLETON);
+        binder.bind(SessionStore.class).in(Scopes.SINGLETON);
         binder.bind(LongPollingUtils.class).in(Scopes.SINGLETON);
         binder.bind(WebSocketsUtils.class).in(Scopes.SINGLETON);
 
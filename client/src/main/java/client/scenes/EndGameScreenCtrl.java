@@ -5,7 +5,6 @@ import com.google.inject.Inject;
 import commons.Emoji;
 import commons.GameSession;
 import commons.Player;
-import jakarta.ws.rs.BadRequestException;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
@@ -32,7 +31,10 @@ public class EndGameScreenCtrl extends SceneCtrl implements Initializable {
     private final static long END_GAME_TIME = 60L;
 
     private final GameSessionUtils gameSessionUtils;
+    private final LeaderboardUtils leaderboardUtils;
     private final WebSocketsUtils webSocketsUtils;
+    private final ClientExecutor executor;
+    private final SessionStore sessionStore;
     private final GameAnimation gameAnimation;
     private final SoundManager soundManager;
     private final MainCtrl mainCtrl;
@@ -48,6 +50,8 @@ public class EndGameScreenCtrl extends SceneCtrl implements Initializable {
     @FXML
     protected Label status;
     @FXML
+    protected Label percentile;
+    @FXML
     protected TableView<Player> leaderboard;
     @FXML
     protected TableColumn<Player, Integer> colRank;
@@ -65,21 +69,23 @@ public class EndGameScreenCtrl extends SceneCtrl implements Initializable {
     private Pane emojiArea;
 
     private int previousPlayerCount;
-    protected Thread timerThread;
     private long sessionId;
     private long playerId;
-    private int waitingSkip = 0;
+    private volatile int waitingSkip = 0;
     private boolean playingAgain;
-    private Timer endGameTimer;
     private TimeUtils roundTimer;
     private StompSession.Subscription channelEnd;
     private final List<Image> emojiImages;
 
 
     @Inject
-    public EndGameScreenCtrl(GameSessionUtils gameSessionUtils, GameAnimation gameAnimation,
-                             SoundManager soundManager, WebSocketsUtils webSocketsUtils, MainCtrl mainCtrl) {
+    public EndGameScreenCtrl(GameSessionUtils gameSessionUtils, LeaderboardUtils leaderboardUtils,
+                             GameAnimation gameAnimation, SoundManager soundManager, WebSocketsUtils webSocketsUtils,
+                             ClientExecutor executor, SessionStore sessionStore, MainCtrl mainCtrl) {
         this.gameSessionUtils = gameSessionUtils;
+        this.leaderboardUtils = leaderboardUtils;
+        this.executor = executor;
+        this.sessionStore = sessionStore;
         this.gameAnimation = gameAnimation;
         this.soundManager = soundManager;
         this.webSocketsUtils = webSocketsUtils;
@@ -123,50 +129,34 @@ public class EndGameScreenCtrl extends SceneCtrl implements Initializable {
      * Refreshes the end of game screen to check how many players want to play again.
      */
     public void refresh() {
-        Timer timer = new Timer();
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                Platform.runLater(() -> {
-                    try {
-                        if (gameSessionUtils.getSession(sessionId).sessionStatus
-                                == GameSession.SessionStatus.PLAY_AGAIN) {
-                            if (gameSessionUtils.getSession(sessionId).players.size() ==
-                                    gameSessionUtils.getSession(sessionId).playersReady.get()) {
-                                //Speed the timer up
-                                waitingSkip = 4;
-                            } else {
-                                //Slow the timer down
-                                waitingSkip = 0;
-                            }
-                            count.setText(gameSessionUtils.getSession(sessionId).playersReady.get() + " / " +
-                                    gameSessionUtils.getSession(sessionId).players.size()
-                                    + " players want to play again");
-                        } else if (gameSessionUtils.getSession(sessionId).sessionStatus
-                                == GameSession.SessionStatus.TRANSFERRING) {
-                            cancel();
-                        }
-                    } catch (Exception e) {
-                        cancel();
-                    }
-                });
+        sessionStore.listen(session -> {
+            if (session == null) return false;
+            if (session.sessionStatus == GameSession.SessionStatus.PLAY_AGAIN) {
+                if (session.players.size() == session.playersReady.get()) {
+                    //Speed the timer up
+                    waitingSkip = 4;
+                } else {
+                    //Slow the timer down
+                    waitingSkip = 0;
+                }
+                count.setText(session.playersReady.get() + " / " + session.players.size()
+                        + " players want to play again");
             }
-
-        }, 0, 100);
+            return session.sessionStatus != GameSession.SessionStatus.TRANSFERRING;
+        });
     }
 
     /**
      * {@inheritDoc}
      */
     public void shutdown() {
-        if (this.timerThread != null && this.timerThread.isAlive()) this.timerThread.interrupt();
+        if (roundTimer != null) roundTimer.cancel();
         if (playAgain.getText().equals("Don't play again")) {
             playAgain();
         }
         if (sessionId != 0) {
-            try {
-                gameSessionUtils.removePlayer(sessionId, playerId);
-            } catch (BadRequestException ignore) { /* session might be removed at this point */ }
+            // the session might be removed at this point, in which case the request fails harmlessly
+            gameSessionUtils.removePlayerAsync(sessionId, playerId);
             setPlayerId(0);
         }
         setSessionId(0);
@@ -204,13 +194,13 @@ public class EndGameScreenCtrl extends SceneCtrl implements Initializable {
             case "Play again" -> {
                 playAgain.setText("Don't play again");
                 status.setText("Waiting for game to start...");
-                gameSessionUtils.toggleReady(sessionId, true);
+                gameSessionUtils.toggleReadyAsync(sessionId, true);
                 setPlayingAgain(true);
             }
             case "Don't play again" -> {
                 playAgain.setText("Play again");
                 status.setText("End of game! Play again or go back to main.");
-                gameSessionUtils.toggleReady(sessionId, false);
+                gameSessionUtils.toggleReadyAsync(sessionId, false);
                 setPlayingAgain(false);
             }
         }
@@ -222,61 +212,78 @@ public class EndGameScreenCtrl extends SceneCtrl implements Initializable {
     public void showEndScreen() {
         //gameSessionUtils.toggleReady(sessionId, false);
         soundManager.playSound("Button");
-        var players = gameSessionUtils.getPlayers(sessionId);
-        var data = FXCollections.observableList(players);
-        leaderboard.setItems(data);
+        sessionStore.track(sessionId);
+        gameSessionUtils.getPlayersAsync(sessionId).thenAcceptAsync(players -> {
+            leaderboard.setItems(FXCollections.observableList(players));
+            showPercentile(players);
+        }, ClientExecutor.FX);
 
-        roundTimer = new TimeUtils(END_GAME_TIME, TIMER_UPDATE_INTERVAL_MS);
+        roundTimer = new TimeUtils(END_GAME_TIME);
         registerForEmojiUpdates();
         roundTimer.setTimeBooster(() -> (double) waitingSkip);
-        roundTimer.setOnSucceeded((event) -> {
-            gameSessionUtils.updateStatus(gameSessionUtils.getSession(sessionId),
-                    GameSession.SessionStatus.TRANSFERRING);
-            Platform.runLater(() -> {
-                if (isPlayingAgain()) {
-                    startGame();
-                } else {
-                    back();
-                }
-            });
+        roundTimer.setOnFinished(() -> {
+            GameSession session = sessionStore.getSession();
+            if (session == null) {
+                back();
+                return;
+            }
+            gameSessionUtils.updateStatusAsync(session, GameSession.SessionStatus.TRANSFERRING)
+                    .thenRunAsync(() -> {
+                        if (isPlayingAgain()) {
+                            startGame();
+                        } else {
+                            back();
+                        }
+                    }, ClientExecutor.FX);
         });
 
         progressBar.progressProperty().bind(roundTimer.progressProperty());
-        this.timerThread = new Thread(roundTimer);
-        this.timerThread.start();
+        executor.start(roundTimer);
         scanForEndGameAddition();
         refresh();
     }
 
+    /**
+     * Shows the share of all multiplayer players whose best score is below the score this player reached
+     *
+     * @param players The players of the session
+     */
+    private void showPercentile(List<Player> players) {
+        var self = players.stream().filter(p -> p.id == playerId).findFirst();
+        if (self.isEmpty()) {
+            percentile.setText("");
+            return;
+        }
+        leaderboardUtils.getPercentileAsync("multi", self.get().currentPoints).thenAcceptAsync(beaten ->
+                percentile.setText(String.format("You beat %.0f%% of players", beaten)), ClientExecutor.FX);
+    }
+
     /**
      * Checks whether there are enough players in the session after the clients had time to remove the players that
      * quit.
      */
     public void startGame() {
-        new Timer().schedule(new TimerTask() {
-            @Override
-            public void run() {
-                Platform.runLater(() -> {
-                    if (gameSessionUtils.getPlayers(sessionId).size() >= 2 && isPlayingAgain()) {
-                        GameSession session = gameSessionUtils.toggleReady(sessionId, false);
-                        if (session.playersReady.get() == 0) {
-                            gameSessionUtils.updateStatus(session, GameSession.SessionStatus.ONGOING);
-                        }
-                        reset();
-                        mainCtrl.showMultiplayer(sessionId, playerId);
-                    } else {
-                        back();
-                        soundManager.playSound("Alert");
-                        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                        alert.setTitle("Unable to start new game!");
-                        alert.setHeaderText("There are too few people to play again:");
-                        alert.setContentText("Please join a fresh game to play with more people!");
-                        mainCtrl.addCSS(alert);
-                        alert.showAndWait();
+        executor.schedule(() -> gameSessionUtils.getPlayersAsync(sessionId).thenAcceptAsync(players -> {
+            if (players.size() >= 2 && isPlayingAgain()) {
+                gameSessionUtils.toggleReadyAsync(sessionId, false).thenAccept(session -> {
+                    if (session.playersReady.get() == 0) {
+                        gameSessionUtils.updateStatus(session, GameSession.SessionStatus.ONGOING);
                     }
-                });
+                }).thenRunAsync(() -> {
+                    reset();
+                    mainCtrl.showMultiplayer(sessionId, playerId);
+                }, ClientExecutor.FX);
+            } else {
+                back();
+                soundManager.playSound("Alert");
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Unable to start new game!");
+                alert.setHeaderText("There are too few people to play again:");
+                alert.setContentText("Please join a fresh game to play with more people!");
+                mainCtrl.addCSS(alert);
+                alert.showAndWait();
             }
-        }, 1000);
+        }, ClientExecutor.FX), 1000);
     }
 
     /**
@@ -319,9 +326,8 @@ public class EndGameScreenCtrl extends SceneCtrl implements Initializable {
      * Register the client to receive emoji reactions from other players
      */
     public void registerForEmojiUpdates() {
-        channelEnd = this.webSocketsUtils.registerForEmojiUpdates(emoji -> {
-            Platform.runLater(() -> gameAnimation.startEmojiAnimation(
-                    gameAnimation.emojiToImage(emojiImages, emoji, 60), emoji.username, emojiArea));
+        channelEnd = this.webSocketsUtils.registerForEmojiUpdates(batch -> {
+            Platform.runLater(() -> gameAnimation.startEmojiBatchAnimation(batch, emojiImages, 60, emojiArea));
         }, this.sessionId);
     }
 
@@ -355,28 +361,24 @@ public class EndGameScreenCtrl extends SceneCtrl implements Initializable {
      */
     public void scanForEndGameAddition() {
         previousPlayerCount = -1;
-        endGameTimer = new Timer();
-        endGameTimer.scheduleAtFixedRate(new TimerTask() {
-
-            @Override
-            public void run() {
-                int playerCount = gameSessionUtils.getSession(sessionId).players.size();
-                if (previousPlayerCount < playerCount) {
-                    roundTimer.resetTimer();
-                    Platform.runLater(() -> renderLeaderboard());
-                }
-                previousPlayerCount = playerCount;
+        sessionStore.listen(session -> {
+            if (session == null) return false;
+            int playerCount = session.players.size();
+            if (previousPlayerCount < playerCount) {
+                roundTimer.resetTimer();
+                renderLeaderboard();
             }
-        }, 0, 500);
+            previousPlayerCount = playerCount;
+            return true;
+        });
     }
 
     /**
      * Updates the items in the leaderboard and makes sure the leaderboard remains visible
      */
     public void renderLeaderboard() {
-        var players = gameSessionUtils.getPlayers(sessionId);
-        var data = FXCollections.observableList(players);
-        leaderboard.setItems(data);
+        gameSessionUtils.getPlayersAsync(sessionId).thenAcceptAsync(players ->
+                leaderboard.setItems(FXCollections.observableList(players)), ClientExecutor.FX);
     }
 
 }
@@ -18,6 +18,11 @@ import java.util.List;
 public class GameAnimation {
 
     private final static String BATTERY_GREEN = "#84ba84";
+    public final static int EMOJI_BUDGET = 15;
+    public final static int EMOJI_PER_ENTRY = 3;
+
+    // Number of emoji animations currently playing, only accessed from the FX thread
+    private int liveEmojis;
 
     /**
      * Empty Constructor
@@ -62,12 +67,31 @@ public class GameAnimation {
         }
     }
 
+    /**
+     * Animate a batch of emojis. Every entry shows at most a few images however often it was sent, and no new
+     * animations start while the budget of live emoji animations is used up.
+     *
+     * @param batch       The emojis sent during the batch, with the number of times each was sent
+     * @param emojiImages The images of the emoji types
+     * @param dimension   Size of the emoji images
+     * @param area        The pane in which the emojis are animated
+     */
+    public void startEmojiBatchAnimation(List<Emoji> batch, List<Image> emojiImages, int dimension, Pane area) {
+        for (Emoji e : batch) {
+            for (int i = 0; i < Math.min(e.count, EMOJI_PER_ENTRY); ++i) {
+                if (liveEmojis >= EMOJI_BUDGET) return;
+                startEmojiAnimation(emojiToImage(emojiImages, e, dimension), e.username, area);
+            }
+        }
+    }
+
     /**
      * Make a randomized emoji stream when emojis are used
      *
      * @param emoji Emoji to be displayed
      */
     public void startEmojiAnimation(ImageView emoji, String username, Pane area) {
+        liveEmojis++;
         area.getChildren().add(emoji);
         FadeTransition fadeTransition = emojiFadeTransition(emoji);
         TranslateTransition translateTransition = emojiTranslateTransition(emoji);
@@ -78,7 +102,10 @@ public class GameAnimation {
                 translateTransition
         );
         pt.play();
-        pt.setOnFinished(e -> area.getChildren().remove(emoji));
+        pt.setOnFinished(e -> {
+            area.getChildren().remove(emoji);
+            liveEmojis--;
+        });
     }
 
     /**
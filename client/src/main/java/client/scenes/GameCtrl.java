@@ -2,7 +2,6 @@ package client.scenes;
 
 import client.utils.*;
 import commons.*;
-import jakarta.ws.rs.BadRequestException;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
 import javafx.application.Platform;
@@ -19,20 +18,22 @@ import javafx.scene.layout.StackPane;
 import javafx.util.Duration;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public abstract class GameCtrl extends SceneCtrl implements Initializable {
 
     protected final static int GAME_ROUND_TIME = 9;
     protected final static int PODIUM_TIME = 10;
     protected final static int MIDGAME_BREAK_TIME = 6;
-    protected final static int TIMER_UPDATE_INTERVAL_MS = 50;
     protected final static int GAME_ROUND_DELAY = 2;
     protected final static int MULTIPLAYER_ROUNDS = 20;
     protected final static int IN_GAME_LEADERBOARD_WIDTH = 193;
     protected final static int IN_GAME_COLUSERNAME_WIDTH = 92;
     protected final static int MID_GAME_LEADERBOARD_WIDTH = 649;
     protected final static int MID_GAME_COLUSERNAME_WIDTH = 548;
+    protected final static int STANDING_NEIGHBOURS = 2;
 
     @FXML
     protected StackPane answerArea;
@@ -89,6 +90,9 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
     protected GameSessionUtils gameSessionUtils;
     protected LeaderboardUtils leaderboardUtils;
     protected QuestionUtils questionUtils;
+    protected ImageCache imageCache;
+    protected ClientExecutor executor;
+    protected SessionStore sessionStore;
     protected GameAnimation gameAnimation;
     protected SoundManager soundManager;
 
@@ -99,10 +103,11 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
     protected long sessionId;
     protected long playerId;
     protected Question currentQuestion;
+    protected CompletableFuture<Question> nextQuestion;
     protected int points = 0;
     protected int rounds = 0;
     protected int gameRounds;
-    protected Thread timerThread;
+    protected TimeUtils timerTask;
     protected Evaluation evaluation;
 
     protected boolean doublePointsJoker;
@@ -112,12 +117,16 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
     protected boolean inScene;
 
     public GameCtrl(WebSocketsUtils webSocketsUtils, GameSessionUtils gameSessionUtils,
-                    LeaderboardUtils leaderboardUtils, QuestionUtils questionUtils,
-                    GameAnimation gameAnimation, SoundManager soundManager, MainCtrl mainCtrl) {
+                    LeaderboardUtils leaderboardUtils, QuestionUtils questionUtils, ImageCache imageCache,
+                    ClientExecutor executor, SessionStore sessionStore, GameAnimation gameAnimation,
+                    SoundManager soundManager, MainCtrl mainCtrl) {
         this.webSocketsUtils = webSocketsUtils;
         this.gameSessionUtils = gameSessionUtils;
         this.leaderboardUtils = leaderboardUtils;
         this.questionUtils = questionUtils;
+        this.imageCache = imageCache;
+        this.executor = executor;
+        this.sessionStore = sessionStore;
         this.gameAnimation = gameAnimation;
         this.soundManager = soundManager;
 
@@ -136,10 +145,11 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
     }
 
     /**
-     * Setter for inScene
+     * Setter for inScene. Also starts following the session of the game, so the scene sees its changes.
      */
     public void setInScene() {
         this.inScene = true;
+        sessionStore.track(sessionId);
     }
 
     /**
@@ -175,16 +185,40 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
         }
 
         try {
-            ImageUtils image = new ImageUtils(questionUtils, q.imagePath);
-            image.setOnSucceeded(ev -> {
-                imagePanel.setImage(image.getValue());
-            });
-            Thread t = new Thread(image);
-            t.start();
+            withImage(q.imagePath, imagePanel::setImage);
         } catch (Exception ignore) {
         }
     }
 
+    /**
+     * Pass an image on as soon as it is available: right away if it was prefetched, otherwise once it is loaded
+     *
+     * @param path The path of the image on the server
+     * @param show Consumer called on the JavaFX application thread with the image
+     */
+    protected void withImage(String path, Consumer<Image> show) {
+        Image cached = imageCache.getIfCached(path);
+        if (cached != null) {
+            show.accept(cached);
+            return;
+        }
+        ImageUtils image = new ImageUtils(imageCache, path);
+        image.setOnSucceeded(ev -> show.accept(image.getValue()));
+        executor.submit(image);
+    }
+
+    /**
+     * Start loading the images of a question in the background, so that they are in memory once they are shown: the
+     * question's image and, for questions about several activities, the image of every activity
+     *
+     * @param q The question to load the images of
+     */
+    protected void prefetchImages(Question q) {
+        if (q.imagePath != null) imageCache.getAsync(q.imagePath);
+        if (q.type != Question.QuestionType.COMPARISON && q.type != Question.QuestionType.EQUIVALENCE) return;
+        for (String path : q.activityPath) imageCache.getAsync(path);
+    }
+
     /**
      * Displays the count of the current question
      */
@@ -249,26 +283,16 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
         Question q = this.currentQuestion;
         if (q.type != Question.QuestionType.COMPARISON && q.type != Question.QuestionType.EQUIVALENCE) return;
         try {
-            AtomicReference<Image> defaultImage = new AtomicReference<Image>(null);
-            ImageUtils imageConvert = new ImageUtils(questionUtils, q.imagePath);
-            imageConvert.setOnSucceeded(ev -> {
-                defaultImage.set(imageConvert.getValue());
+            withImage(q.imagePath, defaultImage -> {
                 for (int i = 0; i < multiChoiceAnswers.size(); i++) {
                     RadioButton rb = multiChoiceAnswers.get(i);
-                    ImageUtils image = new ImageUtils(questionUtils, q.activityPath.get(i));
-                    image.setOnSucceeded(event -> {
-                        rb.setOnMouseEntered(e -> imagePanel.setImage(image.getValue()));
-                    });
-                    Thread b = new Thread(image);
-                    b.start();
+                    withImage(q.activityPath.get(i), image -> rb.setOnMouseEntered(e -> imagePanel.setImage(image)));
 
                     if (q.type == Question.QuestionType.EQUIVALENCE) {
-                        rb.setOnMouseExited(e -> imagePanel.setImage(defaultImage.get()));
+                        rb.setOnMouseExited(e -> imagePanel.setImage(defaultImage));
                     }
                 }
             });
-            Thread t = new Thread(imageConvert);
-            t.start();
         } catch (IllegalArgumentException ignore) {
         }
     }
@@ -333,22 +357,15 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
      * Starts reading time countdown and updates label accordingly to inform the user.
      */
     public void countdown() {
-        new Timer().scheduleAtFixedRate(new TimerTask() {
-            int counter = 5;
-
-            @Override
-            public void run() {
-                Platform.runLater(() -> {
-                    if (!inScene) cancel();
-                    else if (counter < 0){
-                        cancel();
-                        loadAnswer();
-                    } else {
-                        countdown.setText("The answer option will appear in " + counter + " sec");
-                        counter--;
-                    }
-                });
-            }
+        AtomicInteger counter = new AtomicInteger(5);
+        executor.scheduleAtFixedRate(() -> {
+            int left = counter.getAndDecrement();
+            Platform.runLater(() -> {
+                if (!inScene) return;
+                if (left < 0) loadAnswer();
+                else countdown.setText("The answer option will appear in " + left + " sec");
+            });
+            return left >= 0;
         }, 0, 1000);
     }
 
@@ -362,13 +379,40 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
         disableButton(submitButton, true);
         this.answerArea.getChildren().clear();
 
-        try {
-            Question q = this.questionUtils.fetchOneQuestion(this.sessionId);
+        // fails when the session is removed before the question is loaded, in which case nothing is shown
+        takeNextQuestion().thenAcceptAsync(q -> {
             this.currentQuestion = q;
+            prefetchImages(q);
             renderGeneralInformation(q);
             renderQuestionCount();
             countdown();
-        } catch (BadRequestException ignore) { /* happens when session is removed before question is loaded */ }
+        }, ClientExecutor.FX);
+    }
+
+    /**
+     * Start fetching the next question and its images while the evaluation of the current one is shown. Once every
+     * player has answered, the server has already moved on to the next question.
+     */
+    protected void prefetchNextQuestion() {
+        CompletableFuture<Question> next = questionUtils.fetchOneQuestionAsync(sessionId);
+        next.thenAccept(this::prefetchImages);
+        this.nextQuestion = next;
+    }
+
+    /**
+     * Get the next question, using the prefetched one unless it turns out to still be the question that was shown
+     *
+     * @return Future completed with the next question
+     */
+    private CompletableFuture<Question> takeNextQuestion() {
+        CompletableFuture<Question> prefetched = this.nextQuestion;
+        this.nextQuestion = null;
+        if (prefetched == null) return questionUtils.fetchOneQuestionAsync(sessionId);
+
+        Question shown = this.currentQuestion;
+        return prefetched.handle((q, e) -> (e == null && !q.equals(shown))
+                ? CompletableFuture.completedFuture(q)
+                : questionUtils.fetchOneQuestionAsync(sessionId)).thenCompose(next -> next);
     }
 
     /**
@@ -383,16 +427,16 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
         disableButton(removeOneButton, q.type == Question.QuestionType.RANGE_GUESS || !removeOneJoker);
         disableButton(submitButton, false);
 
-        TimeUtils roundTimer = new TimeUtils(GAME_ROUND_TIME, TIMER_UPDATE_INTERVAL_MS);
+        TimeUtils roundTimer = new TimeUtils(GAME_ROUND_TIME);
         roundTimer.setTimeBooster(this::getTimeJokers);
-        roundTimer.setOnSucceeded((event) -> Platform.runLater(() -> {
+        roundTimer.setOnFinished(() -> {
             System.out.println("roundTimer is done");
             submitAnswer(true);
-        }));
+        });
 
         timeProgress.progressProperty().bind(roundTimer.progressProperty());
-        this.timerThread = new Thread(roundTimer);
-        this.timerThread.start();
+        this.timerTask = roundTimer;
+        executor.start(roundTimer);
         imageHover();
     }
 
@@ -400,11 +444,10 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
      * {@inheritDoc}
      */
     public void shutdown() {
-        if (this.timerThread != null && this.timerThread.isAlive()) this.timerThread.interrupt();
+        if (this.timerTask != null) this.timerTask.cancel();
         if (sessionId != 0) {
-            try {
-                gameSessionUtils.removePlayer(sessionId, playerId);
-            } catch (BadRequestException ignore) { /* session might be removed at this point */ }
+            // the session might be removed at this point, in which case the request fails harmlessly
+            gameSessionUtils.removePlayerAsync(sessionId, playerId);
             setPlayerId(0);
         }
         setSessionId(0);
@@ -434,6 +477,7 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
         this.points = 0;
         this.rounds = 0;
         this.currentQuestion = null;
+        this.nextQuestion = null;
         this.questionCount.setText("Question: 1");
         this.imagePanel.setImage(null);
 
@@ -526,21 +570,27 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
 
         if (!initiatedByTimer) soundManager.halt();
         else {
-            new Timer().schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    soundManager.halt();
-                }
-            }, 3000);
+            executor.schedule(soundManager::halt, 3000);
         }
 
-        if (this.timerThread != null && this.timerThread.isAlive()) this.timerThread.interrupt();
+        if (this.timerTask != null) this.timerTask.cancel();
         disableButton(submitButton, true);
         disableButton(removeOneButton, true);
 
-        this.evaluation = questionUtils.submitAnswer(sessionId, playerId, ans);
+        questionUtils.submitAnswerAsync(sessionId, playerId, ans)
+                .thenCompose(evaluation -> gameSessionUtils.toggleReadyAsync(sessionId, true)
+                        .thenApply(s -> evaluation))
+                .thenAcceptAsync(evaluation -> {
+                    this.evaluation = evaluation;
+                    answerSubmitted();
+                }, ClientExecutor.FX);
+    }
 
-        gameSessionUtils.toggleReady(sessionId, true);
+    /**
+     * Called on the JavaFX application thread once the server has evaluated the submitted answer and the player is
+     * marked as ready, i.e. as soon as the evaluation can start
+     */
+    protected void answerSubmitted() {
     }
 
     /**
@@ -548,18 +598,41 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
      */
     public abstract void handleGamePodium();
 
+    /**
+     * Complete the best ranked entries of a game mode with the standing of this player, if they are ranked below
+     * those entries, so that players always see where they ended up
+     *
+     * @param mode The game mode of the ranking
+     * @param top  The best ranked entries, ordered by rank
+     * @return Future completing with the best ranked entries, followed by the player's neighbourhood if it is not
+     *         part of them. The standing is fetched in the background, so the future does not complete on the JavaFX
+     *         application thread.
+     */
+    protected CompletableFuture<List<LeaderboardEntry>> withOwnStanding(String mode, List<LeaderboardEntry> top) {
+        if (top.stream().anyMatch(e -> e.playerId == playerId)) return CompletableFuture.completedFuture(top);
+        return leaderboardUtils.getPlayerStandingAsync(mode, playerId, STANDING_NEIGHBOURS).thenApply(standing -> {
+            if (standing == null) return top;
+            int shown = top.isEmpty() ? 0 : top.get(top.size() - 1).rank + 1;
+            List<LeaderboardEntry> res = new ArrayList<>(top);
+            standing.neighbours.stream().filter(e -> e.rank >= shown).forEach(res::add);
+            return res;
+        });
+    }
+
     /**
      * Proceeds the user onto the next round of the game
      */
     protected void handleNextRound() {
-        try {
-            gameSessionUtils.toggleReady(sessionId, false);
+        gameSessionUtils.toggleReadyAsync(sessionId, false).handleAsync((session, e) -> {
+            if (e != null) {
+                System.out.println("takingover");
+                return null;
+            }
             imagePanel.setImage(null);
             fetchJokerStates();
             loadQuestion();
-        } catch (BadRequestException e) {
-            System.out.println("takingover");
-        }
+            return null;
+        }, ClientExecutor.FX);
     }
 
     /**
@@ -577,36 +650,36 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
         renderCorrectAnswer();
 
         this.evaluation = null;
+        if (rounds + 1 < gameRounds) prefetchNextQuestion();
 
         // TODO disable button while waiting
-        new Timer().schedule(new TimerTask() {
-            @Override
-            public void run() {
-                Platform.runLater(() -> {
-                    if (currentQuestion == null) return; // happens if shutdown is called before triggering
-                    rounds++;
-                    if (rounds == gameRounds) {
-                        handleGamePodium();
-                    } else if (rounds == gameRounds / 2 &&
-                            gameSessionUtils.getSession(sessionId).sessionType == GameSession.SessionType.MULTIPLAYER) {
-                        displayMidGameScreen();
-                        countdown.setOpacity(0);
-                    } else {
-                        handleNextRound();
-                    }
-                });
+        executor.schedule(() -> Platform.runLater(() -> {
+            if (currentQuestion == null) return; // happens if shutdown is called before triggering
+            rounds++;
+            if (rounds == gameRounds) {
+                handleGamePodium();
+            } else if (rounds == gameRounds / 2) {
+                GameSession session = sessionStore.getSession();
+                if (session != null && session.sessionType == GameSession.SessionType.MULTIPLAYER) {
+                    displayMidGameScreen();
+                    countdown.setOpacity(0);
+                } else {
+                    handleNextRound();
+                }
+            } else {
+                handleNextRound();
             }
-        }, GAME_ROUND_DELAY * 1000);
+        }), GAME_ROUND_DELAY * 1000);
     }
 
     /**
      * Updates the items in the leaderboard and makes sure the leaderboard remains visible
      */
     public void renderLeaderboard() {
-        var players = gameSessionUtils.getPlayers(sessionId);
-        var data = FXCollections.observableList(players);
-        leaderboard.setItems(data);
-        leaderboard.setOpacity(1);
+        gameSessionUtils.getPlayersAsync(sessionId).thenAcceptAsync(players -> {
+            leaderboard.setItems(FXCollections.observableList(players));
+            leaderboard.setOpacity(1);
+        }, ClientExecutor.FX);
     }
 
     /**
@@ -646,18 +719,18 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
     public void displayMidGameScreen() {
         displayLeaderboard();
 
-        TimeUtils roundTimer = new TimeUtils(MIDGAME_BREAK_TIME, TIMER_UPDATE_INTERVAL_MS);
-        roundTimer.setOnSucceeded((event) -> Platform.runLater(() -> {
+        TimeUtils roundTimer = new TimeUtils(MIDGAME_BREAK_TIME);
+        roundTimer.setOnFinished(() -> {
             removeMidGameLeaderboard();
             fetchJokerStates();
             loadQuestion();
-        }));
+        });
 
         timeProgress.progressProperty().bind(roundTimer.progressProperty());
-        this.timerThread = new Thread(roundTimer);
-        this.timerThread.start();
+        this.timerTask = roundTimer;
+        executor.start(roundTimer);
 
-        gameSessionUtils.toggleReady(sessionId, false);
+        gameSessionUtils.toggleReadyAsync(sessionId, false);
     }
 
     /**
@@ -693,29 +766,35 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
             case COMPARISON:
             case EQUIVALENCE:
             case MULTIPLE_CHOICE:
-                List<Integer> incorrectAnswers = new ArrayList<>();
-                List<Integer> correctAnswers = questionUtils.getCorrectAnswers(sessionId);
-                for (int i = 0; i < multiChoiceAnswers.size(); ++i) {
-                    if (!correctAnswers.contains(i)) {
-                        incorrectAnswers.add(i);
+                questionUtils.getCorrectAnswersAsync(sessionId).thenAcceptAsync(correctAnswers -> {
+                    List<Integer> incorrectAnswers = new ArrayList<>();
+                    for (int i = 0; i < multiChoiceAnswers.size(); ++i) {
+                        if (!correctAnswers.contains(i)) {
+                            incorrectAnswers.add(i);
+                        }
                     }
-                }
-                int randomIndex = new Random().nextInt(incorrectAnswers.size());
-                RadioButton button = multiChoiceAnswers.get(incorrectAnswers.get(randomIndex));
-                if (button.isSelected()) {
-                    button.setSelected(false);
-                }
-                button.setDisable(true);
+                    int randomIndex = new Random().nextInt(incorrectAnswers.size());
+                    RadioButton button = multiChoiceAnswers.get(incorrectAnswers.get(randomIndex));
+                    if (button.isSelected()) {
+                        button.setSelected(false);
+                    }
+                    button.setDisable(true);
+                }, ClientExecutor.FX);
                 break;
             default:
                 disableButton(removeOneButton, false);
         }
-        String username = leaderboardUtils.getPlayerByIdInLeaderboard(playerId).getUsername();
-        Joker joker = new Joker(
-                username,
-                "RemoveOneAnswerJoker"
-        );
-        gameSessionUtils.addUsedJoker(sessionId, joker);
+        announceJoker("RemoveOneAnswerJoker");
+    }
+
+    /**
+     * Let the other players of the session know that this player used a joker
+     *
+     * @param jokerName The name of the joker that was used
+     */
+    private void announceJoker(String jokerName) {
+        leaderboardUtils.getPlayerByIdInLeaderboardAsync(playerId)
+                .thenCompose(p -> gameSessionUtils.addUsedJokerAsync(sessionId, new Joker(p.getUsername(), jokerName)));
     }
 
 
@@ -725,7 +804,7 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
      * @return int representing number of time jokers
      */
     public double getTimeJokers() {
-        return gameSessionUtils.getSession(sessionId).getTimeJokers();
+        return sessionStore.timeJokersProperty().get();
     }
 
     /**
@@ -744,9 +823,8 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
         soundManager.playSound("Joker");
         decreaseTimeJoker = false;
         disableButton(decreaseTimeButton, true);
-        gameSessionUtils.updateTimeJokers(sessionId, (int) getTimeJokers() + 1);
-        String username = leaderboardUtils.getPlayerByIdInLeaderboard(playerId).getUsername();
-        gameSessionUtils.addUsedJoker(sessionId, new Joker(username, "DecreaseTimeJoker"));
+        gameSessionUtils.updateTimeJokersAsync(sessionId, sessionStore.timeJokersProperty().get() + 1);
+        announceJoker("DecreaseTimeJoker");
     }
 
     /**
@@ -758,8 +836,7 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
         doublePointsJoker = false;
         disableButton(doublePointsButton, true);
         switchStatusOfDoublePoints();
-        String username = leaderboardUtils.getPlayerByIdInLeaderboard(playerId).getUsername();
-        gameSessionUtils.addUsedJoker(sessionId, new Joker(username, "DoublePointsJoker"));
+        announceJoker("DoublePointsJoker");
     }
 
     /**
@@ -809,8 +886,17 @@ public abstract class GameCtrl extends SceneCtrl implements Initializable {
      * Fetch joker state from the server and update local state accordingly
      */
     public void fetchJokerStates() {
+        gameSessionUtils.getJokerStatesAsync(sessionId, playerId).thenAcceptAsync(this::applyJokerStates,
+                ClientExecutor.FX);
+    }
+
+    /**
+     * Update the local joker state and tell the player which jokers were refilled
+     *
+     * @param states The state of every joker of this player, as fetched from the server
+     */
+    private void applyJokerStates(Map<String, Joker.JokerStatus> states) {
         // TODO: maybe display animation once joker is refilled.
-        Map<String, Joker.JokerStatus> states = gameSessionUtils.getJokerStates(sessionId, playerId);
         StringBuilder refreshText = new StringBuilder();
         int refreshedJokers = 0;
         for (var joker : states.entrySet()) {
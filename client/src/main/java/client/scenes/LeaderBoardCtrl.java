@@ -15,12 +15,14 @@
  */
 package client.scenes;
 
-import client.utils.LeaderboardUtils;
 import client.utils.LongPollingUtils;
 import com.google.inject.Inject;
-import commons.Player;
+import commons.LeaderboardDelta;
+import commons.LeaderboardEntry;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
@@ -32,54 +34,59 @@ import javafx.util.Callback;
 import java.net.URL;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
-import org.apache.commons.lang3.tuple.Pair;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LeaderBoardCtrl extends SceneCtrl implements Initializable {
 
-    private final LeaderboardUtils leaderboardUtils;
     private final LongPollingUtils longPollUtils;
     private final SoundManager soundManager;
     private final MainCtrl mainCtrl;
     private List<Image> batteries;
 
+    // Rankings shown in the tables, patched in place by the deltas received from the server
+    private final Map<String, ObservableList<LeaderboardEntry>> rankings;
+    private final Map<String, Long> versions;
+
     // Separate statistics to different tables - reduce client processing overhead
     @FXML
-    private TableView<Player> allPlayersSingleplayer;
+    private TableView<LeaderboardEntry> allPlayersSingleplayer;
     @FXML
-    private TableColumn<Player, Integer> colBatterySingleplayer;
+    private TableColumn<LeaderboardEntry, Integer> colBatterySingleplayer;
     @FXML
-    private TableColumn<Player, String> colNameSingleplayer;
+    private TableColumn<LeaderboardEntry, String> colNameSingleplayer;
     @FXML
-    private TableColumn<Player, String> colPointSingleplayer;
+    private TableColumn<LeaderboardEntry, String> colPointSingleplayer;
 
     @FXML
-    private TableView<Player> allPlayersMultiplayer;
+    private TableView<LeaderboardEntry> allPlayersMultiplayer;
     @FXML
-    private TableColumn<Player, Integer> colBatteryMultiplayer;
+    private TableColumn<LeaderboardEntry, Integer> colBatteryMultiplayer;
     @FXML
-    private TableColumn<Player, String> colNameMultiplayer;
+    private TableColumn<LeaderboardEntry, String> colNameMultiplayer;
     @FXML
-    private TableColumn<Player, String> colPointMultiplayer;
+    private TableColumn<LeaderboardEntry, String> colPointMultiplayer;
 
     @FXML
-    private TableView<Player> allPlayersSurvival;
+    private TableView<LeaderboardEntry> allPlayersSurvival;
     @FXML
-    private TableColumn<Player, Integer> colBatterySurvival;
+    private TableColumn<LeaderboardEntry, Integer> colBatterySurvival;
     @FXML
-    private TableColumn<Player, String> colNameSurvival;
+    private TableColumn<LeaderboardEntry, String> colNameSurvival;
     @FXML
-    private TableColumn<Player, String> colPointSurvival;
+    private TableColumn<LeaderboardEntry, String> colPointSurvival;
 
     @FXML
-    private TableView<Player> allPlayersTimeAttack;
+    private TableView<LeaderboardEntry> allPlayersTimeAttack;
     @FXML
-    private TableColumn<Player, Integer> colBatteryTimeAttack;
+    private TableColumn<LeaderboardEntry, Integer> colBatteryTimeAttack;
     @FXML
-    private TableColumn<Player, String> colNameTimeAttack;
+    private TableColumn<LeaderboardEntry, String> colNameTimeAttack;
     @FXML
-    private TableColumn<Player, String> colPointTimeAttack;
+    private TableColumn<LeaderboardEntry, String> colPointTimeAttack;
 
     @FXML
     private Button singleButton;
@@ -95,13 +102,11 @@ public class LeaderBoardCtrl extends SceneCtrl implements Initializable {
     /**
      * constructor of the leaderboard
      *
-     * @param leaderboardUtils the utils that retrieves information about leaderboard form the server
-     * @param mainCtrl         the mainCtrl of the leaderboard
+     * @param longPollUtils the utils that receive leaderboard updates from the server
+     * @param mainCtrl      the mainCtrl of the leaderboard
      */
     @Inject
-    public LeaderBoardCtrl(LeaderboardUtils leaderboardUtils, LongPollingUtils longPollUtils,
-                           SoundManager soundManager, MainCtrl mainCtrl) {
-        this.leaderboardUtils = leaderboardUtils;
+    public LeaderBoardCtrl(LongPollingUtils longPollUtils, SoundManager soundManager, MainCtrl mainCtrl) {
         this.longPollUtils = longPollUtils;
         this.soundManager = soundManager;
         this.mainCtrl = mainCtrl;
@@ -113,7 +118,11 @@ public class LeaderBoardCtrl extends SceneCtrl implements Initializable {
 
             batteries.add(new Image(location.toString()));
         }
-
+        this.rankings = new HashMap<>();
+        for (String mode : List.of("single", "multi", "survival", "timeAttack")) {
+            rankings.put(mode, FXCollections.observableArrayList());
+        }
+        this.versions = new ConcurrentHashMap<>();
     }
 
     /**
@@ -127,23 +136,24 @@ public class LeaderBoardCtrl extends SceneCtrl implements Initializable {
 
         colBatterySingleplayer.setCellFactory(getBatteryCellFactory());
         colNameSingleplayer.setCellValueFactory(p -> new SimpleStringProperty(p.getValue().username));
-        colPointSingleplayer
-                .setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().bestSingleScore)));
+        colPointSingleplayer.setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().score)));
 
         colBatteryMultiplayer.setCellFactory(getBatteryCellFactory());
         colNameMultiplayer.setCellValueFactory(p -> new SimpleStringProperty(p.getValue().username));
-        colPointMultiplayer
-                .setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().bestMultiScore)));
+        colPointMultiplayer.setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().score)));
 
         colBatterySurvival.setCellFactory(getBatteryCellFactory());
         colNameSurvival.setCellValueFactory(p -> new SimpleStringProperty(p.getValue().username));
-        colPointSurvival
-                .setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().bestSurvivalScore)));
+        colPointSurvival.setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().score)));
 
         colBatteryTimeAttack.setCellFactory(getBatteryCellFactory());
         colNameTimeAttack.setCellValueFactory(p -> new SimpleStringProperty(p.getValue().username));
-        colPointTimeAttack
-                .setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().bestTimeAttackScore)));
+        colPointTimeAttack.setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().score)));
+
+        allPlayersSingleplayer.setItems(rankings.get("single"));
+        allPlayersMultiplayer.setItems(rankings.get("multi"));
+        allPlayersSurvival.setItems(rankings.get("survival"));
+        allPlayersTimeAttack.setItems(rankings.get("timeAttack"));
 
         singleButton.setOnAction(e -> showLeaderboard("single"));
         multiButton.setOnAction(e -> showLeaderboard("multi"));
@@ -155,10 +165,11 @@ public class LeaderBoardCtrl extends SceneCtrl implements Initializable {
      * Getter for a cell factory with battery images
      * @return Callback object to assign as a cell factory for the battery column
      */
-    public Callback<TableColumn<Player, Integer>, TableCell<Player, Integer>> getBatteryCellFactory() {
+    public Callback<TableColumn<LeaderboardEntry, Integer>, TableCell<LeaderboardEntry, Integer>>
+        getBatteryCellFactory() {
         return new Callback<>() {
             @Override
-            public TableCell<Player, Integer> call(TableColumn<Player, Integer> param) {
+            public TableCell<LeaderboardEntry, Integer> call(TableColumn<LeaderboardEntry, Integer> param) {
                 return new TableCell<>() {
                     @Override
                     protected void updateItem(Integer item, boolean empty) {
@@ -244,58 +255,32 @@ public class LeaderBoardCtrl extends SceneCtrl implements Initializable {
     }
 
     /**
-     * Gets sorted player lists for initial display when entering leaderboard screen
-     */
-    private void fetchInitialValues() {
-        var players = FXCollections.observableList(leaderboardUtils.getPlayerSingleScore());
-        allPlayersSingleplayer.setItems(players);
-        allPlayersSingleplayer.refresh();
-
-        players = FXCollections.observableList(leaderboardUtils.getPlayerMultiScore());
-        allPlayersMultiplayer.setItems(players);
-        allPlayersMultiplayer.refresh();
-
-        players = FXCollections.observableList(leaderboardUtils.getPlayerSurvivalScore());
-        allPlayersSurvival.setItems(players);
-        allPlayersSurvival.refresh();
-
-        players = FXCollections.observableList(leaderboardUtils.getPlayerTimeAttackScore());
-        allPlayersTimeAttack.setItems(players);
-        allPlayersTimeAttack.refresh();
-    }
-
-    /**
-     * Refreshes leaderboard data
+     * Refreshes leaderboard data. Deltas are only applied on top of the version they were computed for; the others
+     * are dropped, and the next poll reports the version the client actually has so the server can resend them.
+     *
+     * @param update The deltas received from the server, or null to start over from empty rankings
      */
-    public void refresh(Pair<String, List<Player>> update) {
+    public void refresh(List<LeaderboardDelta> update) {
         if (update == null) {
-            fetchInitialValues();
+            versions.clear();
+            rankings.values().forEach(List::clear);
             return;
         }
-        switch (update.getKey()) {
-            case "[single]" -> {
-                allPlayersSingleplayer.setItems(FXCollections.observableList(update.getValue()));
-                allPlayersSingleplayer.refresh();
-            }
-            case "[multi]" -> {
-                allPlayersMultiplayer.setItems(FXCollections.observableList(update.getValue()));
-                allPlayersMultiplayer.refresh();
-            }
-            case "[survival]" -> {
-                allPlayersSurvival.setItems(FXCollections.observableList(update.getValue()));
-                allPlayersSurvival.refresh();
-            }
-            case "[timeAttack]" -> {
-                allPlayersTimeAttack.setItems(FXCollections.observableList(update.getValue()));
-                allPlayersTimeAttack.refresh();
-            }
+        for (LeaderboardDelta delta : update) {
+            var ranking = rankings.get(delta.mode);
+            long known = versions.getOrDefault(delta.mode, 0L);
+            boolean applicable = delta.snapshot ? delta.version != known : delta.version == known + 1;
+            if (ranking == null || !applicable) continue;
+            delta.applyTo(ranking);
+            versions.put(delta.mode, delta.version);
         }
     }
 
     /**
-     * Show SurvivalLeaderBoard
+     * Register for leaderboard updates, starting from the rankings currently shown
      */
     public void registerForUpdates() {
-        longPollUtils.registerForLeaderboardUpdates(this::refresh);
+        longPollUtils.registerForLeaderboardUpdates(update -> Platform.runLater(() -> refresh(update)),
+                () -> Map.copyOf(versions));
     }
-}
\ No newline at end of file
+}
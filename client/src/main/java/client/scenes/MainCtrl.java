@@ -15,6 +15,8 @@
  */
 package client.scenes;
 
+import client.utils.ClientExecutor;
+import com.google.inject.Inject;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
@@ -60,6 +62,13 @@ public class MainCtrl {
 
     private List<Pair<? extends SceneCtrl, Parent>> pairs;
 
+    private final ClientExecutor executor;
+
+    @Inject
+    public MainCtrl(ClientExecutor executor) {
+        this.executor = executor;
+    }
+
     /**
      * Starter method for the main controller to establish connections between scenes and store their controllers
      *
@@ -134,7 +143,7 @@ public class MainCtrl {
      */
     public void showSplash() {
         primaryStage.setTitle("Main menu");
-        primaryStage.setScene(splashScreen);
+        switchScene(splashScreen);
         splashCtrl.retrieveSavedName();
     }
 
@@ -147,7 +156,7 @@ public class MainCtrl {
      */
     public void showMultiplayer(long sessionId, long playerId) {
         primaryStage.setTitle("Multiplayer game");
-        primaryStage.setScene(multiPlayerScreen);
+        switchScene(multiPlayerScreen);
         multiPlayerScreen.setOnKeyPressed(e -> multiplayerCtrl.keyPressed(e));
         multiplayerCtrl.setSessionId(sessionId);
         multiplayerCtrl.setPlayerId(playerId);
@@ -168,7 +177,7 @@ public class MainCtrl {
      */
     public void showRoomSelection(long playerId) {
         primaryStage.setTitle("Room Selection");
-        primaryStage.setScene(roomSelectionScreen);
+        switchScene(roomSelectionScreen);
         roomSelectionScreen.setOnKeyPressed(e -> roomSelectionCtrl.keyPressed(e));
         roomSelectionCtrl.setPlayerId(playerId);
         roomSelectionCtrl.refresh(null);
@@ -183,7 +192,7 @@ public class MainCtrl {
      */
     public void showWaitingArea(long playerId, long waitingId) {
         primaryStage.setTitle("Waiting area");
-        primaryStage.setScene(waitingAreaScreen);
+        switchScene(waitingAreaScreen);
         waitingAreaScreen.setOnKeyPressed(e -> waitingAreaCtrl.keyPressed(e));
         waitingAreaCtrl.setPlayerId(playerId);
         waitingAreaCtrl.setWaitingId(waitingId);
@@ -198,7 +207,7 @@ public class MainCtrl {
      */
     public void showGamemodeScreen(long playerId) {
         primaryStage.setTitle("Singleplayer gamemodes");
-        primaryStage.setScene(gamemodeScreen);
+        switchScene(gamemodeScreen);
         gamemodeScreen.setOnKeyPressed(e -> gamemodeCtrl.keyPressed(e));
         gamemodeCtrl.setPlayerId(playerId);
     }
@@ -209,7 +218,7 @@ public class MainCtrl {
      */
     public void showDefaultSinglePlayer(long sessionId, long playerId, int questions) {
         primaryStage.setTitle("Single player game");
-        primaryStage.setScene(singlePlayerScreen);
+        switchScene(singlePlayerScreen);
         singlePlayerScreen.setOnKeyPressed(e -> singlePlayerCtrl.keyPressed(e));
         singlePlayerCtrl.setSessionId(sessionId);
         singlePlayerCtrl.setPlayerId(playerId);
@@ -225,7 +234,7 @@ public class MainCtrl {
      */
     public void showTimeAttack(long sessionId, long playerId, double timer) {
         primaryStage.setTitle("Time Attack");
-        primaryStage.setScene(timeAttackScreen);
+        switchScene(timeAttackScreen);
         timeAttackScreen.setOnKeyPressed(e -> timeAttackCtrl.keyPressed(e));
         timeAttackCtrl.setSessionId(sessionId);
         timeAttackCtrl.setPlayerId(playerId);
@@ -240,7 +249,7 @@ public class MainCtrl {
      */
     public void showSurvival(long sessionId, long playerId, double lives) {
         primaryStage.setTitle("Survival Mode");
-        primaryStage.setScene(survivalScreen);
+        switchScene(survivalScreen);
         survivalScreen.setOnKeyPressed(e -> survivalCtrl.keyPressed(e));
         survivalCtrl.setSessionId(sessionId);
         survivalCtrl.setPlayerId(playerId);
@@ -256,7 +265,7 @@ public class MainCtrl {
     public void showLeaderboard() {
         leaderBoardCtrl.showLeaderboard("single");
         primaryStage.setTitle("LeaderBoard");
-        primaryStage.setScene(leaderBoardScreen);
+        switchScene(leaderBoardScreen);
         leaderBoardScreen.setOnKeyPressed(e -> leaderBoardCtrl.keyPressed(e));
         leaderBoardCtrl.refresh(null);
         leaderBoardCtrl.registerForUpdates();
@@ -268,7 +277,7 @@ public class MainCtrl {
      */
     public void showWebView(String url) {
         primaryStage.setTitle("Edit activities");
-        primaryStage.setScene(webViewScreen);
+        switchScene(webViewScreen);
         webViewCtrl.setPage(url);
         webViewCtrl.loadPage();
     }
@@ -279,10 +288,21 @@ public class MainCtrl {
     public void showTutorial() {
         tutorialCtrl.initialise();
         primaryStage.setTitle("Tutorial Screen");
-        primaryStage.setScene(tutorialScreen);
+        switchScene(tutorialScreen);
         tutorialScreen.setOnKeyPressed(e -> tutorialCtrl.keyPressed(e));
     }
 
+    /**
+     * Show another scene. Background tasks of the scene that is left, such as image loads, round timers and polls of
+     * the server, are cancelled.
+     *
+     * @param scene The scene to show
+     */
+    private void switchScene(Scene scene) {
+        executor.cancelSceneTasks();
+        primaryStage.setScene(scene);
+    }
+
     /**
      * Ask the user for confirmation before closing the app
      */
@@ -322,10 +342,10 @@ public class MainCtrl {
      */
     public void showPodiumScreen(long sessionId, long playerId) {
         primaryStage.setTitle("Podium");
-        primaryStage.setScene(podiumScreen);
-        podiumCtrl.createPodium(sessionId);
+        switchScene(podiumScreen);
         podiumCtrl.setPlayerId(playerId);
         podiumCtrl.setSessionId(sessionId);
+        podiumCtrl.createPodium(sessionId);
     }
 
     /**
@@ -335,7 +355,7 @@ public class MainCtrl {
      */
     public void showEndGameScreen(long sessionId, long playerId) {
         primaryStage.setTitle("End of game");
-        primaryStage.setScene(endGameScreen);
+        switchScene(endGameScreen);
         endGameScreenCtrl.setPlayerId(playerId);
         endGameScreenCtrl.setSessionId(sessionId);
         endGameScreenCtrl.showEndScreen();
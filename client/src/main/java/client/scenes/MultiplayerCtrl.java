@@ -18,7 +18,6 @@ package client.scenes;
 import client.utils.*;
 import com.google.inject.Inject;
 import commons.*;
-import jakarta.ws.rs.BadRequestException;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
@@ -33,6 +32,7 @@ import org.springframework.messaging.simp.stomp.StompSession;
 import java.net.URL;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ScheduledFuture;
 
 public class MultiplayerCtrl extends GameCtrl {
 
@@ -53,9 +53,9 @@ public class MultiplayerCtrl extends GameCtrl {
 
     private int lastDisconnectIndex;
 
-    private Timer disconnectTimer;
+    private ScheduledFuture<?> disconnectTimer;
     private int lastJokerIndex;
-    private Timer jokerTimer;
+    private ScheduledFuture<?> jokerTimer;
 
     private StompSession.Subscription channel;
     private final List<Image> emojiImages;
@@ -63,10 +63,11 @@ public class MultiplayerCtrl extends GameCtrl {
 
     @Inject
     public MultiplayerCtrl(WebSocketsUtils webSocketsUtils, GameSessionUtils gameSessionUtils,
-                           LeaderboardUtils leaderboardUtils, QuestionUtils questionUtils,
-                           GameAnimation gameAnimation, SoundManager soundManager, MainCtrl mainCtrl) {
+                           LeaderboardUtils leaderboardUtils, QuestionUtils questionUtils, ImageCache imageCache,
+                           ClientExecutor executor, SessionStore sessionStore, GameAnimation gameAnimation,
+                           SoundManager soundManager, MainCtrl mainCtrl) {
         super(webSocketsUtils, gameSessionUtils, leaderboardUtils,
-                questionUtils, gameAnimation, soundManager, mainCtrl);
+                questionUtils, imageCache, executor, sessionStore, gameAnimation, soundManager, mainCtrl);
 
         emojiImages = new ArrayList<Image>();
         String[] emojiFileNames = {"funny", "sad", "angry"};
@@ -117,22 +118,18 @@ public class MultiplayerCtrl extends GameCtrl {
      */
     public void scanForDisconnect() {
         lastDisconnectIndex = -1;
-        disconnectTimer = new Timer();
-        disconnectTimer.scheduleAtFixedRate(new TimerTask() {
-
-            @Override
-            public void run() {
-                try {
-                    List<Player> allRemoved = gameSessionUtils.getRemovedPlayers(sessionId);
-                    List<Player> newRemoved = new ArrayList<Player>();
-                    for (int i = lastDisconnectIndex + 1; i < allRemoved.size(); i++) {
-                        newRemoved.add(allRemoved.get(i));
-                    }
-                    Platform.runLater(() -> disconnectedText(newRemoved));
-                    lastDisconnectIndex = allRemoved.size() - 1;
-                } catch (Exception e) {
-                    cancel();
+        disconnectTimer = executor.scheduleAtFixedRate(() -> {
+            try {
+                List<Player> allRemoved = gameSessionUtils.getRemovedPlayers(sessionId);
+                List<Player> newRemoved = new ArrayList<Player>();
+                for (int i = lastDisconnectIndex + 1; i < allRemoved.size(); i++) {
+                    newRemoved.add(allRemoved.get(i));
                 }
+                Platform.runLater(() -> disconnectedText(newRemoved));
+                lastDisconnectIndex = allRemoved.size() - 1;
+                return true;
+            } catch (Exception e) {
+                return false;
             }
         }, 0, 2000);
     }
@@ -162,28 +159,7 @@ public class MultiplayerCtrl extends GameCtrl {
      * how many players want to play again.
      */
     public void refresh() {
-        Timer timer = new Timer();
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                Platform.runLater(() -> {
-                    try {
-                        if (gameSessionUtils.getSession(sessionId).sessionStatus
-                                == GameSession.SessionStatus.PAUSED) {
-                            startEvaluation();
-                            cancel();
-                        }
-                    } catch (Exception e) {
-                        cancel();
-                    }
-                });
-            }
-
-            @Override
-            public boolean cancel() {
-                return super.cancel();
-            }
-        }, 0, 100);
+        sessionStore.whenStatus(GameSession.SessionStatus.PAUSED, this::startEvaluation);
     }
 
     /**
@@ -218,13 +194,10 @@ public class MultiplayerCtrl extends GameCtrl {
     }
 
     /**
-     * Interrupts the timer, disables the submit button, sends the user's answer for evaluation and pauses the game
-     * until everyone has answered or the timer has terminated.
+     * Pauses the game until everyone has answered or the timer has terminated, once the user's answer is submitted.
      */
-    public void submitAnswer(boolean initiatedByTimer) {
-        super.submitAnswer(initiatedByTimer);
-        if (!initiatedByTimer && this.evaluation == null) return;
-
+    @Override
+    protected void answerSubmitted() {
         //enable jokers that can be used after submitting an answer
         disableButton(decreaseTimeButton, !decreaseTimeJoker);
         disableButton(doublePointsButton, !doublePointsJoker);
@@ -235,14 +208,14 @@ public class MultiplayerCtrl extends GameCtrl {
     @Override
     public void shutdown() {
         if (submitButton.isDisabled()) {
-            gameSessionUtils.toggleReady(sessionId, false);
+            gameSessionUtils.toggleReadyAsync(sessionId, false);
         }
         soundManager.halt();
         channel.unsubscribe();
         super.shutdown();
-        disconnectTimer.cancel();
+        disconnectTimer.cancel(false);
         lastDisconnectIndex = -1;
-        jokerTimer.cancel();
+        jokerTimer.cancel(false);
         lastJokerIndex = -1;
     }
 
@@ -250,9 +223,8 @@ public class MultiplayerCtrl extends GameCtrl {
      * Register the client to receive emoji reactions from other players
      */
     public void registerForEmojiUpdates() {
-        channel = this.webSocketsUtils.registerForEmojiUpdates(emoji -> {
-            Platform.runLater(() -> gameAnimation.startEmojiAnimation(
-                    gameAnimation.emojiToImage(emojiImages, emoji, 60), emoji.username, emojiArea));
+        channel = this.webSocketsUtils.registerForEmojiUpdates(batch -> {
+            Platform.runLater(() -> gameAnimation.startEmojiBatchAnimation(batch, emojiImages, 60, emojiArea));
         }, this.sessionId);
     }
 
@@ -273,24 +245,20 @@ public class MultiplayerCtrl extends GameCtrl {
     public void showPodiumScreen(long sessionId) throws InterruptedException {
         soundManager.halt();
         soundManager.playSound("EndGame");
-        gameSessionUtils.toggleReady(sessionId, false);
+        gameSessionUtils.toggleReadyAsync(sessionId, false);
         mainCtrl.showPodiumScreen(this.sessionId, playerId);
 
-        TimeUtils timer = new TimeUtils(PODIUM_TIME, TIMER_UPDATE_INTERVAL_MS);
-        timer.setOnSucceeded((event) -> {
-            Platform.runLater(() -> {
-                mainCtrl.showEndGameScreen(sessionId, playerId);
-            });
-        });
+        TimeUtils timer = new TimeUtils(PODIUM_TIME);
+        timer.setOnFinished(() -> mainCtrl.showEndGameScreen(sessionId, playerId));
 
         timeProgress.progressProperty().bind(timer.progressProperty());
-        this.timerThread = new Thread(timer);
-        this.timerThread.start();
+        this.timerTask = timer;
+        executor.start(timer);
         reset();
         channel.unsubscribe();
-        disconnectTimer.cancel();
+        disconnectTimer.cancel(false);
         lastDisconnectIndex = -1;
-        jokerTimer.cancel();
+        jokerTimer.cancel(false);
         lastJokerIndex = -1;
     }
 
@@ -299,21 +267,15 @@ public class MultiplayerCtrl extends GameCtrl {
      */
     public void scanForJokerUsage() {
         lastJokerIndex = -1;
-        jokerTimer = new Timer();
-        jokerTimer.scheduleAtFixedRate(new TimerTask() {
-
-            @Override
-            public void run() {
-                Platform.runLater(() -> {
-                    List<Joker> allUsed = gameSessionUtils.getUsedJoker(sessionId);
-                    List<Joker> newlyUsed = new ArrayList<>();
-                    for (int i = lastJokerIndex + 1; i < allUsed.size(); i++) {
-                        newlyUsed.add(allUsed.get(i));
-                    }
-                    displayJokerUsage(newlyUsed);
-                    lastJokerIndex = allUsed.size() - 1;
-                });
+        jokerTimer = executor.scheduleAtFixedRate(() -> {
+            List<Joker> allUsed = gameSessionUtils.getUsedJoker(sessionId);
+            List<Joker> newlyUsed = new ArrayList<>();
+            for (int i = lastJokerIndex + 1; i < allUsed.size(); i++) {
+                newlyUsed.add(allUsed.get(i));
             }
+            lastJokerIndex = allUsed.size() - 1;
+            Platform.runLater(() -> displayJokerUsage(newlyUsed));
+            return true;
         }, 0, 2000);
     }
 
@@ -342,13 +304,14 @@ public class MultiplayerCtrl extends GameCtrl {
      */
     @Override
     public void handleGamePodium() {
+        GameSession session = sessionStore.getSession();
         try {
-            if (gameSessionUtils.getSession(sessionId).players.size() >= 2) showPodiumScreen(sessionId);
+            if (session == null) {
+                setPlayerId(0);
+                setSessionId(0);
+                back();
+            } else if (session.players.size() >= 2) showPodiumScreen(sessionId);
             else back();
-        } catch (BadRequestException ex) {
-            setPlayerId(0);
-            setSessionId(0);
-            back();
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
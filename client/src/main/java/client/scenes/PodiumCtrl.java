@@ -1,6 +1,8 @@
 package client.scenes;
 
+import client.utils.ClientExecutor;
 import client.utils.GameSessionUtils;
+import client.utils.LeaderboardUtils;
 import com.google.inject.Inject;
 import commons.Player;
 import javafx.application.Platform;
@@ -9,13 +11,14 @@ import javafx.scene.control.Label;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class PodiumCtrl extends SceneCtrl {
 
     private final GameSessionUtils gameSessionUtils;
+    private final LeaderboardUtils leaderboardUtils;
     private final SoundManager soundManager;
+    private final ClientExecutor executor;
     private final MainCtrl mainCtrl;
 
     private long playerId;
@@ -35,13 +38,18 @@ public class PodiumCtrl extends SceneCtrl {
     private Label name1;
     @FXML
     private Label countdown;
+    @FXML
+    private Label percentile;
 
     private List<Player> playerList;
 
     @Inject
-    public PodiumCtrl(GameSessionUtils gameSessionUtils, SoundManager soundManager, MainCtrl mainCtrl) {
+    public PodiumCtrl(GameSessionUtils gameSessionUtils, LeaderboardUtils leaderboardUtils, SoundManager soundManager,
+                      ClientExecutor executor, MainCtrl mainCtrl) {
         this.gameSessionUtils = gameSessionUtils;
+        this.leaderboardUtils = leaderboardUtils;
         this.soundManager = soundManager;
+        this.executor = executor;
         this.mainCtrl = mainCtrl;
     }
 
@@ -71,7 +79,20 @@ public class PodiumCtrl extends SceneCtrl {
             name3.setText("");
             point3.setText("");
         }
+        showPercentile();
+    }
 
+    /**
+     * Show the share of all multiplayer players whose best score is below the score of this player
+     */
+    private void showPercentile() {
+        var self = playerList.stream().filter(p -> p.id == playerId).findFirst();
+        if (self.isEmpty()) {
+            percentile.setText("");
+            return;
+        }
+        double beaten = leaderboardUtils.getPercentile("multi", self.get().currentPoints);
+        percentile.setText(String.format("You beat %.0f%% of players", beaten));
     }
 
     /**
@@ -112,20 +133,12 @@ public class PodiumCtrl extends SceneCtrl {
      * the method to countdown when showing the podium screen
      */
     public void countdown() {
-        new Timer().scheduleAtFixedRate(new TimerTask() {
-            int counter = 10;
-
-            @Override
-            public void run() {
-                Platform.runLater(() -> {
-                    if (counter < 0) {
-                        cancel();
-                    } else {
-                        countdown.setText("The end game screen will appear in " + counter + " sec");
-                        counter--;
-                    }
-                });
-            }
+        AtomicInteger counter = new AtomicInteger(10);
+        executor.scheduleAtFixedRate(() -> {
+            int left = counter.getAndDecrement();
+            if (left < 0) return false;
+            Platform.runLater(() -> countdown.setText("The end game screen will appear in " + left + " sec"));
+            return true;
         }, 0, 1000);
     }
 }
@@ -1,11 +1,14 @@
 package client.scenes;
 
+import client.utils.ClientExecutor;
 import client.utils.GameSessionUtils;
+import client.utils.ImageCache;
 import client.utils.LeaderboardUtils;
 import client.utils.QuestionUtils;
+import client.utils.SessionStore;
 import client.utils.WebSocketsUtils;
 import commons.Joker;
-import commons.Player;
+import commons.LeaderboardEntry;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -16,24 +19,27 @@ import javafx.scene.control.TableView;
 
 import javax.inject.Inject;
 import java.net.URL;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 
 public class SingleplayerCtrl extends GameCtrl {
 
-    protected ObservableList<Player> data;
+    protected ObservableList<LeaderboardEntry> data;
     @FXML
-    protected TableView<Player> allPlayers;
+    protected TableView<LeaderboardEntry> allPlayers;
     @FXML
-    protected TableColumn<Player, String> colName;
+    protected TableColumn<LeaderboardEntry, String> colName;
     @FXML
-    protected TableColumn<Player, String> colPoint;
+    protected TableColumn<LeaderboardEntry, String> colPoint;
 
     @Inject
     public SingleplayerCtrl(WebSocketsUtils webSocketsUtils, GameSessionUtils gameSessionUtils,
-                            LeaderboardUtils leaderboardUtils, QuestionUtils questionUtils,
-                            GameAnimation gameAnimation, SoundManager soundManager, MainCtrl mainCtrl) {
+                            LeaderboardUtils leaderboardUtils, QuestionUtils questionUtils, ImageCache imageCache,
+                            ClientExecutor executor, SessionStore sessionStore, GameAnimation gameAnimation,
+                            SoundManager soundManager, MainCtrl mainCtrl) {
         super(webSocketsUtils, gameSessionUtils, leaderboardUtils,
-                questionUtils, gameAnimation, soundManager, mainCtrl);
+                questionUtils, imageCache, executor, sessionStore, gameAnimation, soundManager, mainCtrl);
     }
 
     /**
@@ -42,15 +48,14 @@ public class SingleplayerCtrl extends GameCtrl {
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         colName.setCellValueFactory(p -> new SimpleStringProperty(p.getValue().username));
-        colPoint.setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().bestSingleScore)));
+        colPoint.setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().score)));
     }
 
     /**
-     * Submit an answer to the server and start evaluation
+     * Start the evaluation as soon as the answer was submitted
      */
     @Override
-    public void submitAnswer(boolean initiatedByTimer) {
-        super.submitAnswer(initiatedByTimer);
+    protected void answerSubmitted() {
         startEvaluation();
     }
 
@@ -72,7 +77,7 @@ public class SingleplayerCtrl extends GameCtrl {
      */
     @Override
     public double getTimeJokers() {
-        return gameSessionUtils.getSession(sessionId).getTimeJokers() * -0.5;
+        return sessionStore.timeJokersProperty().get() * -0.5;
     }
 
     /**
@@ -91,9 +96,20 @@ public class SingleplayerCtrl extends GameCtrl {
      * refresh the screen to show the leaderboards
      */
     public void refresh() {
-        var players = leaderboardUtils.getPlayerSingleScore();
-        data = FXCollections.observableList(players);
-        allPlayers.setItems(data);
+        showRanking("single", leaderboardUtils.getPlayerSingleScoreAsync());
+    }
+
+    /**
+     * Show the best ranked entries of a game mode together with this player's standing, once both were fetched
+     *
+     * @param mode The game mode of the ranking
+     * @param top  Future completing with the best ranked entries of the game mode
+     */
+    protected void showRanking(String mode, CompletableFuture<List<LeaderboardEntry>> top) {
+        top.thenCompose(entries -> withOwnStanding(mode, entries)).thenAcceptAsync(entries -> {
+            data = FXCollections.observableList(entries);
+            allPlayers.setItems(data);
+        }, ClientExecutor.FX);
     }
 
     @Override
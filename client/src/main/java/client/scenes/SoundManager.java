@@ -1,14 +1,33 @@
 package client.scenes;
 
 
+import javafx.scene.media.AudioClip;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
 
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public class SoundManager {
 
+    /**
+     * Short sounds, which are kept decoded in memory so they play without delay
+     */
+    public static final List<String> EFFECTS = List.of("Alert", "Button", "EndGame", "Joker");
+
+    /**
+     * Music, which is streamed by a media player that is reused every time the track is played
+     */
+    public static final List<String> MUSIC = List.of("Waiting", "InGame1", "InGame2");
+
     SoundProfile soundProfile;
     MediaPlayer mainPlayer;
 
+    private final Map<SoundProfile, Map<String, AudioClip>> effects;
+    private final Map<SoundProfile, Map<String, MediaPlayer>> music;
+
     public enum SoundProfile {
         NORMAL,
         WEIRD
@@ -17,6 +36,22 @@ public class SoundManager {
     public SoundManager() {
         this.soundProfile = SoundProfile.NORMAL;
         mainPlayer = null;
+        this.effects = new EnumMap<>(SoundProfile.class);
+        this.music = new EnumMap<>(SoundProfile.class);
+        for (SoundProfile profile : SoundProfile.values()) {
+            Map<String, AudioClip> clips = new HashMap<>();
+            for (String sound : EFFECTS) clips.put(sound, new AudioClip(location(profile, sound)));
+            effects.put(profile, clips);
+
+            Map<String, MediaPlayer> players = new HashMap<>();
+            for (String sound : MUSIC) players.put(sound, new MediaPlayer(new Media(location(profile, sound))));
+            music.put(profile, players);
+        }
+    }
+
+    private String location(SoundProfile profile, String sound) {
+        String name = "/Sounds/" + (profile == SoundProfile.NORMAL ? "normal" : "weird") + sound + ".mp3";
+        return getClass().getResource(name).toString();
     }
 
     /**
@@ -28,14 +63,20 @@ public class SoundManager {
     }
 
     /**
-     * Method used to play any sound available in the database
+     * Method used to play any sound available in the database. Starting a music track stops the one that is playing.
      */
     public void playSound(String sound) {
-        String location = "/Sounds/" + (soundProfile == SoundProfile.NORMAL ? "normal" : "weird") + sound + ".mp3";
-        Media hit = new Media(getClass().getResource(location).toString());
-        MediaPlayer mediaPlayer = new MediaPlayer(hit);
-        if (sound.equals("Waiting") || sound.contains("InGame")) mainPlayer = mediaPlayer;
-        mediaPlayer.play();
+        AudioClip clip = effects.get(soundProfile).get(sound);
+        if (clip != null) {
+            clip.play();
+            return;
+        }
+
+        MediaPlayer player = music.get(soundProfile).get(sound);
+        if (player == null) throw new IllegalArgumentException("Unknown sound " + sound);
+        halt();
+        mainPlayer = player;
+        player.play();
     }
 
     /**
@@ -1,21 +1,22 @@
 package client.scenes;
 
+import client.utils.ClientExecutor;
 import client.utils.GameSessionUtils;
+import client.utils.ImageCache;
 import client.utils.LeaderboardUtils;
 import client.utils.QuestionUtils;
+import client.utils.SessionStore;
 import client.utils.WebSocketsUtils;
 import commons.Answer;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
 
 import javax.inject.Inject;
 import java.net.URL;
 import java.util.ResourceBundle;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
 
 public class SurvivalCtrl extends SingleplayerCtrl {
 
@@ -26,10 +27,11 @@ public class SurvivalCtrl extends SingleplayerCtrl {
 
     @Inject
     public SurvivalCtrl(WebSocketsUtils webSocketsUtils, GameSessionUtils gameSessionUtils,
-                        LeaderboardUtils leaderboardUtils, QuestionUtils questionUtils,
-                        GameAnimation gameAnimation, SoundManager soundManager, MainCtrl mainCtrl) {
+                        LeaderboardUtils leaderboardUtils, QuestionUtils questionUtils, ImageCache imageCache,
+                        ClientExecutor executor, SessionStore sessionStore, GameAnimation gameAnimation,
+                        SoundManager soundManager, MainCtrl mainCtrl) {
         super(webSocketsUtils, gameSessionUtils, leaderboardUtils,
-                questionUtils, gameAnimation, soundManager, mainCtrl);
+                questionUtils, imageCache, executor, sessionStore, gameAnimation, soundManager, mainCtrl);
     }
 
     /**
@@ -38,7 +40,7 @@ public class SurvivalCtrl extends SingleplayerCtrl {
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         colName.setCellValueFactory(p -> new SimpleStringProperty(p.getValue().username));
-        colPoint.setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().bestSurvivalScore)));
+        colPoint.setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().score)));
     }
 
     /**
@@ -97,27 +99,27 @@ public class SurvivalCtrl extends SingleplayerCtrl {
 
         if (!initiatedByTimer) soundManager.halt();
         else {
-            new Timer().schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    soundManager.halt();
-                }
-            }, 3000);
+            executor.schedule(soundManager::halt, 3000);
         }
 
-        if (this.timerThread != null && this.timerThread.isAlive()) this.timerThread.interrupt();
+        if (this.timerTask != null) this.timerTask.cancel();
         disableButton(submitButton, true);
 
-        this.evaluation = questionUtils.submitAnswer(sessionId, playerId, ans);
-
-        if (evaluation.points == 0) {
-            gameLives--;
-        }
-        if (gameLives == 0) {
-            gameSessionUtils.setQuestionCounter(sessionId, Integer.MAX_VALUE);
-        }
-        gameSessionUtils.toggleReady(sessionId, true);
-        startEvaluation();
+        long livesBefore = gameLives;
+        questionUtils.submitAnswerAsync(sessionId, playerId, ans)
+                .thenCompose(evaluation -> {
+                    // the last life is lost, so the server should end the game after this question
+                    CompletableFuture<?> counted = (evaluation.points == 0 && livesBefore == 1)
+                            ? gameSessionUtils.setQuestionCounterAsync(sessionId, Integer.MAX_VALUE)
+                            : CompletableFuture.completedFuture(null);
+                    return counted.thenCompose(s -> gameSessionUtils.toggleReadyAsync(sessionId, true))
+                            .thenApply(s -> evaluation);
+                })
+                .thenAcceptAsync(evaluation -> {
+                    if (evaluation.points == 0) gameLives--;
+                    this.evaluation = evaluation;
+                    startEvaluation();
+                }, ClientExecutor.FX);
     }
 
     /**
@@ -129,22 +131,18 @@ public class SurvivalCtrl extends SingleplayerCtrl {
         updatePoints();
         renderCorrectAnswer();
         this.evaluation = null;
+        if (gameLives > 0) prefetchNextQuestion();
 
         // TODO disable button while waiting
-        new Timer().schedule(new TimerTask() {
-            @Override
-            public void run() {
-                Platform.runLater(() -> {
-                    if (currentQuestion == null) return; // happens if shutdown is called before triggering
-                    rounds++;
-                    if (gameLives == 0) {
-                        handleGamePodium();
-                    } else {
-                        handleNextRound();
-                    }
-                });
+        executor.schedule(() -> Platform.runLater(() -> {
+            if (currentQuestion == null) return; // happens if shutdown is called before triggering
+            rounds++;
+            if (gameLives == 0) {
+                handleGamePodium();
+            } else {
+                handleNextRound();
             }
-        }, GAME_ROUND_DELAY * 1000);
+        }), GAME_ROUND_DELAY * 1000);
     }
 
     /**
@@ -152,8 +150,6 @@ public class SurvivalCtrl extends SingleplayerCtrl {
      */
     @Override
     public void refresh() {
-        var players = leaderboardUtils.getPlayerSurvivalScore();
-        data = FXCollections.observableList(players);
-        allPlayers.setItems(data);
+        showRanking("survival", leaderboardUtils.getPlayerSurvivalScoreAsync());
     }
 }
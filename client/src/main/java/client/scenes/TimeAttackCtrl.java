@@ -6,14 +6,11 @@ import commons.Question;
 import jakarta.ws.rs.BadRequestException;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
 import javafx.scene.control.Alert;
 
 import javax.inject.Inject;
 import java.net.URL;
 import java.util.ResourceBundle;
-import java.util.Timer;
-import java.util.TimerTask;
 
 public class TimeAttackCtrl extends SingleplayerCtrl {
 
@@ -22,10 +19,11 @@ public class TimeAttackCtrl extends SingleplayerCtrl {
 
     @Inject
     public TimeAttackCtrl(WebSocketsUtils webSocketsUtils, GameSessionUtils gameSessionUtils,
-                          LeaderboardUtils leaderboardUtils, QuestionUtils questionUtils,
-                          GameAnimation gameAnimation, SoundManager soundManager, MainCtrl mainCtrl) {
+                          LeaderboardUtils leaderboardUtils, QuestionUtils questionUtils, ImageCache imageCache,
+                          ClientExecutor executor, SessionStore sessionStore, GameAnimation gameAnimation,
+                          SoundManager soundManager, MainCtrl mainCtrl) {
         super(webSocketsUtils, gameSessionUtils, leaderboardUtils,
-                questionUtils, gameAnimation, soundManager, mainCtrl);
+                questionUtils, imageCache, executor, sessionStore, gameAnimation, soundManager, mainCtrl);
     }
 
     /**
@@ -34,7 +32,7 @@ public class TimeAttackCtrl extends SingleplayerCtrl {
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         colName.setCellValueFactory(p -> new SimpleStringProperty(p.getValue().username));
-        colPoint.setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().bestTimeAttackScore)));
+        colPoint.setCellValueFactory(q -> new SimpleStringProperty(String.valueOf(q.getValue().score)));
     }
 
     /**
@@ -136,20 +134,18 @@ public class TimeAttackCtrl extends SingleplayerCtrl {
 
         if (!initiatedByTimer) soundManager.halt();
         else {
-            new Timer().schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    soundManager.halt();
-                }
-            }, 3000);
+            executor.schedule(soundManager::halt, 3000);
         }
 
         disableButton(submitButton, true);
 
-        this.evaluation = questionUtils.submitAnswer(sessionId, playerId, ans);
-
-        gameSessionUtils.toggleReady(sessionId, true);
-        startEvaluation();
+        questionUtils.submitAnswerAsync(sessionId, playerId, ans)
+                .thenCompose(evaluation -> gameSessionUtils.toggleReadyAsync(sessionId, true)
+                        .thenApply(s -> evaluation))
+                .thenAcceptAsync(evaluation -> {
+                    this.evaluation = evaluation;
+                    startEvaluation();
+                }, ClientExecutor.FX);
     }
 
     /**
@@ -163,21 +159,16 @@ public class TimeAttackCtrl extends SingleplayerCtrl {
         this.evaluation = null;
 
         // TODO disable button while waiting
-        new Timer().schedule(new TimerTask() {
-            @Override
-            public void run() {
-                Platform.runLater(() -> {
-                    if (currentQuestion == null) return; // happens if shutdown is called before triggering
-                    rounds++;
-                    if (initialTime <= 0) {
-                        handleGamePodium();
-                    } else {
-                        handleNextRound();
-                        soundManager.halt();
-                    }
-                });
+        executor.schedule(() -> Platform.runLater(() -> {
+            if (currentQuestion == null) return; // happens if shutdown is called before triggering
+            rounds++;
+            if (initialTime <= 0) {
+                handleGamePodium();
+            } else {
+                handleNextRound();
+                soundManager.halt();
             }
-        }, GAME_ROUND_DELAY * 500);
+        }), GAME_ROUND_DELAY * 500);
     }
 
     /**
@@ -185,26 +176,25 @@ public class TimeAttackCtrl extends SingleplayerCtrl {
      */
     @Override
     public void refresh() {
-        var players = leaderboardUtils.getPlayerTimeAttackScore();
-        data = FXCollections.observableList(players);
-        allPlayers.setItems(data);
+        showRanking("timeAttack", leaderboardUtils.getPlayerTimeAttackScoreAsync());
     }
 
     /**
      * Initiates the timer at the beginning of the game and loads a question.
      */
     public void startTimer() {
-        roundTimer = new TimeUtils(initialTime, TIMER_UPDATE_INTERVAL_MS);
-        roundTimer.setOnSucceeded((event) -> Platform.runLater(() -> {
+        roundTimer = new TimeUtils(initialTime);
+        roundTimer.setOnFinished(() -> {
             System.out.println("roundTimer is done");
             this.initialTime = 0;
-            gameSessionUtils.setQuestionCounter(sessionId, Integer.MAX_VALUE);
-            submitAnswer(true);
-        }));
+            // the game ends with this question, which the server must know before the player is marked as ready
+            gameSessionUtils.setQuestionCounterAsync(sessionId, Integer.MAX_VALUE)
+                    .thenRunAsync(() -> submitAnswer(true), ClientExecutor.FX);
+        });
 
         timeProgress.progressProperty().bind(roundTimer.progressProperty());
-        this.timerThread = new Thread(roundTimer);
-        this.timerThread.start();
+        this.timerTask = roundTimer;
+        executor.start(roundTimer);
 
         loadQuestion();
     }
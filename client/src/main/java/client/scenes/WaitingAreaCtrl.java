@@ -15,6 +15,7 @@
  */
 package client.scenes;
 
+import client.utils.ClientExecutor;
 import client.utils.GameSessionUtils;
 import client.utils.LongPollingUtils;
 import com.google.inject.Inject;
@@ -34,6 +35,7 @@ import javafx.scene.input.KeyEvent;
 
 import java.net.URL;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class WaitingAreaCtrl extends SceneCtrl implements Initializable {
@@ -44,7 +46,6 @@ public class WaitingAreaCtrl extends SceneCtrl implements Initializable {
     private final MainCtrl mainCtrl;
 
     private long playerId;
-    private Player transferPlayer;
     private long waitingId;
     private int playerCount;
 
@@ -82,11 +83,7 @@ public class WaitingAreaCtrl extends SceneCtrl implements Initializable {
      * {@inheritDoc}
      */
     public void shutdown() {
-        if (readyButton.getText().equals("Not Ready")) gameSessionUtils.toggleReady(waitingId, false);
-        transferPlayer = gameSessionUtils.removePlayer(waitingId, playerId);
-        backButton.setDisable(true);
-        Platform.runLater(() -> longPollUtils.haltUpdates("waitingArea"));
-        backButton.setDisable(false);
+        leave().join();
     }
 
     /**
@@ -96,10 +93,26 @@ public class WaitingAreaCtrl extends SceneCtrl implements Initializable {
         soundManager.halt();
         soundManager.playSound("Button");
         long id = playerId;
-        shutdown();
-        gameSessionUtils.addPlayer(MainCtrl.SELECTION_ID, transferPlayer);
-        readyButton.setText("Ready");
-        mainCtrl.showRoomSelection(id);
+        backButton.setDisable(true);
+        leave().thenCompose(p -> gameSessionUtils.addPlayerAsync(MainCtrl.SELECTION_ID, p))
+                .thenRunAsync(() -> {
+                    readyButton.setText("Ready");
+                    backButton.setDisable(false);
+                    mainCtrl.showRoomSelection(id);
+                }, ClientExecutor.FX);
+    }
+
+    /**
+     * Removes the player from the waiting area, taking back their ready state first
+     *
+     * @return Future completed with the removed player, once the server has removed them
+     */
+    private CompletableFuture<Player> leave() {
+        Platform.runLater(() -> longPollUtils.haltUpdates("waitingArea"));
+        CompletableFuture<GameSession> unready = readyButton.getText().equals("Not Ready")
+                ? gameSessionUtils.toggleReadyAsync(waitingId, false)
+                : CompletableFuture.completedFuture(null);
+        return unready.thenCompose(s -> gameSessionUtils.removePlayerAsync(waitingId, playerId));
     }
 
     /**
@@ -110,11 +123,11 @@ public class WaitingAreaCtrl extends SceneCtrl implements Initializable {
         switch (readyButton.getText()) {
             case "Ready" -> {
                 readyButton.setText("Not Ready");
-                gameSessionUtils.toggleReady(waitingId, true);
+                gameSessionUtils.toggleReadyAsync(waitingId, true);
             }
             case "Not Ready" -> {
                 readyButton.setText("Ready");
-                gameSessionUtils.toggleReady(waitingId, false);
+                gameSessionUtils.toggleReadyAsync(waitingId, false);
             }
         }
     }
@@ -136,14 +149,7 @@ public class WaitingAreaCtrl extends SceneCtrl implements Initializable {
      */
     public void refresh(String update) {
         if (update == null) {
-            GameSession waitingArea = gameSessionUtils.getSession(waitingId);
-            ObservableList<String> data = FXCollections.observableList(
-                    waitingArea.players.stream().map(p -> p.username).collect(Collectors.toList()));
-            currentPlayers.setItems(data);
-
-            playerCount = waitingArea.players.size();
-            readyButton.setVisible(playerCount >= 2);
-            playerText.setText("Ready: " + waitingArea.playersReady.get() + "/" + playerCount);
+            gameSessionUtils.getSessionAsync(waitingId).thenAcceptAsync(this::render, ClientExecutor.FX);
             return;
         }
 
@@ -173,7 +179,7 @@ public class WaitingAreaCtrl extends SceneCtrl implements Initializable {
                 //delay blocking haltUpdates() until screen is shown
                 Platform.runLater(() -> {
                     longPollUtils.haltUpdates("waitingArea");
-                    gameSessionUtils.toggleReady(waitingId, false);
+                    gameSessionUtils.toggleReadyAsync(waitingId, false);
                 });
                 soundManager.halt();
                 mainCtrl.showMultiplayer(waitingId, playerId);
@@ -181,6 +187,21 @@ public class WaitingAreaCtrl extends SceneCtrl implements Initializable {
         }
     }
 
+    /**
+     * Renders the full player board of the waiting area
+     *
+     * @param waitingArea The waiting area session as fetched from the server
+     */
+    private void render(GameSession waitingArea) {
+        ObservableList<String> data = FXCollections.observableList(
+                waitingArea.players.stream().map(p -> p.username).collect(Collectors.toList()));
+        currentPlayers.setItems(data);
+
+        playerCount = waitingArea.players.size();
+        readyButton.setVisible(playerCount >= 2);
+        playerText.setText("Ready: " + waitingArea.playersReady.get() + "/" + playerCount);
+    }
+
     /**
      * Setter for playerId.
      *
@@ -0,0 +1,209 @@
+package client.utils;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+public class ClientExecutor {
+
+    public static final int THREADS = 8;
+    public static final long SHUTDOWN_MILLIS = 1000L;
+
+    /**
+     * Executor running tasks on the JavaFX application thread, to hand results of requests back to the scenes
+     */
+    public static final Executor FX = Platform::runLater;
+
+    private final ScheduledThreadPoolExecutor workers;
+    private final Set<Task<?>> sceneTasks;
+    private final Set<Future<?>> sceneTimers;
+    private final Set<TimeUtils> sceneClocks;
+
+    public ClientExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory threads = r -> {
+            Thread t = new Thread(r, "client-worker-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        this.workers = new ScheduledThreadPoolExecutor(THREADS, threads);
+        this.workers.setRemoveOnCancelPolicy(true);
+        this.workers.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.sceneTasks = ConcurrentHashMap.newKeySet();
+        this.sceneTimers = ConcurrentHashMap.newKeySet();
+        this.sceneClocks = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Run a blocking request off the JavaFX application thread. Unlike the other tasks, the request does not belong to
+     * the current scene: it is not cancelled when the scene changes, so it suits requests whose result outlives the
+     * scene, such as filling a cache. Handlers that update a scene should use {@link #submit(Task)} instead.
+     *
+     * @param request The request to run
+     * @param <T>     The type of the result of the request
+     * @return Future completed on a client worker thread with the result of the request
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> request) {
+        return CompletableFuture.supplyAsync(request, workers);
+    }
+
+    /**
+     * Run a task that belongs to the current scene, such as loading an image or counting down a round. The task is
+     * cancelled when the scene changes, so its handlers never fire on a scene the player already left.
+     *
+     * @param task The task to run
+     */
+    public void submit(Task<?> task) {
+        sceneTasks.add(task);
+        workers.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                sceneTasks.remove(task);
+            }
+        });
+    }
+
+    /**
+     * Run an action of the current scene once after a delay, e.g. to start the next round. Like scene tasks, it is
+     * cancelled when the scene changes.
+     *
+     * @param action      The action to run
+     * @param delayMillis The delay in milliseconds
+     * @return Future that can be cancelled to stop the action from running
+     */
+    public ScheduledFuture<?> schedule(Runnable action, long delayMillis) {
+        return track(workers.schedule(action, delayMillis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Run an action of the current scene repeatedly, e.g. to poll the server, until it returns false, it is cancelled,
+     * or the scene changes. Runs never overlap, so a slow request delays the next run instead of piling up. A run that
+     * throws an exception is logged and the action runs again next period, while an error stops it.
+     *
+     * @param action       The action to run, returning whether it should run again
+     * @param delayMillis  The delay before the first run in milliseconds
+     * @param periodMillis The time between the starts of two runs in milliseconds
+     * @return Future that can be cancelled to stop the action from running again
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(BooleanSupplier action, long delayMillis, long periodMillis) {
+        Repeating repeating = new Repeating(action);
+        ScheduledFuture<?> future = workers.scheduleAtFixedRate(repeating, delayMillis, periodMillis,
+                TimeUnit.MILLISECONDS);
+        repeating.start(future);
+        return track(future);
+    }
+
+    /**
+     * Start a round timer of the current scene. It runs on the pulses of the JavaFX application thread rather than
+     * on a worker, and like scene tasks it is cancelled when the scene changes. Must be called on the JavaFX
+     * application thread.
+     *
+     * @param timer The timer to start
+     */
+    public void start(TimeUtils timer) {
+        sceneClocks.removeIf(t -> !t.isRunning());
+        timer.start();
+        sceneClocks.add(timer);
+    }
+
+    private ScheduledFuture<?> track(ScheduledFuture<?> future) {
+        sceneTimers.removeIf(Future::isDone);
+        sceneTimers.add(future);
+        return future;
+    }
+
+    /**
+     * Periodic action that cancels its own future once it returns false
+     */
+    private static class Repeating implements Runnable {
+
+        private final BooleanSupplier action;
+        private volatile Future<?> future;
+        private volatile boolean stopped;
+
+        Repeating(BooleanSupplier action) {
+            this.action = action;
+        }
+
+        void start(Future<?> future) {
+            this.future = future;
+            if (stopped) future.cancel(false);
+        }
+
+        @Override
+        public void run() {
+            if (stopped) return;
+            try {
+                if (action.getAsBoolean()) return;
+            } catch (RuntimeException e) {
+                // an exception thrown out of here would silently end the action, e.g. when the server is unreachable
+                System.err.println("Repeating action failed, running it again next period");
+                e.printStackTrace();
+                return;
+            } catch (Error e) {
+                System.err.println("Repeating action failed, no longer running it");
+                e.printStackTrace();
+                stopped = true;
+                throw e;
+            }
+            stopped = true;
+            Future<?> f = future;
+            if (f != null) f.cancel(false);
+        }
+    }
+
+    /**
+     * Cancel all tasks, scheduled actions and round timers of the scene that is being left, i.e. everything passed to
+     * {@link #submit(Task)}, {@link #schedule}, {@link #scheduleAtFixedRate} and {@link #start(TimeUtils)}. Tasks
+     * that did not start yet never run, and running tasks are interrupted. Requests run through {@link #supply} are not
+     * scene tasks and keep running. Must be called on the JavaFX application thread.
+     */
+    public void cancelSceneTasks() {
+        for (Task<?> task : sceneTasks) task.cancel();
+        sceneTasks.clear();
+        for (Future<?> timer : sceneTimers) timer.cancel(false);
+        sceneTimers.clear();
+        for (TimeUtils clock : sceneClocks) clock.cancel();
+        sceneClocks.clear();
+    }
+
+    /**
+     * Get the number of scene tasks that are queued or running, scheduled actions that will still run, and round
+     * timers that are counting down
+     *
+     * @return The number of live scene tasks
+     */
+    public int getSceneTaskCount() {
+        sceneTimers.removeIf(Future::isDone);
+        sceneClocks.removeIf(t -> !t.isRunning());
+        return sceneTasks.size() + sceneTimers.size() + sceneClocks.size();
+    }
+
+    /**
+     * Stop the worker threads. Scene tasks and scheduled actions are cancelled, and requests that are still running,
+     * such as leaving the session when the window is closed, get a short while to finish before they are interrupted.
+     */
+    public void shutdown() {
+        cancelSceneTasks();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_MILLIS, TimeUnit.MILLISECONDS)) workers.shutdownNow();
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
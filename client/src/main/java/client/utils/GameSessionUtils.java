@@ -1,35 +1,88 @@
 package client.utils;
 
+import com.google.inject.Inject;
 import commons.GameSession;
 import commons.Joker;
 import commons.Player;
-import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.Invocation;
 import jakarta.ws.rs.core.GenericType;
-import org.glassfish.jersey.client.ClientConfig;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 
 public class GameSessionUtils {
 
     public static String serverConnection = "http://localhost:8080/";
+    public static final long DEFAULT_TTL_MILLIS = 50L;
+
+    private final Client client;
+    private final ClientExecutor io;
+    private final SingleFlight<Long, GameSession> sessions;
+    private final SingleFlight<Long, List<Player>> players;
+
+    /**
+     * @param client The REST client shared by all utils
+     * @param io     The executor running the asynchronous variants of the requests
+     */
+    @Inject
+    public GameSessionUtils(Client client, ClientExecutor io) {
+        this(client, io, DEFAULT_TTL_MILLIS);
+    }
 
     /**
-     * Retrieves a game session from the DB.
+     * Create utils that make a single request for sessions and their players however many timers and handlers ask
+     * for them at once, and reuse the result for a short while
+     *
+     * @param client    The REST client shared by all utils
+     * @param io        The executor running the asynchronous variants of the requests
+     * @param ttlMillis The time in milliseconds a fetched session or list of players is reused for
+     */
+    public GameSessionUtils(Client client, ClientExecutor io, long ttlMillis) {
+        this.client = client;
+        this.io = io;
+        this.sessions = new SingleFlight<>(ttlMillis);
+        this.players = new SingleFlight<>(ttlMillis);
+    }
+
+    /**
+     * Retrieves a game session from the DB. Callers asking for the same session at about the same time share the
+     * returned object, so it must not be modified.
      *
      * @param sessionId id of the session to retrieve
      * @return Game session with the given id
      */
     public GameSession getSession(long sessionId) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return sessions.get(sessionId, () -> client
                 .target(serverConnection).path("api/sessions/" + sessionId)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .get(new GenericType<GameSession>() {
-                });
+                }));
+    }
+
+    /**
+     * Retrieves a game session from the DB, unless the copy with the given ETag is still current. The caller must
+     * close the response.
+     *
+     * @param sessionId id of the session to retrieve
+     * @param etag      The ETag of the copy of the session, or null if there is none
+     * @return The response of the server: the session with its ETag, or 304 if the copy is still current
+     */
+    public Response getSessionIfModified(long sessionId, String etag) {
+        Invocation.Builder request = client
+                .target(serverConnection).path("api/sessions/" + sessionId)
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON);
+        if (etag != null) request = request.header(HttpHeaders.IF_NONE_MATCH, etag);
+        return request.get();
     }
 
     /**
@@ -38,7 +91,7 @@ public class GameSessionUtils {
      * @return Available game session
      */
     public List<GameSession> getAvailableSessions() {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/sessions/available")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -52,7 +105,7 @@ public class GameSessionUtils {
      * @return All active game sessions
      */
     public List<GameSession> getSessions() {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/sessions")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -67,7 +120,7 @@ public class GameSessionUtils {
      * @return The session that has been added
      */
     public GameSession addSession(GameSession session) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/sessions")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -81,7 +134,7 @@ public class GameSessionUtils {
      * @return The session that has been added
      */
     public GameSession addWaitingRoom(GameSession session) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/sessions/waiting")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -95,11 +148,13 @@ public class GameSessionUtils {
      * @return The response from session removal
      */
     public GameSession removeSession(long sessionId) {
-        return ClientBuilder.newClient(new ClientConfig())
+        GameSession res = client
                 .target(serverConnection).path("api/sessions/" + sessionId)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .delete(GameSession.class);
+        changed(sessionId);
+        return res;
     }
 
     /**
@@ -110,11 +165,13 @@ public class GameSessionUtils {
      * @return The updated session
      */
     public GameSession updateStatus(GameSession session, GameSession.SessionStatus status) {
-        return ClientBuilder.newClient(new ClientConfig())
+        GameSession res = client
                 .target(serverConnection).path("api/sessions/" + session.id + "/status")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .put(Entity.entity(status, APPLICATION_JSON), GameSession.class);
+        changed(session.id);
+        return res;
     }
 
     /**
@@ -125,12 +182,14 @@ public class GameSessionUtils {
      * @return New count of players that are ready
      */
     public GameSession toggleReady(long sessionId, boolean isReady) {
-        return ClientBuilder.newClient(new ClientConfig())
+        GameSession res = client
                 .target(serverConnection).path("api/sessions/" + sessionId + "/" + ((isReady) ? "" : "not") + "ready")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .get(new GenericType<GameSession>() {
                 });
+        changed(sessionId);
+        return res;
     }
 
     /**
@@ -141,11 +200,13 @@ public class GameSessionUtils {
      * @return The player that has been added
      */
     public Player addPlayer(long sessionId, Player player) {
-        return ClientBuilder.newClient(new ClientConfig())
+        Player res = client
                 .target(serverConnection).path("api/sessions/" + sessionId + "/players")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .post(Entity.entity(player, APPLICATION_JSON), Player.class);
+        changed(sessionId);
+        return res;
     }
 
     /**
@@ -156,26 +217,29 @@ public class GameSessionUtils {
      * @return The response from player removal
      */
     public Player removePlayer(long sessionId, long playerId) {
-        return ClientBuilder.newClient(new ClientConfig())
+        Player res = client
                 .target(serverConnection).path("api/sessions/" + sessionId + "/players/" + playerId)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .delete(Player.class);
+        changed(sessionId);
+        return res;
     }
 
     /**
-     * Retrieve all players from a session in the DB.
+     * Retrieve all players from a session in the DB. Every caller gets its own list, which it may e.g. sort, but the
+     * players in it are shared with callers asking at about the same time, so they must not be modified.
      *
      * @param sessionId the id of the session
      * @return List of all players from a session
      */
     public List<Player> getPlayers(long sessionId) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return new ArrayList<>(players.get(sessionId, () -> client
                 .target(serverConnection).path("api/sessions/" + sessionId + "/players")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .get(new GenericType<List<Player>>() {
-                });
+                })));
     }
 
     /**
@@ -185,7 +249,7 @@ public class GameSessionUtils {
      * @return List of all removed players from a session
      */
     public List<Player> getRemovedPlayers(long sessionId) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/sessions/" + sessionId + "/removedPlayers")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -202,11 +266,13 @@ public class GameSessionUtils {
      * @return integer for number of jokers in use now
      */
     public Integer updateTimeJokers(long sessionID, int timeJokers) {
-        return ClientBuilder.newClient(new ClientConfig())
+        Integer res = client
                 .target(serverConnection).path("api/sessions/" + sessionID + "/timeJokers/" + timeJokers)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .get(Integer.class);
+        changed(sessionID);
+        return res;
     }
 
     /**
@@ -217,11 +283,13 @@ public class GameSessionUtils {
      * @return The updated session
      */
     public GameSession setQuestionCounter(long sessionId, int count) {
-        return ClientBuilder.newClient(new ClientConfig())
+        GameSession res = client
                 .target(serverConnection).path("api/sessions/" + sessionId + "/set")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .put(Entity.entity(count, APPLICATION_JSON), GameSession.class);
+        changed(sessionId);
+        return res;
     }
 
     /**
@@ -231,7 +299,7 @@ public class GameSessionUtils {
      * @return True if the username is used, otherwise false
      */
     public Boolean isDuplInActive(String username) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/sessions/checkUsername/" + username)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -246,7 +314,7 @@ public class GameSessionUtils {
      * @return List of all used jokers from a session
      */
     public List<Joker> getUsedJoker(long sessionId) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/sessions/" + sessionId + "/jokers")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -262,11 +330,13 @@ public class GameSessionUtils {
      * @return The joker that has been added
      */
     public Joker addUsedJoker(long sessionId, Joker joker) {
-        return ClientBuilder.newClient(new ClientConfig())
+        Joker res = client
                 .target(serverConnection).path("api/sessions/" + sessionId + "/add/joker")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .post(Entity.entity(joker, APPLICATION_JSON), Joker.class);
+        changed(sessionId);
+        return res;
     }
 
     /**
@@ -276,7 +346,7 @@ public class GameSessionUtils {
      * @return The state of each joker the player has
      */
     public Map<String, Joker.JokerStatus> getJokerStates(long sessionId, long playerId) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/sessions/" + sessionId + "/" + playerId + "/jokers")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -292,11 +362,13 @@ public class GameSessionUtils {
      * @return The updated session.
      */
     public GameSession setGameRounds(long sessionId, int rounds) {
-        return ClientBuilder.newClient(new ClientConfig())
+        GameSession res = client
                 .target(serverConnection).path("api/sessions/" + sessionId + "/rounds")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .put(Entity.entity(rounds, APPLICATION_JSON), GameSession.class);
+        changed(sessionId);
+        return res;
     }
 
     /**
@@ -305,10 +377,248 @@ public class GameSessionUtils {
      * @return The updated session.
      */
     public GameSession disableLeaderboard(long sessionId) {
-        return ClientBuilder.newClient(new ClientConfig())
+        GameSession res = client
                 .target(serverConnection).path("api/sessions/" + sessionId + "/disableLeaderboard")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .get(GameSession.class);
+        changed(sessionId);
+        return res;
+    }
+
+    /**
+     * Forget the fetched session and players after a change, so that the next request sees the change
+     *
+     * @param sessionId The id of the session that changed
+     */
+    private void changed(long sessionId) {
+        sessions.forget(sessionId);
+        players.forget(sessionId);
+    }
+
+    /**
+     * Get the number of requests for sessions and their players that were sent to the server
+     *
+     * @return The number of issued requests
+     */
+    public long getIssuedRequests() {
+        return sessions.getIssued() + players.getIssued();
+    }
+
+    /**
+     * Get the number of requests for sessions and their players that were answered without a request of their own,
+     * by sharing a running request or reusing a recent result
+     *
+     * @return The number of coalesced requests
+     */
+    public long getCoalescedRequests() {
+        return sessions.getCoalesced() + sessions.getMemoized() + players.getCoalesced() + players.getMemoized();
+    }
+
+    /**
+     * Asynchronous variant of {@link #getSession(long)}
+     *
+     * @param sessionId id of the session to retrieve
+     * @return Future completed with game session with the given id
+     */
+    public CompletableFuture<GameSession> getSessionAsync(long sessionId) {
+        return io.supply(() -> getSession(sessionId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getAvailableSessions()}
+     *
+     * @return Future completed with available game session
+     */
+    public CompletableFuture<List<GameSession>> getAvailableSessionsAsync() {
+        return io.supply(() -> getAvailableSessions());
+    }
+
+    /**
+     * Asynchronous variant of {@link #getSessions()}
+     *
+     * @return Future completed with all active game sessions
+     */
+    public CompletableFuture<List<GameSession>> getSessionsAsync() {
+        return io.supply(() -> getSessions());
+    }
+
+    /**
+     * Asynchronous variant of {@link #addSession(GameSession)}
+     *
+     * @param session GameSession object to be added
+     * @return Future completed with the session that has been added
+     */
+    public CompletableFuture<GameSession> addSessionAsync(GameSession session) {
+        return io.supply(() -> addSession(session));
+    }
+
+    /**
+     * Asynchronous variant of {@link #addWaitingRoom(GameSession)}
+     *
+     * @param session GameSession object to be added
+     * @return Future completed with the session that has been added
+     */
+    public CompletableFuture<GameSession> addWaitingRoomAsync(GameSession session) {
+        return io.supply(() -> addWaitingRoom(session));
+    }
+
+    /**
+     * Asynchronous variant of {@link #removeSession(long)}
+     *
+     * @param sessionId Id of session to be removed
+     * @return Future completed with the response from session removal
+     */
+    public CompletableFuture<GameSession> removeSessionAsync(long sessionId) {
+        return io.supply(() -> removeSession(sessionId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #updateStatus(GameSession, GameSession.SessionStatus)}
+     *
+     * @param session Session to update
+     * @param status  new status to be set
+     * @return Future completed with the updated session
+     */
+    public CompletableFuture<GameSession> updateStatusAsync(GameSession session, GameSession.SessionStatus status) {
+        return io.supply(() -> updateStatus(session, status));
+    }
+
+    /**
+     * Asynchronous variant of {@link #toggleReady(long, boolean)}
+     *
+     * @param sessionId the id of the session
+     * @param isReady   True iff a player must be set as ready
+     * @return Future completed with new count of players that are ready
+     */
+    public CompletableFuture<GameSession> toggleReadyAsync(long sessionId, boolean isReady) {
+        return io.supply(() -> toggleReady(sessionId, isReady));
+    }
+
+    /**
+     * Asynchronous variant of {@link #addPlayer(long, Player)}
+     *
+     * @param sessionId id of the session to add the player to
+     * @param player    Player object to be added
+     * @return Future completed with the player that has been added
+     */
+    public CompletableFuture<Player> addPlayerAsync(long sessionId, Player player) {
+        return io.supply(() -> addPlayer(sessionId, player));
+    }
+
+    /**
+     * Asynchronous variant of {@link #removePlayer(long, long)}
+     *
+     * @param sessionId id of the session to remove the player from
+     * @param playerId  id of player to be removed
+     * @return Future completed with the response from player removal
+     */
+    public CompletableFuture<Player> removePlayerAsync(long sessionId, long playerId) {
+        return io.supply(() -> removePlayer(sessionId, playerId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getPlayers(long)}
+     *
+     * @param sessionId the id of the session
+     * @return Future completed with list of all players from a session
+     */
+    public CompletableFuture<List<Player>> getPlayersAsync(long sessionId) {
+        return io.supply(() -> getPlayers(sessionId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getRemovedPlayers(long)}
+     *
+     * @param sessionId the id of the session
+     * @return Future completed with list of all removed players from a session
+     */
+    public CompletableFuture<List<Player>> getRemovedPlayersAsync(long sessionId) {
+        return io.supply(() -> getRemovedPlayers(sessionId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #updateTimeJokers(long, int)}
+     *
+     * @param sessionID  Session to update
+     * @param timeJokers new number of timeJokers to be set
+     * @return Future completed with integer for number of jokers in use now
+     */
+    public CompletableFuture<Integer> updateTimeJokersAsync(long sessionID, int timeJokers) {
+        return io.supply(() -> updateTimeJokers(sessionID, timeJokers));
+    }
+
+    /**
+     * Asynchronous variant of {@link #setQuestionCounter(long, int)}
+     *
+     * @param sessionId The id of the session
+     * @param count     The count to be set
+     * @return Future completed with the updated session
+     */
+    public CompletableFuture<GameSession> setQuestionCounterAsync(long sessionId, int count) {
+        return io.supply(() -> setQuestionCounter(sessionId, count));
+    }
+
+    /**
+     * Asynchronous variant of {@link #isDuplInActive(String)}
+     *
+     * @param username The username to check
+     * @return Future completed with true if the username is used, otherwise false
+     */
+    public CompletableFuture<Boolean> isDuplInActiveAsync(String username) {
+        return io.supply(() -> isDuplInActive(username));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getUsedJoker(long)}
+     *
+     * @param sessionId the id of the session
+     * @return Future completed with list of all used jokers from a session
+     */
+    public CompletableFuture<List<Joker>> getUsedJokerAsync(long sessionId) {
+        return io.supply(() -> getUsedJoker(sessionId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #addUsedJoker(long, Joker)}
+     *
+     * @param sessionId id of the session to add the joker to
+     * @param joker     Joker object to be added
+     * @return Future completed with the joker that has been added
+     */
+    public CompletableFuture<Joker> addUsedJokerAsync(long sessionId, Joker joker) {
+        return io.supply(() -> addUsedJoker(sessionId, joker));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getJokerStates(long, long)}
+     *
+     * @param sessionId The ID of the session
+     * @param playerId  The ID of the player
+     * @return Future completed with the state of each joker the player has
+     */
+    public CompletableFuture<Map<String, Joker.JokerStatus>> getJokerStatesAsync(long sessionId, long playerId) {
+        return io.supply(() -> getJokerStates(sessionId, playerId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #setGameRounds(long, int)}
+     *
+     * @param sessionId The id of the session.
+     * @param rounds    The rounds to be set.
+     * @return Future completed with the updated session.
+     */
+    public CompletableFuture<GameSession> setGameRoundsAsync(long sessionId, int rounds) {
+        return io.supply(() -> setGameRounds(sessionId, rounds));
+    }
+
+    /**
+     * Asynchronous variant of {@link #disableLeaderboard(long)}
+     *
+     * @param sessionId Id of session to disable the leaderboard for
+     * @return Future completed with the updated session.
+     */
+    public CompletableFuture<GameSession> disableLeaderboardAsync(long sessionId) {
+        return io.supply(() -> disableLeaderboard(sessionId));
     }
 }
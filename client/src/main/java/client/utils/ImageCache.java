@@ -0,0 +1,287 @@
+package client.utils;
+
+import com.google.inject.Inject;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import javafx.scene.image.Image;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class ImageCache {
+
+    public static final long DEFAULT_MAX_PIXEL_BYTES = 64L * 1024 * 1024;
+    public static final Path DEFAULT_DIR = Path.of("image-cache");
+
+    private final QuestionUtils questionUtils;
+    private final ClientExecutor io;
+    private final Path dir;
+    private final long maxPixelBytes;
+    private final Map<String, Image> memory;
+    private final Map<String, CompletableFuture<Image>> loading;
+    private long pixelBytes;
+    private long memoryHits;
+    private long diskHits;
+    private long misses;
+
+    /**
+     * A copy of an image on disk, together with the ETag the server gave it
+     *
+     * @param etag  The ETag of the image
+     * @param bytes The encoded image
+     */
+    private record Entry(String etag, byte[] bytes) {
+    }
+
+    /**
+     * @param questionUtils The utils fetching images from the server
+     * @param io            The executor loading images in the background
+     */
+    @Inject
+    public ImageCache(QuestionUtils questionUtils, ClientExecutor io) {
+        this(questionUtils, io, DEFAULT_DIR, DEFAULT_MAX_PIXEL_BYTES);
+    }
+
+    /**
+     * Create a cache that keeps recently used images decoded in memory and all fetched images on disk
+     *
+     * @param questionUtils The utils fetching images from the server
+     * @param io            The executor loading images in the background
+     * @param dir           The directory to keep the images in
+     * @param maxPixelBytes The maximum number of bytes the pixels of the images kept in memory may take up
+     */
+    public ImageCache(QuestionUtils questionUtils, ClientExecutor io, Path dir, long maxPixelBytes) {
+        this.questionUtils = questionUtils;
+        this.io = io;
+        this.dir = dir;
+        this.maxPixelBytes = maxPixelBytes;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true);
+        this.loading = new HashMap<>();
+    }
+
+    /**
+     * Get the image with the given path. Images in memory are returned right away, and a lookup of an image that is
+     * already being loaded waits for that load. Otherwise the server is asked whether the copy on disk is still
+     * current, and only sends the image if it is not. This blocks, so it must not be called on the JavaFX application
+     * thread.
+     *
+     * @param path The path of the image on the server
+     * @return The decoded image
+     */
+    public Image get(String path) {
+        CompletableFuture<Image> loaded = new CompletableFuture<>();
+        CompletableFuture<Image> pending;
+        synchronized (this) {
+            Image cached = memory.get(path);
+            if (cached != null) {
+                ++memoryHits;
+                return cached;
+            }
+            pending = loading.putIfAbsent(path, loaded);
+            if (pending != null) ++memoryHits;
+        }
+        if (pending != null) return await(pending);
+
+        try {
+            Image image = new Image(new ByteArrayInputStream(load(path)));
+            if (!image.isError()) put(path, image);
+            loaded.complete(image);
+            return image;
+        } catch (Throwable t) {
+            // errors are shared too, so lookups waiting for the load never hang
+            loaded.completeExceptionally(t);
+            throw t;
+        } finally {
+            synchronized (this) {
+                loading.remove(path);
+            }
+        }
+    }
+
+    private static Image await(CompletableFuture<Image> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronous variant of {@link #get(String)}, e.g. to load images before they are shown
+     *
+     * @param path The path of the image on the server
+     * @return Future completed with the decoded image
+     */
+    public CompletableFuture<Image> getAsync(String path) {
+        return io.supply(() -> get(path));
+    }
+
+    /**
+     * Get the image with the given path only if it is kept in memory, so that it can be shown right away
+     *
+     * @param path The path of the image on the server
+     * @return The decoded image, or null if it is not in memory
+     */
+    public synchronized Image getIfCached(String path) {
+        Image cached = memory.get(path);
+        if (cached != null) ++memoryHits;
+        return cached;
+    }
+
+    /**
+     * Get the encoded image with the given path from disk if the server confirms the copy is current, or from the
+     * server otherwise
+     *
+     * @param path The path of the image on the server
+     * @return The encoded image
+     */
+    private byte[] load(String path) {
+        Path file = dir.resolve(fileName(path));
+        Entry stored = read(file);
+
+        try (Response res = questionUtils.fetchImageIfModified(path, (stored == null) ? null : stored.etag)) {
+            if (stored != null && res.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+                synchronized (this) {
+                    ++diskHits;
+                }
+                return stored.bytes;
+            }
+
+            byte[] bytes = res.hasEntity() ? res.readEntity(byte[].class) : new byte[0];
+            synchronized (this) {
+                ++misses;
+            }
+            String etag = res.getHeaderString(HttpHeaders.ETAG);
+            if (etag != null && bytes.length > 0) write(file, new Entry(etag, bytes));
+            return bytes;
+        }
+    }
+
+    /**
+     * Keep a decoded image in memory, dropping the least recently used images until their pixels fit in the budget
+     *
+     * @param path  The path of the image on the server
+     * @param image The decoded image
+     */
+    private synchronized void put(String path, Image image) {
+        Image old = memory.put(path, image);
+        if (old != null) pixelBytes -= pixelBytes(old);
+        pixelBytes += pixelBytes(image);
+
+        Iterator<Image> eldest = memory.values().iterator();
+        while (pixelBytes > maxPixelBytes && memory.size() > 1) {
+            pixelBytes -= pixelBytes(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Read a copy of an image from disk
+     *
+     * @param file The file the copy is kept in
+     * @return The copy, or null if there is none or it cannot be read
+     */
+    private static Entry read(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            String etag = in.readUTF();
+            return new Entry(etag, in.readAllBytes());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write a copy of an image to disk. The copy is written next to the file and then moved over it, so that
+     * concurrent readers never see half of it.
+     *
+     * @param file  The file to keep the copy in
+     * @param entry The copy of the image
+     */
+    private void write(Path file, Entry entry) {
+        try {
+            Files.createDirectories(dir);
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(entry.bytes.length + 64);
+            DataOutputStream out = new DataOutputStream(buf);
+            out.writeUTF(entry.etag);
+            out.write(entry.bytes);
+
+            Path tmp = Files.createTempFile(dir, null, ".tmp");
+            Files.write(tmp, buf.toByteArray());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ignore) { /* the image is fetched again next time */ }
+    }
+
+    /**
+     * Get the name of the file an image is kept in, which is safe to use whatever characters the path contains
+     *
+     * @param path The path of the image on the server
+     * @return The file name
+     */
+    private static String fileName(String path) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha.digest(path.getBytes(StandardCharsets.UTF_8))) + ".img";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long pixelBytes(Image image) {
+        return 4L * (long) image.getWidth() * (long) image.getHeight();
+    }
+
+    /**
+     * Get the number of lookups that were answered from memory
+     *
+     * @return The number of memory hits
+     */
+    public synchronized long getMemoryHits() {
+        return memoryHits;
+    }
+
+    /**
+     * Get the number of lookups that were answered from disk after the server confirmed the copy was current
+     *
+     * @return The number of disk hits
+     */
+    public synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    /**
+     * Get the number of lookups that had to download the image
+     *
+     * @return The number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Get the number of bytes the pixels of the images kept in memory take up
+     *
+     * @return The number of pixel bytes in memory
+     */
+    public synchronized long getPixelBytes() {
+        return pixelBytes;
+    }
+}
@@ -3,23 +3,21 @@ package client.utils;
 import javafx.concurrent.Task;
 import javafx.scene.image.Image;
 
-import java.io.ByteArrayInputStream;
-
 public class ImageUtils extends Task<Image> {
 
-    private QuestionUtils questionUtils;
+    private ImageCache imageCache;
     private String path;
 
 
-    public ImageUtils(QuestionUtils questionUtils, String path) {
+    public ImageUtils(ImageCache imageCache, String path) {
         super();
         this.path = path;
-        this.questionUtils = questionUtils;
+        this.imageCache = imageCache;
     }
 
     @Override
     public Image call() {
-        return new Image(new ByteArrayInputStream(questionUtils.fetchImage(path)));
+        return imageCache.get(path);
     }
 
 
@@ -1,20 +1,38 @@
 package client.utils;
 
+import com.google.inject.Inject;
+import commons.LeaderboardEntry;
+import commons.LeaderboardStanding;
 import commons.Player;
-import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.core.GenericType;
-import org.glassfish.jersey.client.ClientConfig;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 
 public class LeaderboardUtils {
 
     public static String serverConnection = "http://localhost:8080/";
+    public static final int PAGE_SIZE = 50;
+
+    private final Client client;
+    private final ClientExecutor io;
+
+    /**
+     * @param client The REST client shared by all utils
+     * @param io     The executor running the asynchronous variants of the requests
+     */
+    @Inject
+    public LeaderboardUtils(Client client, ClientExecutor io) {
+        this.client = client;
+        this.io = io;
+    }
 
     public List<Player> getAllLeaderBoardPlayers() {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/leaderboard/")
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -23,63 +41,140 @@ public class LeaderboardUtils {
     }
 
     /**
-     * Get all player object entries from the database
-     * for single mode
+     * Get the leaderboard entries of the best ranked players
+     * in single mode
+     *
+     * @return List of at most PAGE_SIZE leaderboard entries, sorted by score
+     */
+    public List<LeaderboardEntry> getPlayerSingleScore() {
+        return getLeaderboardPage("single", PAGE_SIZE, 0);
+    }
+
+    /**
+     * Get the leaderboard entries of the best ranked players
+     * in time attack mode
+     *
+     * @return List of at most PAGE_SIZE leaderboard entries, sorted by score
+     */
+    public List<LeaderboardEntry> getPlayerTimeAttackScore() {
+        return getLeaderboardPage("timeAttack", PAGE_SIZE, 0);
+    }
+
+    /**
+     * Get the leaderboard entries of the best ranked players
+     * in survival mode
+     *
+     * @return List of at most PAGE_SIZE leaderboard entries, sorted by score
+     */
+    public List<LeaderboardEntry> getPlayerSurvivalScore() {
+        return getLeaderboardPage("survival", PAGE_SIZE, 0);
+    }
+
+    /**
+     * Get the leaderboard entries of the best ranked players
+     * in multi mode
+     *
+     * @return List of at most PAGE_SIZE leaderboard entries, sorted by score
+     */
+    public List<LeaderboardEntry> getPlayerMultiScore() {
+        return getLeaderboardPage("multi", PAGE_SIZE, 0);
+    }
+
+    /**
+     * Get a page of the leaderboard of a game mode
      *
-     * @return List of all player entries
+     * @param mode   The game mode, e.g. "single"
+     * @param limit  The maximum number of entries to fetch
+     * @param offset The rank of the first entry to fetch
+     * @return List of leaderboard entries, sorted by score
      */
-    public List<Player> getPlayerSingleScore() {
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(serverConnection).path("api/leaderboard/single")
+    public List<LeaderboardEntry> getLeaderboardPage(String mode, int limit, int offset) {
+        return client
+                .target(serverConnection).path("api/leaderboard/" + mode)
+                .queryParam("limit", limit)
+                .queryParam("offset", offset)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
-                .get(new GenericType<List<Player>>() {
+                .get(new GenericType<List<LeaderboardEntry>>() {
                 });
     }
 
     /**
-     * Get all player object entries from the database
-     * for time attack mode
+     * Get the leaderboard entries of the best ranked players of a game mode
+     * over a rolling time window, ranked by their best score within the window
      *
-     * @return List of all player entries
+     * @param mode   The game mode, e.g. "single"
+     * @param window The time window, "day", "week" or "season"
+     * @return List of at most PAGE_SIZE leaderboard entries, sorted by score
      */
-    public List<Player> getPlayerTimeAttackScore() {
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(serverConnection).path("api/leaderboard/timeAttack")
+    public List<LeaderboardEntry> getLeaderboardWindow(String mode, String window) {
+        return client
+                .target(serverConnection).path("api/leaderboard/" + mode)
+                .queryParam("limit", PAGE_SIZE)
+                .queryParam("window", window)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
-                .get(new GenericType<List<Player>>() {
+                .get(new GenericType<List<LeaderboardEntry>>() {
                 });
     }
 
     /**
-     * Get all player object entries from the database
-     * for survival mode
+     * Get the page of the leaderboard of a game mode that follows the given entry.
+     * Unlike offsets, this does not skip or repeat entries when players move up while paging.
      *
-     * @return List of all player entries
+     * @param mode  The game mode, e.g. "single"
+     * @param last  The last entry of the previous page
+     * @param limit The maximum number of entries to fetch
+     * @return List of leaderboard entries ranked below the given one, sorted by score
      */
-    public List<Player> getPlayerSurvivalScore() {
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(serverConnection).path("api/leaderboard/survival")
+    public List<LeaderboardEntry> getLeaderboardPageAfter(String mode, LeaderboardEntry last, int limit) {
+        return client
+                .target(serverConnection).path("api/leaderboard/" + mode)
+                .queryParam("limit", limit)
+                .queryParam("afterScore", last.score)
+                .queryParam("afterId", last.playerId)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
-                .get(new GenericType<List<Player>>() {
+                .get(new GenericType<List<LeaderboardEntry>>() {
                 });
     }
 
     /**
-     * Get all player object entries from the database
-     * for multi mode
+     * Get the share of ranked players in a game mode whose best score is below the given score
      *
-     * @return List of all player entries
+     * @param mode  The game mode, e.g. "multi"
+     * @param score The score to compare with
+     * @return The percentage of ranked players with a lower best score, between 0 and 100
      */
-    public List<Player> getPlayerMultiScore() {
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(serverConnection).path("api/leaderboard/multi")
+    public double getPercentile(String mode, int score) {
+        return client
+                .target(serverConnection).path("api/leaderboard/" + mode + "/percentile")
+                .queryParam("score", score)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
-                .get(new GenericType<List<Player>>() {
-                });
+                .get(Double.class);
+    }
+
+    /**
+     * Get the rank of a player in a game mode, with the players ranked around them
+     *
+     * @param mode     The game mode, e.g. "single"
+     * @param playerId The id of the player
+     * @param k        The number of neighbours to fetch on either side of the player
+     * @return The standing of the player, or null if the player has no score in the game mode
+     */
+    public LeaderboardStanding getPlayerStanding(String mode, long playerId, int k) {
+        try {
+            return client
+                    .target(serverConnection).path("api/leaderboard/" + mode + "/rank/" + playerId)
+                    .queryParam("k", k)
+                    .request(APPLICATION_JSON)
+                    .accept(APPLICATION_JSON)
+                    .get(new GenericType<LeaderboardStanding>() {
+                    });
+        } catch (NotFoundException e) {
+            return null;
+        }
     }
 
     /**
@@ -89,7 +184,7 @@ public class LeaderboardUtils {
      * @return Player entry reference, if one with the given id exists
      */
     public Player getPlayerByIdInLeaderboard(long playerId) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/leaderboard/" + playerId)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -104,11 +199,135 @@ public class LeaderboardUtils {
      * @return The player object is the username if found, otherwise false
      */
     public Player getPlayerByUsername(String username) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/leaderboard/getByUsername/" + username)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .get(new GenericType<Player>() {
                 });
     }
+
+    /**
+     * Asynchronous variant of {@link #getAllLeaderBoardPlayers()}
+     *
+     * @return Future completed with the result of the request
+     */
+    public CompletableFuture<List<Player>> getAllLeaderBoardPlayersAsync() {
+        return io.supply(() -> getAllLeaderBoardPlayers());
+    }
+
+    /**
+     * Asynchronous variant of {@link #getPlayerSingleScore()}
+     *
+     * @return Future completed with list of at most PAGE_SIZE leaderboard entries, sorted by score
+     */
+    public CompletableFuture<List<LeaderboardEntry>> getPlayerSingleScoreAsync() {
+        return io.supply(() -> getPlayerSingleScore());
+    }
+
+    /**
+     * Asynchronous variant of {@link #getPlayerTimeAttackScore()}
+     *
+     * @return Future completed with list of at most PAGE_SIZE leaderboard entries, sorted by score
+     */
+    public CompletableFuture<List<LeaderboardEntry>> getPlayerTimeAttackScoreAsync() {
+        return io.supply(() -> getPlayerTimeAttackScore());
+    }
+
+    /**
+     * Asynchronous variant of {@link #getPlayerSurvivalScore()}
+     *
+     * @return Future completed with list of at most PAGE_SIZE leaderboard entries, sorted by score
+     */
+    public CompletableFuture<List<LeaderboardEntry>> getPlayerSurvivalScoreAsync() {
+        return io.supply(() -> getPlayerSurvivalScore());
+    }
+
+    /**
+     * Asynchronous variant of {@link #getPlayerMultiScore()}
+     *
+     * @return Future completed with list of at most PAGE_SIZE leaderboard entries, sorted by score
+     */
+    public CompletableFuture<List<LeaderboardEntry>> getPlayerMultiScoreAsync() {
+        return io.supply(() -> getPlayerMultiScore());
+    }
+
+    /**
+     * Asynchronous variant of {@link #getLeaderboardPage(String, int, int)}
+     *
+     * @param mode   The game mode, e.g. "single"
+     * @param limit  The maximum number of entries to fetch
+     * @param offset The rank of the first entry to fetch
+     * @return Future completed with list of leaderboard entries, sorted by score
+     */
+    public CompletableFuture<List<LeaderboardEntry>> getLeaderboardPageAsync(String mode, int limit, int offset) {
+        return io.supply(() -> getLeaderboardPage(mode, limit, offset));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getLeaderboardWindow(String, String)}
+     *
+     * @param mode   The game mode, e.g. "single"
+     * @param window The time window, "day", "week" or "season"
+     * @return Future completed with list of at most PAGE_SIZE leaderboard entries, sorted by score
+     */
+    public CompletableFuture<List<LeaderboardEntry>> getLeaderboardWindowAsync(String mode, String window) {
+        return io.supply(() -> getLeaderboardWindow(mode, window));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getLeaderboardPageAfter(String, LeaderboardEntry, int)}
+     *
+     * @param mode  The game mode, e.g. "single"
+     * @param last  The last entry of the previous page
+     * @param limit The maximum number of entries to fetch
+     * @return Future completed with list of leaderboard entries ranked below the given one, sorted by score
+     */
+    public CompletableFuture<List<LeaderboardEntry>> getLeaderboardPageAfterAsync(String mode, LeaderboardEntry last,
+                                                                                 int limit) {
+        return io.supply(() -> getLeaderboardPageAfter(mode, last, limit));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getPercentile(String, int)}
+     *
+     * @param mode  The game mode, e.g. "multi"
+     * @param score The score to compare with
+     * @return Future completed with the percentage of ranked players with a lower best score, between 0 and 100
+     */
+    public CompletableFuture<Double> getPercentileAsync(String mode, int score) {
+        return io.supply(() -> getPercentile(mode, score));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getPlayerStanding(String, long, int)}
+     *
+     * @param mode     The game mode, e.g. "single"
+     * @param playerId The id of the player
+     * @param k        The number of neighbours to fetch on either side of the player
+     * @return Future completed with the standing of the player, or null if the player has no score in the game mode
+     */
+    public CompletableFuture<LeaderboardStanding> getPlayerStandingAsync(String mode, long playerId, int k) {
+        return io.supply(() -> getPlayerStanding(mode, playerId, k));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getPlayerByIdInLeaderboard(long)}
+     *
+     * @param playerId Id of player to fetch
+     * @return Future completed with player entry reference, if one with the given id exists
+     */
+    public CompletableFuture<Player> getPlayerByIdInLeaderboardAsync(long playerId) {
+        return io.supply(() -> getPlayerByIdInLeaderboard(playerId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getPlayerByUsername(String)}
+     *
+     * @param username The username of the player
+     * @return Future completed with the player object is the username if found, otherwise false
+     */
+    public CompletableFuture<Player> getPlayerByUsernameAsync(String username) {
+        return io.supply(() -> getPlayerByUsername(username));
+    }
 }
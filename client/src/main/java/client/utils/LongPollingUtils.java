@@ -1,19 +1,22 @@
 package client.utils;
 
+import com.google.inject.Inject;
 import commons.GameSession;
-import commons.Player;
-import jakarta.ws.rs.client.ClientBuilder;
+import commons.LeaderboardDelta;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.WebTarget;
 import jakarta.ws.rs.core.GenericType;
 import jakarta.ws.rs.core.Response;
 
 import org.apache.commons.lang3.tuple.Pair;
-import org.glassfish.jersey.client.ClientConfig;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 
@@ -22,26 +25,46 @@ public class LongPollingUtils {
     public static String serverConnection = "http://localhost:8080/";
     static ExecutorService execLeaderboard, execSelectionRoom, execWaitingArea;
 
+    private final Client client;
+
+    /**
+     * @param client The REST client shared by all utils
+     */
+    @Inject
+    public LongPollingUtils(Client client) {
+        this.client = client;
+    }
+
     /**
-     * Register client listener to receive leaderboard updates
+     * Register client listener to receive leaderboard updates. Every request tells the server which version of each
+     * ranking the client has, so that only the deltas that were missed are sent back.
      *
      * @param consumer Consumer object representing the client's request
+     * @param versions Supplier of the ranking version the client has for every game mode
      */
-    public void registerForLeaderboardUpdates(Consumer<Pair<String, List<Player>>> consumer) {
+    public void registerForLeaderboardUpdates(Consumer<List<LeaderboardDelta>> consumer,
+                                              Supplier<Map<String, Long>> versions) {
         execLeaderboard = Executors.newSingleThreadExecutor();
         execLeaderboard.submit(() -> {
             while (!Thread.interrupted()) {
-                var res = ClientBuilder.newClient(new ClientConfig())
-                        .target(serverConnection).path("api/leaderboard/updates")
+                WebTarget target = client
+                        .target(serverConnection).path("api/leaderboard/updates");
+                for (var version : versions.get().entrySet()) {
+                    target = target.queryParam(version.getKey(), version.getValue());
+                }
+                var res = target
                         .request(APPLICATION_JSON)
                         .accept(APPLICATION_JSON)
                         .get(Response.class);
                 System.out.println("polling leaderboard...");
-                if (res.getStatus() == 204) continue;
-                List<Player> update = res.readEntity(
-                        new GenericType<List<Player>>() {
+                if (res.getStatus() == 204) {
+                    res.close();
+                    continue;
+                }
+                List<LeaderboardDelta> update = res.readEntity(
+                        new GenericType<List<LeaderboardDelta>>() {
                         });
-                consumer.accept(Pair.of(res.getHeaders().get("X-gamemodeType").toString(), update));
+                consumer.accept(update);
             }
         });
     }
@@ -55,13 +78,16 @@ public class LongPollingUtils {
         execSelectionRoom = Executors.newSingleThreadExecutor();
         execSelectionRoom.submit(() -> {
             while (!Thread.interrupted()) {
-                var res = ClientBuilder.newClient(new ClientConfig())
+                var res = client
                         .target(serverConnection).path("api/sessions/updates/selectionroom")
                         .request(APPLICATION_JSON)
                         .accept(APPLICATION_JSON)
                         .get(Response.class);
                 System.out.println("polling selection room...");
-                if (res.getStatus() == 204) continue;
+                if (res.getStatus() == 204) {
+                    res.close();
+                    continue;
+                }
                 var update = res.readEntity(GameSession.class);
                 consumer.accept(Pair.of(res.getHeaders().get("X-operation").toString(), update));
             }
@@ -77,13 +103,16 @@ public class LongPollingUtils {
         execWaitingArea = Executors.newSingleThreadExecutor();
         execWaitingArea.submit(() -> {
             while (!Thread.interrupted()) {
-                var res = ClientBuilder.newClient(new ClientConfig())
+                var res = client
                         .target(serverConnection).path("api/sessions/updates/waitingarea/" + sessionId)
                         .request(APPLICATION_JSON)
                         .accept(APPLICATION_JSON)
                         .get(Response.class);
                 System.out.println("polling waiting area...");
-                if (res.getStatus() == 204) continue;
+                if (res.getStatus() == 204) {
+                    res.close();
+                    continue;
+                }
                 var update = res.readEntity(String.class);
                 consumer.accept(update);
             }
@@ -1,14 +1,18 @@
 package client.utils;
 
+import com.google.inject.Inject;
 import commons.Answer;
 import commons.Evaluation;
 import commons.Question;
-import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.Invocation;
 import jakarta.ws.rs.core.GenericType;
-import org.glassfish.jersey.client.ClientConfig;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 
@@ -16,6 +20,19 @@ public class QuestionUtils {
 
     public static String serverConnection = "http://localhost:8080/";
 
+    private final Client client;
+    private final ClientExecutor io;
+
+    /**
+     * @param client The REST client shared by all utils
+     * @param io     The executor running the asynchronous variants of the requests
+     */
+    @Inject
+    public QuestionUtils(Client client, ClientExecutor io) {
+        this.client = client;
+        this.io = io;
+    }
+
     /**
      * Fetches a question from the server database
      *
@@ -23,7 +40,7 @@ public class QuestionUtils {
      * @return Question object related to the session with the provided id
      */
     public Question fetchOneQuestion(long sessionId) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/questions/" + sessionId)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -39,7 +56,7 @@ public class QuestionUtils {
      * @return Evaluation object to check the provided answers
      */
     public Evaluation submitAnswer(long sessionId, long playerId, Answer answer) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/questions/" + sessionId + "/" + playerId)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -53,7 +70,7 @@ public class QuestionUtils {
      * @return a list of integer corresponding to the positions of correct answers for a question
      */
     public List<Integer> getCorrectAnswers(long sessionId) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/questions/answers/" + sessionId)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
@@ -68,11 +85,70 @@ public class QuestionUtils {
      * @return The buffferedImage.
      */
     public byte[] fetchImage(String path) {
-        return ClientBuilder.newClient(new ClientConfig())
+        return client
                 .target(serverConnection).path("api/questions/image/" + path)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .get(new GenericType<byte[]>() {
                 });
     }
+
+    /**
+     * Fetches the image corresponding to the file path, unless the cached copy with the given ETag is still current.
+     * The caller must close the response.
+     *
+     * @param path The image path.
+     * @param etag The ETag of the cached copy of the image, or null if there is none
+     * @return The response of the server: the image with its ETag, or 304 if the cached copy is still current
+     */
+    public Response fetchImageIfModified(String path, String etag) {
+        Invocation.Builder request = client
+                .target(serverConnection).path("api/questions/image/" + path)
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON);
+        if (etag != null) request = request.header(HttpHeaders.IF_NONE_MATCH, etag);
+        return request.get();
+    }
+
+    /**
+     * Asynchronous variant of {@link #fetchOneQuestion(long)}
+     *
+     * @param sessionId Session to check
+     * @return Future completed with question object related to the session with the provided id
+     */
+    public CompletableFuture<Question> fetchOneQuestionAsync(long sessionId) {
+        return io.supply(() -> fetchOneQuestion(sessionId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #submitAnswer(long, long, Answer)}
+     *
+     * @param sessionId Session Id to send the answer to
+     * @param playerId  playerId
+     * @param answer    Answer object to be sent
+     * @return Future completed with evaluation object to check the provided answers
+     */
+    public CompletableFuture<Evaluation> submitAnswerAsync(long sessionId, long playerId, Answer answer) {
+        return io.supply(() -> submitAnswer(sessionId, playerId, answer));
+    }
+
+    /**
+     * Asynchronous variant of {@link #getCorrectAnswers(long)}
+     *
+     * @param sessionId long representing the current session
+     * @return Future completed with a list of integer corresponding to the positions of correct answers for a question
+     */
+    public CompletableFuture<List<Integer>> getCorrectAnswersAsync(long sessionId) {
+        return io.supply(() -> getCorrectAnswers(sessionId));
+    }
+
+    /**
+     * Asynchronous variant of {@link #fetchImage(String)}
+     *
+     * @param path The image path.
+     * @return Future completed with the bytes of the image
+     */
+    public CompletableFuture<byte[]> fetchImageAsync(String path) {
+        return io.supply(() -> fetchImage(path));
+    }
 }
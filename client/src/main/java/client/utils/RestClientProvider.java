@@ -0,0 +1,36 @@
+package client.utils;
+
+import com.google.inject.Provider;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.client.ClientConfig;
+
+public class RestClientProvider implements Provider<Client> {
+
+    /**
+     * Number of connections to the server that are kept open for reuse. Long polling alone keeps up to three
+     * requests in flight next to the regular calls, which is more than the two connections a route gets by default.
+     */
+    public static final int MAX_CONNECTIONS = 16;
+
+    /**
+     * Create the REST client shared by all utils. Building a client sets up the whole Jersey runtime, so it is done
+     * once, and the HTTP connections are kept in a pool owned by this client instead of reconnecting every time.
+     *
+     * @return A new REST client, to be closed when the application stops, which also closes its connections
+     */
+    @Override
+    public Client get() {
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+        pool.setMaxTotal(MAX_CONNECTIONS);
+        pool.setDefaultMaxPerRoute(MAX_CONNECTIONS);
+
+        ClientConfig config = new ClientConfig()
+                .connectorProvider(new ApacheConnectorProvider())
+                .property(ApacheClientProperties.CONNECTION_MANAGER, pool);
+        return ClientBuilder.newClient(config);
+    }
+}
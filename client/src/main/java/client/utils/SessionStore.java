@@ -0,0 +1,228 @@
+package client.utils;
+
+import com.google.inject.Inject;
+import commons.GameSession;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+public class SessionStore {
+
+    public static final long POLL_MILLIS = 100L;
+
+    private final GameSessionUtils gameSessionUtils;
+    private final ClientExecutor executor;
+    private final Executor fxThread;
+
+    private final ReadOnlyObjectWrapper<GameSession> session;
+    private final ReadOnlyObjectWrapper<GameSession.SessionStatus> status;
+    private final ReadOnlyIntegerWrapper playerCount;
+    private final ReadOnlyIntegerWrapper playersReady;
+    private final ReadOnlyIntegerWrapper timeJokers;
+
+    private volatile GameSession latest;
+    private Poll current;
+
+    /**
+     * @param gameSessionUtils The utils fetching the session from the server
+     * @param executor         The executor polling the server
+     */
+    @Inject
+    public SessionStore(GameSessionUtils gameSessionUtils, ClientExecutor executor) {
+        this(gameSessionUtils, executor, ClientExecutor.FX);
+    }
+
+    /**
+     * @param gameSessionUtils The utils fetching the session from the server
+     * @param executor         The executor polling the server
+     * @param fxThread         The executor publishing changes, which runs them on the JavaFX application thread
+     */
+    SessionStore(GameSessionUtils gameSessionUtils, ClientExecutor executor, Executor fxThread) {
+        this.gameSessionUtils = gameSessionUtils;
+        this.executor = executor;
+        this.fxThread = fxThread;
+        this.session = new ReadOnlyObjectWrapper<>(this, "session");
+        this.status = new ReadOnlyObjectWrapper<>(this, "status");
+        this.playerCount = new ReadOnlyIntegerWrapper(this, "playerCount");
+        this.playersReady = new ReadOnlyIntegerWrapper(this, "playersReady");
+        this.timeJokers = new ReadOnlyIntegerWrapper(this, "timeJokers");
+    }
+
+    /**
+     * Poll of one session. Polls are scene tasks, so a scene that needs the session starts following it again.
+     */
+    private class Poll implements BooleanSupplier {
+
+        private final long sessionId;
+        private final List<Predicate<GameSession>> listeners;
+        private Future<?> future;
+        private String etag;
+
+        Poll(long sessionId) {
+            this.sessionId = sessionId;
+            this.listeners = new ArrayList<>();
+        }
+
+        @Override
+        public boolean getAsBoolean() {
+            try (Response res = gameSessionUtils.getSessionIfModified(sessionId, etag)) {
+                if (res.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) return true;
+                if (res.getStatus() != Response.Status.OK.getStatusCode()) {
+                    // the session was removed
+                    etag = null;
+                    publish(null);
+                    return true;
+                }
+                GameSession s = res.readEntity(GameSession.class);
+                etag = res.getHeaderString(HttpHeaders.ETAG);
+                publish(s);
+            } catch (RuntimeException e) {
+                // the server could not be reached, try again on the next poll
+            }
+            return true;
+        }
+
+        private void publish(GameSession s) {
+            fxThread.execute(() -> {
+                if (current != this) return;
+                latest = s;
+                set(s);
+                for (Predicate<GameSession> l : List.copyOf(listeners)) {
+                    // a listener may have moved on to another scene
+                    if (current != this) return;
+                    if (!l.test(s)) listeners.remove(l);
+                }
+            });
+        }
+    }
+
+    /**
+     * Start following a session: it is polled for changes, which the server only sends if there are any, and every
+     * change is published to the properties and listeners of the store. Following the session that is already
+     * followed does nothing. Must be called on the JavaFX application thread.
+     *
+     * @param sessionId The id of the session
+     */
+    public void track(long sessionId) {
+        if (current != null && current.sessionId == sessionId && !current.future.isDone()) return;
+        if (current != null) current.future.cancel(false);
+        if (current == null || current.sessionId != sessionId) {
+            latest = null;
+            set(null);
+        }
+        current = new Poll(sessionId);
+        current.future = executor.scheduleAtFixedRate(current, 0, POLL_MILLIS);
+    }
+
+    /**
+     * Stop following the session. Must be called on the JavaFX application thread.
+     */
+    public void untrack() {
+        if (current != null) current.future.cancel(false);
+        current = null;
+        latest = null;
+        set(null);
+    }
+
+    /**
+     * Listen for changes to the followed session until the listener returns false or the scene changes. The listener
+     * is called on the JavaFX application thread, right away with the latest state of the session if it is known, and
+     * then with every new state, which is null if the session was removed. Must be called on the JavaFX application
+     * thread, after {@link #track(long)}.
+     *
+     * @param listener The listener, returning whether it should keep listening
+     */
+    public void listen(Predicate<GameSession> listener) {
+        if (current == null || current.future.isDone()) throw new IllegalStateException("No session is followed");
+        GameSession s = session.get();
+        if (s != null && !listener.test(s)) return;
+        current.listeners.add(listener);
+    }
+
+    /**
+     * Run an action once the followed session has the given status, e.g. to start the evaluation once all players
+     * answered. Runs right away if the session already has the status.
+     *
+     * @param status The status to wait for
+     * @param action The action to run on the JavaFX application thread
+     */
+    public void whenStatus(GameSession.SessionStatus status, Runnable action) {
+        listen(s -> {
+            if (s == null || s.sessionStatus != status) return true;
+            action.run();
+            return false;
+        });
+    }
+
+    private void set(GameSession s) {
+        session.set(s);
+        status.set((s == null) ? null : s.sessionStatus);
+        playerCount.set((s == null) ? 0 : s.players.size());
+        playersReady.set((s == null) ? 0 : s.playersReady.get());
+        timeJokers.set((s == null) ? 0 : s.getTimeJokers());
+    }
+
+    /**
+     * Get the latest known state of the followed session. Unlike the properties, this may be read from any thread.
+     *
+     * @return The latest state of the session, or null if it is not known
+     */
+    public GameSession getSession() {
+        return latest;
+    }
+
+    /**
+     * Get the latest state of the followed session
+     *
+     * @return The property holding the session, or null if it is not known
+     */
+    public ReadOnlyObjectProperty<GameSession> sessionProperty() {
+        return session.getReadOnlyProperty();
+    }
+
+    /**
+     * Get the status of the followed session
+     *
+     * @return The property holding the status of the session
+     */
+    public ReadOnlyObjectProperty<GameSession.SessionStatus> statusProperty() {
+        return status.getReadOnlyProperty();
+    }
+
+    /**
+     * Get the number of players in the followed session
+     *
+     * @return The property holding the number of players
+     */
+    public ReadOnlyIntegerProperty playerCountProperty() {
+        return playerCount.getReadOnlyProperty();
+    }
+
+    /**
+     * Get the number of players of the followed session that are ready
+     *
+     * @return The property holding the number of ready players
+     */
+    public ReadOnlyIntegerProperty playersReadyProperty() {
+        return playersReady.getReadOnlyProperty();
+    }
+
+    /**
+     * Get the number of time jokers used in the current round of the followed session
+     *
+     * @return The property holding the number of time jokers
+     */
+    public ReadOnlyIntegerProperty timeJokersProperty() {
+        return timeJokers.getReadOnlyProperty();
+    }
+}
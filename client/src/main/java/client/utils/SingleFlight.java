@@ -0,0 +1,138 @@
+package client.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class SingleFlight<K, V> {
+
+    private final long ttlNanos;
+    private final Map<K, CompletableFuture<V>> inFlight;
+    private final Map<K, Memo<V>> memo;
+    private long issued;
+    private long coalesced;
+    private long memoized;
+
+    /**
+     * Result of a request, together with the time it arrived
+     *
+     * @param value The result of the request
+     * @param at    The time the result arrived, in nanoseconds on the {@link System#nanoTime()} clock
+     * @param <V>   The type of the result
+     */
+    private record Memo<V>(V value, long at) {
+    }
+
+    /**
+     * Create a group of requests in which a request is only made once while it is running, and its result is reused
+     * for a while after it arrived. Every caller sharing a request gets the same result object, so results must not be
+     * modified by callers, or must be copied before they are handed out.
+     *
+     * @param ttlMillis The time in milliseconds the result of a request is reused for, or 0 to only share running
+     *                  requests
+     */
+    public SingleFlight(long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.inFlight = new HashMap<>();
+        this.memo = new HashMap<>();
+    }
+
+    /**
+     * Get the result of the request for a key. A recent result is returned right away, and a caller asking while the
+     * request is running waits for that request instead of making its own. Failures are shared by the callers
+     * waiting for the request, but never reused.
+     *
+     * @param key     The key of the request, e.g. the id of a session
+     * @param request The request to make if there is neither a recent result nor a running request
+     * @return The result of the request
+     */
+    public V get(K key, Supplier<V> request) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> pending;
+        synchronized (this) {
+            Memo<V> recent = memo.get(key);
+            if (recent != null && System.nanoTime() - recent.at < ttlNanos) {
+                ++memoized;
+                return recent.value;
+            }
+            pending = inFlight.putIfAbsent(key, mine);
+            if (pending == null) ++issued;
+            else ++coalesced;
+        }
+        if (pending != null) return await(pending);
+
+        try {
+            V value = request.get();
+            synchronized (this) {
+                // a result that was forgotten while the request ran may already be outdated
+                if (inFlight.remove(key, mine) && ttlNanos > 0) remember(key, value);
+            }
+            mine.complete(value);
+            return value;
+        } catch (Throwable t) {
+            // errors are shared too, so callers waiting for the request never hang
+            synchronized (this) {
+                inFlight.remove(key, mine);
+            }
+            mine.completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    private void remember(K key, V value) {
+        long now = System.nanoTime();
+        memo.values().removeIf(m -> now - m.at >= ttlNanos);
+        memo.put(key, new Memo<>(value, now));
+    }
+
+    private static <V> V await(CompletableFuture<V> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * Forget the result for a key, e.g. because the data was changed. A request that is still running is no longer
+     * shared either, so callers after this see the change.
+     *
+     * @param key The key of the request
+     */
+    public synchronized void forget(K key) {
+        memo.remove(key);
+        inFlight.remove(key);
+    }
+
+    /**
+     * Get the number of requests that were made
+     *
+     * @return The number of requests that were made
+     */
+    public synchronized long getIssued() {
+        return issued;
+    }
+
+    /**
+     * Get the number of callers that waited for a running request instead of making their own
+     *
+     * @return The number of coalesced requests
+     */
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Get the number of callers that got a recent result instead of making a request
+     *
+     * @return The number of memoized results
+     */
+    public synchronized long getMemoized() {
+        return memoized;
+    }
+}
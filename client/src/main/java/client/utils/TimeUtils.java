@@ -1,52 +1,125 @@
 package client.utils;
 
-import javafx.concurrent.Task;
-import org.glassfish.jersey.internal.util.Producer;
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
 
-public class TimeUtils extends Task<Void> {
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
 
-    private final long maxTime;
-    private final long updateInterval;
-    private Producer<Double> getTimeBoost;
-    public double refreshCounter;
+public class TimeUtils extends AnimationTimer {
 
-    public TimeUtils(long duration, long updateInterval) {
+    private final long durationNanos;
+    private final ReadOnlyDoubleWrapper progress;
+    private DoubleSupplier getTimeBoost;
+    private Runnable onFinished;
+    private volatile boolean running;
+    private volatile boolean resetRequested;
+    private long deadline;
+    private long lastPulse;
+
+    /**
+     * Create a timer that counts down on the pulses of the JavaFX application thread, so it takes no thread of its
+     * own. The timer is anchored to a deadline on the monotonic clock, so a late pulse never makes it drift.
+     *
+     * @param duration The duration of the timer in seconds
+     */
+    public TimeUtils(long duration) {
         super();
-        this.maxTime = duration;
-        this.updateInterval = updateInterval;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(duration);
+        this.progress = new ReadOnlyDoubleWrapper(this, "progress", 1.0);
         this.getTimeBoost = () -> 0.0;
-        refreshCounter = 0.0;
     }
 
+    /**
+     * Start counting down from the full duration. Must be called on the JavaFX application thread.
+     */
     @Override
-    protected Void call() throws Exception {
-        long gameRoundMs = maxTime * 1000;
-        double timeElapsed = 0;
-        while (timeElapsed < gameRoundMs) {
-            //the speed on which the timer updates, with default speed 1
-            double booster = getTimeBoost.call() + 1;
-            updateProgress(gameRoundMs - timeElapsed, gameRoundMs);
-            refreshCounter += booster;
-            try {
-                Thread.sleep(updateInterval);
-                timeElapsed = refreshCounter * updateInterval;
-            } catch (InterruptedException e) {
-                updateProgress(0, 1);
-                throw e;
-            }
+    public void start() {
+        lastPulse = System.nanoTime();
+        deadline = lastPulse + durationNanos;
+        resetRequested = false;
+        progress.set(1.0);
+        running = true;
+        super.start();
+    }
+
+    /**
+     * Update the progress of the timer on a pulse, and finish it once the deadline passes. A time boost moves the
+     * deadline by the boost times the time since the previous pulse, so a boost of 1 makes the timer run twice as fast.
+     *
+     * @param now The time of the pulse in nanoseconds, on the same clock as {@link System#nanoTime()}
+     */
+    @Override
+    public void handle(long now) {
+        if (resetRequested) {
+            resetRequested = false;
+            deadline = now + durationNanos;
+        } else {
+            deadline -= (long) (Math.max(0, now - lastPulse) * getTimeBoost.getAsDouble());
+        }
+        lastPulse = now;
+
+        long remaining = deadline - now;
+        if (remaining > 0) {
+            progress.set((double) remaining / durationNanos);
+            return;
         }
-        updateProgress(0, 1);
-        return null;
+        progress.set(0.0);
+        cancel();
+        if (onFinished != null) onFinished.run();
+    }
+
+    /**
+     * Stop the timer without finishing it. Must be called on the JavaFX application thread.
+     */
+    public void cancel() {
+        running = false;
+        stop();
+    }
+
+    /**
+     * Check whether the timer is still counting down
+     *
+     * @return True iff the timer was started and neither finished nor was cancelled
+     */
+    public boolean isRunning() {
+        return running;
     }
 
-    public void setTimeBooster(Producer<Double> booster) {
+    /**
+     * Get the fraction of the duration that is left, going from 1 to 0
+     *
+     * @return The progress of the timer
+     */
+    public ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+
+    /**
+     * Set the boost of the speed of the timer. It is asked on every pulse, so it must not block.
+     *
+     * @param booster Supplier of the boost, with 0 for the normal speed
+     */
+    public void setTimeBooster(DoubleSupplier booster) {
         this.getTimeBoost = booster;
     }
 
     /**
-     * Resets the timer
+     * Set the action to run on the JavaFX application thread when the timer runs out
+     *
+     * @param onFinished The action to run
+     */
+    public void setOnFinished(Runnable onFinished) {
+        this.onFinished = onFinished;
+    }
+
+    /**
+     * Reset a running timer to the full duration on its next pulse. May be called from any thread. A timer that
+     * already finished or was cancelled is not restarted, since its scene either moved on through the finish action
+     * or was left; use {@link #start()} to count down again.
      */
     public void resetTimer() {
-        refreshCounter = 0.0;
+        if (running) resetRequested = true;
     }
 }
@@ -6,17 +6,22 @@ import org.springframework.messaging.simp.stomp.StompFrameHandler;
 import org.springframework.messaging.simp.stomp.StompHeaders;
 import org.springframework.messaging.simp.stomp.StompSession;
 import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.client.standard.StandardWebSocketClient;
 import org.springframework.web.socket.messaging.WebSocketStompClient;
 
 import java.lang.reflect.Type;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 
 
 public class WebSocketsUtils {
 
+    public static final long HEARTBEAT_MILLIS = 10000L;
+
     private StompSession websocketServer;
+    private ThreadPoolTaskScheduler heartbeatScheduler;
 
     /**
      * Public method for accessing the connect method.
@@ -41,6 +46,15 @@ public class WebSocketsUtils {
         // Setup magic passing of objects through the network
         stomp.setMessageConverter(new MappingJackson2MessageConverter());
 
+        // Exchange heartbeats with the server, so dead connections are noticed on both ends
+        if (heartbeatScheduler == null) {
+            heartbeatScheduler = new ThreadPoolTaskScheduler();
+            heartbeatScheduler.setDaemon(true);
+            heartbeatScheduler.initialize();
+        }
+        stomp.setTaskScheduler(heartbeatScheduler);
+        stomp.setDefaultHeartbeat(new long[]{HEARTBEAT_MILLIS, HEARTBEAT_MILLIS});
+
         try {
             return stomp.connect(destination, new StompSessionHandlerAdapter() {
             }).get();
@@ -78,13 +92,15 @@ public class WebSocketsUtils {
     }
 
     /**
-     * Listen for updates regarding emojis from other players
+     * Listen for updates regarding emojis from other players. The server sends the emojis in batches, holding the
+     * number of times each player sent each emoji type during the batch.
      *
-     * @param handler   The function to call with the emoji sent to the session
+     * @param handler   The function to call with each batch of emojis sent to the session
      * @param sessionId The ID of the session in which to listen for emojis
      */
-    public StompSession.Subscription registerForEmojiUpdates(Consumer<Emoji> handler, long sessionId) {
-        return registerForWebsocketUpdates(handler, Emoji.class, "/emoji/" + sessionId);
+    public StompSession.Subscription registerForEmojiUpdates(Consumer<List<Emoji>> handler, long sessionId) {
+        return registerForWebsocketUpdates(batch -> handler.accept(List.of(batch)), Emoji[].class,
+                "/emoji/" + sessionId);
     }
 
     /**
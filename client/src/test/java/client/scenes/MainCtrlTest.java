@@ -15,6 +15,7 @@
  */
 package client.scenes;
 
+import client.utils.ClientExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -24,7 +25,7 @@ public class MainCtrlTest {
 
     @BeforeEach
     public void setup() {
-        sut = new MainCtrl();
+        sut = new MainCtrl(new ClientExecutor());
     }
 
     @Test
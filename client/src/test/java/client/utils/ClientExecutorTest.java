@@ -0,0 +1,146 @@
+package client.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientExecutorTest {
+
+    private static final long LONG_DELAY_MILLIS = 60_000L;
+
+    private ClientExecutor sut;
+
+    @BeforeEach
+    public void setup() {
+        sut = new ClientExecutor();
+    }
+
+    @AfterEach
+    public void teardown() {
+        sut.shutdown();
+    }
+
+    /**
+     * Wait until a condition holds, failing the test if it does not within five seconds
+     *
+     * @param condition The condition to wait for
+     */
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void testSupplyRunsOnWorker() throws Exception {
+        CompletableFuture<String> name = sut.supply(() -> Thread.currentThread().getName());
+        assertTrue(name.get(5, TimeUnit.SECONDS).startsWith("client-worker-"));
+    }
+
+    @Test
+    public void testSupplyNotCancelledWithScene() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> request = sut.supply(() -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return "interrupted";
+            }
+            return "done";
+        });
+        sut.cancelSceneTasks();
+        release.countDown();
+        assertEquals("done", request.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testScheduleRunsOnce() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        sut.schedule(ran::countDown, 1);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testScheduleCancelledWithScene() {
+        ScheduledFuture<?> future = sut.schedule(() -> fail("cancelled action ran"), LONG_DELAY_MILLIS);
+        assertEquals(1, sut.getSceneTaskCount());
+
+        sut.cancelSceneTasks();
+        assertTrue(future.isCancelled());
+        assertEquals(0, sut.getSceneTaskCount());
+    }
+
+    @Test
+    public void testRepeatingStopsWhenActionReturnsFalse() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> future = sut.scheduleAtFixedRate(() -> runs.incrementAndGet() < 3, 0, 1);
+
+        await(future::isDone);
+        assertTrue(future.isCancelled());
+        Thread.sleep(20);
+        assertEquals(3, runs.get());
+        assertEquals(0, sut.getSceneTaskCount());
+    }
+
+    @Test
+    public void testRepeatingKeepsRunningAfterException() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> future = sut.scheduleAtFixedRate(() -> {
+            if (runs.incrementAndGet() == 1) throw new IllegalStateException("server unreachable");
+            return runs.get() < 3;
+        }, 0, 1);
+
+        await(future::isDone);
+        assertEquals(3, runs.get());
+    }
+
+    @Test
+    public void testRepeatingStopsAfterError() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> future = sut.scheduleAtFixedRate(() -> {
+            runs.incrementAndGet();
+            throw new AssertionError("broken action");
+        }, 0, 1);
+
+        var e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, e.getCause());
+        Thread.sleep(20);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testRepeatingCancelledWithScene() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> future = sut.scheduleAtFixedRate(() -> runs.incrementAndGet() > 0, 0, 1);
+        await(() -> runs.get() > 0);
+
+        sut.cancelSceneTasks();
+        assertThrows(CancellationException.class, future::get);
+        int seen = runs.get();
+        Thread.sleep(20);
+        // a run that was already going may finish, but no new one starts
+        assertTrue(runs.get() <= seen + 1);
+    }
+
+    @Test
+    public void testShutdownCancelsSceneTasks() {
+        ScheduledFuture<?> future = sut.schedule(() -> fail("cancelled action ran"), LONG_DELAY_MILLIS);
+        sut.shutdown();
+        assertTrue(future.isCancelled());
+        assertThrows(RejectedExecutionException.class, () -> sut.supply(() -> 1));
+    }
+}
@@ -0,0 +1,205 @@
+package client.utils;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ImageCacheTest {
+
+    private static final int SIZE = 10;
+    private static final long PIXEL_BYTES = 4L * SIZE * SIZE;
+
+    private QuestionUtils questionUtils;
+    private Path dir;
+    private ExecutorService callers;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        questionUtils = mock(QuestionUtils.class);
+        dir = Files.createTempDirectory("image-cache");
+        callers = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void teardown() throws IOException {
+        callers.shutdownNow();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path f : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(f);
+        }
+    }
+
+    private static byte[] png() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static Response ok(byte[] bytes, String etag) {
+        Response res = mock(Response.class);
+        when(res.getStatus()).thenReturn(Response.Status.OK.getStatusCode());
+        when(res.hasEntity()).thenReturn(true);
+        when(res.readEntity(byte[].class)).thenReturn(bytes);
+        when(res.getHeaderString(HttpHeaders.ETAG)).thenReturn(etag);
+        return res;
+    }
+
+    private static Response notModified() {
+        Response res = mock(Response.class);
+        when(res.getStatus()).thenReturn(Response.Status.NOT_MODIFIED.getStatusCode());
+        return res;
+    }
+
+    private ImageCache cache(long maxPixelBytes) {
+        return new ImageCache(questionUtils, null, dir, maxPixelBytes);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedDroppedOverBudget() throws IOException {
+        byte[] png = png();
+        when(questionUtils.fetchImageIfModified(anyString(), any())).thenAnswer(inv -> ok(png, null));
+        ImageCache sut = cache(2 * PIXEL_BYTES);
+
+        Image a = sut.get("a");
+        sut.get("b");
+        assertSame(a, sut.get("a"));
+        sut.get("c");
+
+        // b was used least recently, so it made room for c
+        assertNull(sut.getIfCached("b"));
+        assertSame(a, sut.getIfCached("a"));
+        assertNotNull(sut.getIfCached("c"));
+        assertEquals(2 * PIXEL_BYTES, sut.getPixelBytes());
+        assertEquals(3, sut.getMisses());
+    }
+
+    @Test
+    public void testImageOverBudgetStillKept() throws IOException {
+        byte[] png = png();
+        when(questionUtils.fetchImageIfModified(anyString(), any())).thenAnswer(inv -> ok(png, null));
+        ImageCache sut = cache(1);
+
+        sut.get("a");
+        sut.get("b");
+        assertNull(sut.getIfCached("a"));
+        assertNotNull(sut.getIfCached("b"));
+        assertEquals(PIXEL_BYTES, sut.getPixelBytes());
+    }
+
+    @Test
+    public void testDiskCopyReusedWhenNotModified() throws IOException {
+        when(questionUtils.fetchImageIfModified("a", null)).thenReturn(ok(png(), "\"v1\""));
+        cache(ImageCache.DEFAULT_MAX_PIXEL_BYTES).get("a");
+
+        // a new cache has nothing in memory, but finds the copy the first one wrote to disk
+        when(questionUtils.fetchImageIfModified("a", "\"v1\"")).thenReturn(notModified());
+        ImageCache sut = cache(ImageCache.DEFAULT_MAX_PIXEL_BYTES);
+        Image image = sut.get("a");
+
+        assertEquals(SIZE, image.getWidth());
+        assertEquals(1, sut.getDiskHits());
+        assertEquals(0, sut.getMisses());
+        verify(questionUtils).fetchImageIfModified("a", "\"v1\"");
+    }
+
+    @Test
+    public void testChangedImageReplacesDiskCopy() throws IOException {
+        byte[] png = png();
+        when(questionUtils.fetchImageIfModified("a", null)).thenReturn(ok(png, "\"v1\""));
+        cache(ImageCache.DEFAULT_MAX_PIXEL_BYTES).get("a");
+        when(questionUtils.fetchImageIfModified("a", "\"v1\"")).thenReturn(ok(png, "\"v2\""));
+        cache(ImageCache.DEFAULT_MAX_PIXEL_BYTES).get("a");
+
+        when(questionUtils.fetchImageIfModified("a", "\"v2\"")).thenReturn(notModified());
+        ImageCache sut = cache(ImageCache.DEFAULT_MAX_PIXEL_BYTES);
+        sut.get("a");
+        assertEquals(1, sut.getDiskHits());
+    }
+
+    @Test
+    public void testImageWithoutEtagNotWrittenToDisk() throws IOException {
+        when(questionUtils.fetchImageIfModified("a", null)).thenReturn(ok(png(), null));
+        cache(ImageCache.DEFAULT_MAX_PIXEL_BYTES).get("a");
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testConcurrentLookupsShareLoad() throws Exception {
+        byte[] png = png();
+        AtomicInteger fetches = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(questionUtils.fetchImageIfModified(eq("a"), any())).thenAnswer(inv -> {
+            fetches.incrementAndGet();
+            started.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return ok(png, null);
+        });
+        ImageCache sut = cache(ImageCache.DEFAULT_MAX_PIXEL_BYTES);
+
+        Future<Image> first = callers.submit(() -> sut.get("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Image> second = callers.submit(() -> sut.get("a"));
+        // the second lookup counts as a memory hit as soon as it found the running load
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sut.getMemoryHits() < 1 && System.nanoTime() < deadline) Thread.sleep(1);
+        release.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, fetches.get());
+        assertEquals(1, sut.getMisses());
+    }
+
+    @Test
+    public void testErrorReleasesWaitingLookups() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(questionUtils.fetchImageIfModified(eq("a"), any())).thenAnswer(inv -> {
+            started.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            throw new AssertionError("load failed");
+        });
+        ImageCache sut = cache(ImageCache.DEFAULT_MAX_PIXEL_BYTES);
+
+        Future<Image> first = callers.submit(() -> sut.get("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<Image> second = callers.submit(() -> sut.get("a"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sut.getMemoryHits() < 1 && System.nanoTime() < deadline) Thread.sleep(1);
+        release.countDown();
+
+        for (Future<Image> f : List.of(first, second)) {
+            var e = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, e.getCause());
+        }
+
+        // the failed load is no longer running, so the next lookup loads again
+        when(questionUtils.fetchImageIfModified(eq("a"), any())).thenReturn(ok(png(), null));
+        assertNotNull(sut.get("a"));
+    }
+}
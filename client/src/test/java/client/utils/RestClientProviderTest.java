@@ -0,0 +1,122 @@
+package client.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.ws.rs.client.Client;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RestClientProviderTest {
+
+    private static final int LONG_POLLS = 3;
+
+    private HttpServer server;
+    private ExecutorService handlers;
+    private ExecutorService callers;
+    private Set<Integer> clientPorts;
+    private CountDownLatch pollsWaiting;
+    private CountDownLatch releasePolls;
+    private String base;
+
+    private Client sut;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        clientPorts = ConcurrentHashMap.newKeySet();
+        pollsWaiting = new CountDownLatch(LONG_POLLS);
+        releasePolls = new CountDownLatch(1);
+
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/ping", ex -> reply(ex, "pong"));
+        server.createContext("/poll", ex -> {
+            pollsWaiting.countDown();
+            try {
+                releasePolls.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            reply(ex, "update");
+        });
+        handlers = Executors.newCachedThreadPool();
+        server.setExecutor(handlers);
+        server.start();
+        base = "http://localhost:" + server.getAddress().getPort() + "/";
+
+        callers = Executors.newFixedThreadPool(LONG_POLLS + 1);
+        sut = new RestClientProvider().get();
+    }
+
+    @AfterEach
+    public void teardown() {
+        releasePolls.countDown();
+        sut.close();
+        callers.shutdownNow();
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    private void reply(HttpExchange ex, String body) throws IOException {
+        clientPorts.add(ex.getRemoteAddress().getPort());
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String get(String path) {
+        return sut.target(base).path(path).request().get(String.class);
+    }
+
+    @Test
+    public void testSequentialRequestsReuseConnection() {
+        for (int i = 0; i < 20; ++i) assertEquals("pong", get("ping"));
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void testLongPollsDoNotBlockOtherRequests() throws Exception {
+        List<Future<String>> polls = new ArrayList<>();
+        for (int i = 0; i < LONG_POLLS; ++i) polls.add(callers.submit(() -> get("poll")));
+        // with the default of two connections per route, the last poll would not even reach the server
+        assertTrue(pollsWaiting.await(5, TimeUnit.SECONDS));
+
+        Future<String> ping = callers.submit(() -> get("ping"));
+        assertEquals("pong", ping.get(5, TimeUnit.SECONDS));
+
+        releasePolls.countDown();
+        for (Future<String> poll : polls) assertEquals("update", poll.get(5, TimeUnit.SECONDS));
+        // the polls and the regular request each had their own connection
+        assertEquals(LONG_POLLS + 1, clientPorts.size());
+    }
+
+    @Test
+    public void testClientsHaveOwnPools() {
+        Client other = new RestClientProvider().get();
+        try {
+            assertEquals("pong", other.target(base).path("ping").request().get(String.class));
+            assertEquals("pong", get("ping"));
+            assertEquals(2, clientPorts.size());
+        } finally {
+            other.close();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package client.utils;
+
+import commons.GameSession;
+import commons.Player;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SessionStoreTest {
+
+    private GameSessionUtils gameSessionUtils;
+    private ClientExecutor executor;
+    private List<BooleanSupplier> polls;
+    private List<ScheduledFuture<?>> futures;
+
+    private SessionStore sut;
+
+    @BeforeEach
+    public void setup() {
+        gameSessionUtils = mock(GameSessionUtils.class);
+        executor = mock(ClientExecutor.class);
+        polls = new ArrayList<>();
+        futures = new ArrayList<>();
+        doAnswer(inv -> {
+            polls.add(inv.getArgument(0));
+            ScheduledFuture<?> future = mock(ScheduledFuture.class);
+            futures.add(future);
+            return future;
+        }).when(executor).scheduleAtFixedRate(any(), anyLong(), anyLong());
+
+        // changes are published right away instead of on the JavaFX application thread
+        sut = new SessionStore(gameSessionUtils, executor, Runnable::run);
+    }
+
+    private static Response ok(GameSession session, String etag) {
+        Response res = mock(Response.class);
+        when(res.getStatus()).thenReturn(Response.Status.OK.getStatusCode());
+        when(res.readEntity(GameSession.class)).thenReturn(session);
+        when(res.getHeaderString(HttpHeaders.ETAG)).thenReturn(etag);
+        return res;
+    }
+
+    private static Response status(Response.Status status) {
+        Response res = mock(Response.class);
+        when(res.getStatus()).thenReturn(status.getStatusCode());
+        return res;
+    }
+
+    private static GameSession session(GameSession.SessionStatus status, int players) {
+        GameSession s = new GameSession(GameSession.SessionType.MULTIPLAYER);
+        s.sessionStatus = status;
+        for (int i = 0; i < players; ++i) s.players.add(new Player("p" + i, 0));
+        return s;
+    }
+
+    private void poll(Response res) {
+        when(gameSessionUtils.getSessionIfModified(eq(1L), any())).thenReturn(res);
+        assertTrue(polls.get(polls.size() - 1).getAsBoolean());
+    }
+
+    @Test
+    public void testTrackPublishesSession() {
+        sut.track(1L);
+        assertEquals(1, polls.size());
+        assertNull(sut.getSession());
+
+        GameSession s = session(GameSession.SessionStatus.STARTED, 2);
+        poll(ok(s, "\"a\""));
+        assertSame(s, sut.getSession());
+        assertSame(s, sut.sessionProperty().get());
+        assertEquals(GameSession.SessionStatus.STARTED, sut.statusProperty().get());
+        assertEquals(2, sut.playerCountProperty().get());
+    }
+
+    @Test
+    public void testPollSendsEtag() {
+        sut.track(1L);
+        poll(ok(session(GameSession.SessionStatus.STARTED, 1), "\"a\""));
+        poll(status(Response.Status.NOT_MODIFIED));
+        verify(gameSessionUtils).getSessionIfModified(1L, "\"a\"");
+        assertNotNull(sut.getSession());
+    }
+
+    @Test
+    public void testTrackSameSessionOnce() {
+        sut.track(1L);
+        sut.track(1L);
+        assertEquals(1, polls.size());
+
+        sut.track(2L);
+        assertEquals(2, polls.size());
+        verify(futures.get(0)).cancel(false);
+    }
+
+    @Test
+    public void testRemovedSessionPublishedAsNull() {
+        sut.track(1L);
+        poll(ok(session(GameSession.SessionStatus.STARTED, 1), "\"a\""));
+        poll(status(Response.Status.BAD_REQUEST));
+        assertNull(sut.getSession());
+        assertEquals(0, sut.playerCountProperty().get());
+    }
+
+    @Test
+    public void testListen() {
+        sut.track(1L);
+        List<GameSession> seen = new ArrayList<>();
+        sut.listen(s -> seen.add(s) && seen.size() < 2);
+
+        GameSession first = session(GameSession.SessionStatus.STARTED, 1);
+        GameSession second = session(GameSession.SessionStatus.ONGOING, 1);
+        poll(ok(first, "\"a\""));
+        poll(ok(second, "\"b\""));
+        poll(ok(session(GameSession.SessionStatus.PAUSED, 1), "\"c\""));
+
+        // the listener stopped listening after returning false
+        assertEquals(List.of(first, second), seen);
+    }
+
+    @Test
+    public void testListenWithoutTrackFails() {
+        assertThrows(IllegalStateException.class, () -> sut.listen(s -> true));
+    }
+
+    @Test
+    public void testWhenStatus() {
+        sut.track(1L);
+        int[] runs = {0};
+        sut.whenStatus(GameSession.SessionStatus.ONGOING, () -> ++runs[0]);
+
+        poll(ok(session(GameSession.SessionStatus.STARTED, 1), "\"a\""));
+        assertEquals(0, runs[0]);
+        poll(ok(session(GameSession.SessionStatus.ONGOING, 1), "\"b\""));
+        poll(ok(session(GameSession.SessionStatus.ONGOING, 2), "\"c\""));
+        assertEquals(1, runs[0]);
+
+        // a session that already has the status runs the action right away
+        sut.whenStatus(GameSession.SessionStatus.ONGOING, () -> ++runs[0]);
+        assertEquals(2, runs[0]);
+    }
+
+    @Test
+    public void testUntrackDropsListeners() {
+        sut.track(1L);
+        List<GameSession> seen = new ArrayList<>();
+        sut.listen(seen::add);
+        BooleanSupplier oldPoll = polls.get(0);
+
+        sut.untrack();
+        verify(futures.get(0)).cancel(false);
+        when(gameSessionUtils.getSessionIfModified(eq(1L), any()))
+                .thenReturn(ok(session(GameSession.SessionStatus.STARTED, 1), "\"a\""));
+        oldPoll.getAsBoolean();
+        assertEquals(List.of(), seen);
+        assertNull(sut.getSession());
+    }
+
+    @Test
+    public void testUnreachableServerKeepsPolling() {
+        sut.track(1L);
+        when(gameSessionUtils.getSessionIfModified(eq(1L), any())).thenThrow(new IllegalStateException());
+        assertTrue(polls.get(0).getAsBoolean());
+    }
+}
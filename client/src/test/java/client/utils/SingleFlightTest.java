@@ -0,0 +1,149 @@
+package client.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final long LONG_TTL_MILLIS = 60_000L;
+
+    private ExecutorService callers;
+    private AtomicInteger requests;
+
+    @BeforeEach
+    public void setup() {
+        callers = Executors.newFixedThreadPool(8);
+        requests = new AtomicInteger();
+    }
+
+    @AfterEach
+    public void teardown() {
+        callers.shutdownNow();
+    }
+
+    /**
+     * Start callers that ask for key 1 while the request is blocked, and release the request once they all wait
+     *
+     * @param sut     The group of requests
+     * @param n       The number of callers
+     * @param failure The error the request throws, or null to return a value
+     * @return The futures of the callers
+     */
+    private List<Future<String>> callConcurrently(SingleFlight<Integer, String> sut, int n, Error failure)
+            throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> res = new ArrayList<>();
+        for (int i = 0; i < n; ++i) {
+            res.add(callers.submit(() -> sut.get(1, () -> {
+                requests.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (failure != null) throw failure;
+                return "value";
+            })));
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // wait until every other caller found the running request
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sut.getIssued() + sut.getCoalesced() < n && System.nanoTime() < deadline) Thread.sleep(1);
+        release.countDown();
+        return res;
+    }
+
+    @Test
+    public void testConcurrentCallersShareRequest() throws Exception {
+        SingleFlight<Integer, String> sut = new SingleFlight<>(0);
+        List<Future<String>> results = callConcurrently(sut, 8, null);
+        for (Future<String> f : results) assertEquals("value", f.get(5, TimeUnit.SECONDS));
+
+        assertEquals(1, requests.get());
+        assertEquals(1, sut.getIssued());
+        assertEquals(7, sut.getCoalesced());
+    }
+
+    @Test
+    public void testResultReusedWithinTtl() {
+        SingleFlight<Integer, String> sut = new SingleFlight<>(LONG_TTL_MILLIS);
+        assertEquals("1", sut.get(1, () -> String.valueOf(requests.incrementAndGet())));
+        assertEquals("1", sut.get(1, () -> String.valueOf(requests.incrementAndGet())));
+        assertEquals("2", sut.get(2, () -> String.valueOf(requests.incrementAndGet())));
+
+        assertEquals(2, sut.getIssued());
+        assertEquals(1, sut.getMemoized());
+    }
+
+    @Test
+    public void testResultExpires() throws InterruptedException {
+        SingleFlight<Integer, String> sut = new SingleFlight<>(1);
+        assertEquals("1", sut.get(1, () -> String.valueOf(requests.incrementAndGet())));
+        Thread.sleep(5);
+        assertEquals("2", sut.get(1, () -> String.valueOf(requests.incrementAndGet())));
+        assertEquals(0, sut.getMemoized());
+    }
+
+    @Test
+    public void testNoTtlOnlySharesRunningRequests() {
+        SingleFlight<Integer, String> sut = new SingleFlight<>(0);
+        assertEquals("1", sut.get(1, () -> String.valueOf(requests.incrementAndGet())));
+        assertEquals("2", sut.get(1, () -> String.valueOf(requests.incrementAndGet())));
+    }
+
+    @Test
+    public void testForget() {
+        SingleFlight<Integer, String> sut = new SingleFlight<>(LONG_TTL_MILLIS);
+        sut.get(1, () -> String.valueOf(requests.incrementAndGet()));
+        sut.forget(1);
+        assertEquals("2", sut.get(1, () -> String.valueOf(requests.incrementAndGet())));
+    }
+
+    @Test
+    public void testForgetWhileRunningDropsResult() {
+        SingleFlight<Integer, String> sut = new SingleFlight<>(LONG_TTL_MILLIS);
+        assertEquals("stale", sut.get(1, () -> {
+            sut.forget(1);
+            return "stale";
+        }));
+        assertEquals("fresh", sut.get(1, () -> "fresh"));
+    }
+
+    @Test
+    public void testFailureNotReused() {
+        SingleFlight<Integer, String> sut = new SingleFlight<>(LONG_TTL_MILLIS);
+        assertThrows(IllegalStateException.class, () -> sut.get(1, () -> {
+            throw new IllegalStateException();
+        }));
+        assertEquals("value", sut.get(1, () -> "value"));
+    }
+
+    @Test
+    public void testErrorReleasesWaitingCallers() throws Exception {
+        SingleFlight<Integer, String> sut = new SingleFlight<>(LONG_TTL_MILLIS);
+        List<Future<String>> results = callConcurrently(sut, 4, new AssertionError("request failed"));
+        for (Future<String> f : results) {
+            var e = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(AssertionError.class, e.getCause());
+        }
+        assertEquals(1, requests.get());
+
+        // the failed request is no longer running, so the next caller makes a new one
+        assertEquals("value", sut.get(1, () -> "value"));
+    }
+}
@@ -16,6 +16,7 @@ public class Emoji {
 
     public String username;
     public EmojiType emoji;
+    public int count;
 
     public Emoji() {
         // for object mapper
@@ -24,8 +25,13 @@ public class Emoji {
     }
 
     public Emoji(String username, EmojiType type) {
+        this(username, type, 1);
+    }
+
+    public Emoji(String username, EmojiType type, int count) {
         this.username = username;
         this.emoji = type;
+        this.count = count;
     }
 
     /**
@@ -0,0 +1,116 @@
+package commons;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.*;
+
+import static org.apache.commons.lang3.builder.ToStringStyle.MULTI_LINE_STYLE;
+
+public class LeaderboardDelta {
+
+    public String mode;
+    public long version;
+    public boolean snapshot;
+
+    public List<LeaderboardEntry> inserted;
+    public List<LeaderboardEntry> moved;
+    public List<Long> removed;
+
+    @SuppressWarnings("unused")
+    public LeaderboardDelta() {
+        // for object mapper
+        this(null, 0L, false);
+    }
+
+    public LeaderboardDelta(String mode, long version, boolean snapshot) {
+        this.mode = mode;
+        this.version = version;
+        this.snapshot = snapshot;
+        this.inserted = new ArrayList<>();
+        this.moved = new ArrayList<>();
+        this.removed = new ArrayList<>();
+    }
+
+    /**
+     * Create a delta that replaces the whole ranking of a game mode
+     *
+     * @param mode    The game mode of the ranking
+     * @param version The version of the ranking
+     * @param ranking The complete ranking, ordered by rank
+     * @return A snapshot delta containing every entry of the ranking
+     */
+    public static LeaderboardDelta snapshot(String mode, long version, List<LeaderboardEntry> ranking) {
+        LeaderboardDelta delta = new LeaderboardDelta(mode, version, true);
+        delta.inserted.addAll(ranking);
+        return delta;
+    }
+
+    /**
+     * Check whether the delta carries any change
+     *
+     * @return True iff an entry was inserted, moved or removed, or the delta is a snapshot
+     */
+    public boolean hasChanges() {
+        return snapshot || !inserted.isEmpty() || !moved.isEmpty() || !removed.isEmpty();
+    }
+
+    /**
+     * Patch a ranking in place so that it matches the ranking this delta was computed for. The ranking must be the
+     * one of the previous version, unless this delta is a snapshot.
+     * Changed entries are taken out first and put back in order of their new rank, so entries that only shifted
+     * because of others never have to be sent; their rank is renumbered locally afterwards.
+     *
+     * @param ranking The ranking to patch, ordered by rank
+     */
+    public void applyTo(List<LeaderboardEntry> ranking) {
+        if (snapshot) ranking.clear();
+
+        Set<Long> stale = new HashSet<>(removed);
+        List<LeaderboardEntry> changed = new ArrayList<>(inserted);
+        changed.addAll(moved);
+        for (LeaderboardEntry e : changed) stale.add(e.playerId);
+        if (!stale.isEmpty()) ranking.removeIf(e -> stale.contains(e.playerId));
+
+        changed.sort(Comparator.comparingInt(e -> e.rank));
+        for (LeaderboardEntry e : changed) {
+            ranking.add(Math.min(e.rank, ranking.size()), e);
+        }
+        for (int i = 0; i < ranking.size(); ++i) {
+            LeaderboardEntry e = ranking.get(i);
+            if (e.rank != i) ranking.set(i, new LeaderboardEntry(e.playerId, e.username, e.score, i));
+        }
+    }
+
+    /**
+     * Equals method
+     *
+     * @param obj - Object that will be compared with this
+     * @return true if this and obj are equal
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return EqualsBuilder.reflectionEquals(this, obj);
+    }
+
+    /**
+     * Hashcode method
+     *
+     * @return the hashcode of the delta
+     */
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+
+    /**
+     * ToString method
+     *
+     * @return String containing the delta in a readable format
+     */
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, MULTI_LINE_STYLE);
+    }
+}
@@ -0,0 +1,91 @@
+package commons;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import static org.apache.commons.lang3.builder.ToStringStyle.MULTI_LINE_STYLE;
+
+public class LeaderboardEntry {
+
+    public long playerId;
+    public String username;
+    public int score;
+    public int rank;
+
+    @SuppressWarnings("unused")
+    public LeaderboardEntry() {
+        // for object mapper
+    }
+
+    public LeaderboardEntry(long playerId, String username, int score) {
+        this(playerId, username, score, 0);
+    }
+
+    public LeaderboardEntry(long playerId, String username, int score, int rank) {
+        this.playerId = playerId;
+        this.username = username;
+        this.score = score;
+        this.rank = rank;
+    }
+
+    /**
+     * Check whether this entry shows the same player data as another entry, regardless of its rank
+     *
+     * @param other The entry to compare with
+     * @return True iff both entries belong to the same player and show the same username and score
+     */
+    public boolean sameStanding(LeaderboardEntry other) {
+        return other != null && this.playerId == other.playerId && this.score == other.score &&
+                ((this.username == null) ? other.username == null : this.username.equals(other.username));
+    }
+
+    /**
+     * Getter for the username
+     *
+     * @return the username of the player this entry belongs to
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Getter for the score
+     *
+     * @return the score of the player in the entry's game mode
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Equals method
+     *
+     * @param obj - Object that will be compared with this
+     * @return true if this and obj are equal
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return EqualsBuilder.reflectionEquals(this, obj);
+    }
+
+    /**
+     * Hashcode method
+     *
+     * @return the hashcode of the entry
+     */
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+
+    /**
+     * ToString method
+     *
+     * @return String containing the entry in a readable format
+     */
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, MULTI_LINE_STYLE);
+    }
+}
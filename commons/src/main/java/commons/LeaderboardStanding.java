@@ -0,0 +1,67 @@
+package commons;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.commons.lang3.builder.ToStringStyle.MULTI_LINE_STYLE;
+
+public class LeaderboardStanding {
+
+    public LeaderboardEntry entry;
+    public List<LeaderboardEntry> neighbours;
+    public int total;
+
+    @SuppressWarnings("unused")
+    public LeaderboardStanding() {
+        // for object mapper
+        this.neighbours = new ArrayList<>();
+    }
+
+    /**
+     * Create the standing of a player in a game mode
+     *
+     * @param entry      The entry of the player, carrying their rank
+     * @param neighbours The entries ranked around the player, including the player's own entry, ordered by rank
+     * @param total      The number of ranked players in the game mode
+     */
+    public LeaderboardStanding(LeaderboardEntry entry, List<LeaderboardEntry> neighbours, int total) {
+        this.entry = entry;
+        this.neighbours = neighbours;
+        this.total = total;
+    }
+
+    /**
+     * Equals method
+     *
+     * @param obj - Object that will be compared with this
+     * @return true if this and obj are equal
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return EqualsBuilder.reflectionEquals(this, obj);
+    }
+
+    /**
+     * Hashcode method
+     *
+     * @return the hashcode of the standing
+     */
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+
+    /**
+     * ToString method
+     *
+     * @return String containing the standing in a readable format
+     */
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, MULTI_LINE_STYLE);
+    }
+}
@@ -0,0 +1,84 @@
+package commons;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import static org.apache.commons.lang3.builder.ToStringStyle.MULTI_LINE_STYLE;
+
+@Entity
+@Table(indexes = @Index(name = "idx_match_result_finished_at", columnList = "finishedAt"))
+public class MatchResult {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    public long id;
+
+    public long playerId;
+    public String username;
+    public String mode;
+    public int score;
+    public long finishedAt;
+
+    /**
+     * Empty constructor
+     */
+    @SuppressWarnings("unused")
+    public MatchResult() {
+        // for object mapper
+    }
+
+    /**
+     * Constructor method for MatchResult
+     *
+     * @param playerId   - id of the player that finished the game
+     * @param username   - username of the player at the time of the game
+     * @param mode       - name of the game mode, e.g. "single"
+     * @param score      - score the player reached in the game
+     * @param finishedAt - time in milliseconds since the epoch at which the game ended
+     */
+    public MatchResult(long playerId, String username, String mode, int score, long finishedAt) {
+        this.playerId = playerId;
+        this.username = username;
+        this.mode = mode;
+        this.score = score;
+        this.finishedAt = finishedAt;
+    }
+
+    /**
+     * Equals method
+     *
+     * @param obj - Object that will be compared with this
+     * @return true if this and obj are equal
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return EqualsBuilder.reflectionEquals(this, obj);
+    }
+
+    /**
+     * Hashcode method
+     *
+     * @return the hashcode of the match result
+     */
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+
+    /**
+     * ToString method
+     *
+     * @return String containing the match result in a readable format
+     */
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, MULTI_LINE_STYLE);
+    }
+}
@@ -11,7 +11,9 @@ import java.util.Map;
 
 import static org.apache.commons.lang3.builder.ToStringStyle.MULTI_LINE_STYLE;
 
+// Databases with duplicate usernames must be cleaned up before this index can be created, see the README
 @Entity
+@Table(indexes = @Index(name = "idx_player_username", columnList = "username", unique = true))
 public class Player {
 
     private static final String[] JOKER_NAMES = { "DecreaseTimeJoker", "DoublePointsJoker", "RemoveOneAnswerJoker" };
@@ -0,0 +1,83 @@
+package commons;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import static org.apache.commons.lang3.builder.ToStringStyle.MULTI_LINE_STYLE;
+
+@Entity
+@Table(indexes = @Index(name = "idx_score_mode_best", columnList = "mode, best DESC, playerId"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_score_player_mode", columnNames = {"playerId", "mode"}))
+public class Score {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    public long id;
+
+    public long playerId;
+    public String mode;
+    public int best;
+    public long achievedAt;
+
+    /**
+     * Empty constructor
+     */
+    @SuppressWarnings("unused")
+    public Score() {
+        // for object mapper
+    }
+
+    /**
+     * Constructor method for Score
+     *
+     * @param playerId   - id of the player the score belongs to
+     * @param mode       - name of the game mode of the score, e.g. "single"
+     * @param best       - best score of the player in the game mode
+     * @param achievedAt - time in milliseconds since the epoch at which the best score was reached
+     */
+    public Score(long playerId, String mode, int best, long achievedAt) {
+        this.playerId = playerId;
+        this.mode = mode;
+        this.best = best;
+        this.achievedAt = achievedAt;
+    }
+
+    /**
+     * Equals method
+     *
+     * @param obj - Object that will be compared with this
+     * @return true if this and obj are equal
+     */
+    @Override
+    public boolean equals(Object obj) {
+        return EqualsBuilder.reflectionEquals(this, obj);
+    }
+
+    /**
+     * Hashcode method
+     *
+     * @return the hashcode of the score
+     */
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+
+    /**
+     * ToString method
+     *
+     * @return String containing the score in a readable format
+     */
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, MULTI_LINE_STYLE);
+    }
+}
@@ -17,6 +17,15 @@ public class EmojiTest {
         Emoji e = new Emoji("test", Emoji.EmojiType.FUNNY);
         assertEquals("test", e.username);
         assertEquals(Emoji.EmojiType.FUNNY, e.emoji);
+        assertEquals(1, e.count);
+    }
+
+    @Test
+    public void testCountConstructor() {
+        Emoji e = new Emoji("test", Emoji.EmojiType.SAD, 3);
+        assertEquals("test", e.username);
+        assertEquals(Emoji.EmojiType.SAD, e.emoji);
+        assertEquals(3, e.count);
     }
 
     @Test
@@ -0,0 +1,95 @@
+package commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LeaderboardDeltaTest {
+    @Test
+    public void testEmptyConstructor() {
+        LeaderboardDelta d = new LeaderboardDelta();
+        assertNull(d.mode);
+        assertEquals(0L, d.version);
+        assertFalse(d.snapshot);
+        assertFalse(d.hasChanges());
+    }
+
+    @Test
+    public void testConstructor() {
+        LeaderboardDelta d = new LeaderboardDelta("single", 2L, false);
+        assertEquals("single", d.mode);
+        assertEquals(2L, d.version);
+        assertTrue(d.inserted.isEmpty());
+        assertTrue(d.moved.isEmpty());
+        assertTrue(d.removed.isEmpty());
+    }
+
+    @Test
+    public void testSnapshot() {
+        List<LeaderboardEntry> ranking = List.of(new LeaderboardEntry(1L, "a", 10, 0));
+        LeaderboardDelta d = LeaderboardDelta.snapshot("single", 3L, ranking);
+
+        assertTrue(d.snapshot);
+        assertTrue(d.hasChanges());
+        assertEquals(ranking, d.inserted);
+    }
+
+    @Test
+    public void testApplySnapshot() {
+        List<LeaderboardEntry> ranking = new ArrayList<>(List.of(new LeaderboardEntry(5L, "old", 1, 0)));
+        List<LeaderboardEntry> expected = List.of(new LeaderboardEntry(1L, "a", 10, 0));
+        LeaderboardDelta.snapshot("single", 1L, expected).applyTo(ranking);
+
+        assertEquals(expected, ranking);
+    }
+
+    @Test
+    public void testApplyTo() {
+        LeaderboardEntry a = new LeaderboardEntry(1L, "a", 30, 0);
+        LeaderboardEntry b = new LeaderboardEntry(2L, "b", 20, 1);
+        LeaderboardEntry c = new LeaderboardEntry(3L, "c", 10, 2);
+        List<LeaderboardEntry> ranking = new ArrayList<>(List.of(a, b, c));
+
+        LeaderboardDelta d = new LeaderboardDelta("single", 2L, false);
+        d.moved.add(new LeaderboardEntry(3L, "c", 40, 0));
+        d.inserted.add(new LeaderboardEntry(4L, "d", 25, 2));
+        d.removed.add(2L);
+        d.applyTo(ranking);
+
+        assertEquals(List.of(3L, 1L, 4L), ranking.stream().map(e -> e.playerId).toList());
+        assertEquals(40, ranking.get(0).score);
+    }
+
+    @Test
+    public void testEquals() {
+        LeaderboardDelta d1 = new LeaderboardDelta("single", 1L, false);
+        LeaderboardDelta d2 = new LeaderboardDelta("single", 1L, false);
+        LeaderboardDelta d3 = new LeaderboardDelta("multi", 1L, false);
+
+        assertEquals(d1, d1);
+        assertEquals(d1, d2);
+        assertNotEquals(d3, d1);
+    }
+
+    @Test
+    public void testHashCode() {
+        LeaderboardDelta d1 = new LeaderboardDelta("single", 1L, false);
+        LeaderboardDelta d2 = new LeaderboardDelta("single", 1L, false);
+
+        assertEquals(d1.hashCode(), d1.hashCode());
+        assertEquals(d1.hashCode(), d2.hashCode());
+    }
+
+    @Test
+    public void testToString() {
+        LeaderboardDelta d1 = new LeaderboardDelta("single", 1L, false);
+        String result = d1.toString();
+
+        assertTrue(result.contains(LeaderboardDelta.class.getSimpleName()));
+        assertTrue(result.contains("mode=single"));
+        assertTrue(result.contains("version=1"));
+    }
+}
@@ -0,0 +1,66 @@
+package commons;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LeaderboardEntryTest {
+    @Test
+    public void testEmptyConstructor() {
+        LeaderboardEntry e = new LeaderboardEntry();
+        assertEquals(0L, e.playerId);
+        assertNull(e.username);
+        assertEquals(0, e.score);
+        assertEquals(0, e.rank);
+    }
+
+    @Test
+    public void testConstructor() {
+        LeaderboardEntry e = new LeaderboardEntry(1L, "test", 10, 2);
+        assertEquals(1L, e.playerId);
+        assertEquals("test", e.getUsername());
+        assertEquals(10, e.getScore());
+        assertEquals(2, e.rank);
+    }
+
+    @Test
+    public void testSameStanding() {
+        LeaderboardEntry e1 = new LeaderboardEntry(1L, "test", 10, 0);
+        LeaderboardEntry e2 = new LeaderboardEntry(1L, "test", 10, 3);
+        LeaderboardEntry e3 = new LeaderboardEntry(1L, "test", 20, 0);
+
+        assertTrue(e1.sameStanding(e2));
+        assertFalse(e1.sameStanding(e3));
+        assertFalse(e1.sameStanding(null));
+    }
+
+    @Test
+    public void testEquals() {
+        LeaderboardEntry e1 = new LeaderboardEntry(1L, "test", 10);
+        LeaderboardEntry e2 = new LeaderboardEntry(1L, "test", 10);
+        LeaderboardEntry e3 = new LeaderboardEntry(2L, "test2", 10);
+
+        assertEquals(e1, e1);
+        assertEquals(e1, e2);
+        assertNotEquals(e3, e1);
+    }
+
+    @Test
+    public void testHashCode() {
+        LeaderboardEntry e1 = new LeaderboardEntry(1L, "test", 10);
+        LeaderboardEntry e2 = new LeaderboardEntry(1L, "test", 10);
+
+        assertEquals(e1.hashCode(), e1.hashCode());
+        assertEquals(e1.hashCode(), e2.hashCode());
+    }
+
+    @Test
+    public void testToString() {
+        LeaderboardEntry e1 = new LeaderboardEntry(1L, "test", 10);
+        String result = e1.toString();
+
+        assertTrue(result.contains(LeaderboardEntry.class.getSimpleName()));
+        assertTrue(result.contains("username=test"));
+        assertTrue(result.contains("score=10"));
+    }
+}
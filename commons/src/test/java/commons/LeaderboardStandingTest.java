@@ -0,0 +1,55 @@
+package commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LeaderboardStandingTest {
+    @Test
+    public void testEmptyConstructor() {
+        LeaderboardStanding s = new LeaderboardStanding();
+        assertNull(s.entry);
+        assertEquals(List.of(), s.neighbours);
+        assertEquals(0, s.total);
+    }
+
+    @Test
+    public void testConstructor() {
+        LeaderboardEntry e = new LeaderboardEntry(1L, "test", 10, 1);
+        LeaderboardEntry above = new LeaderboardEntry(2L, "test2", 20, 0);
+        LeaderboardStanding s = new LeaderboardStanding(e, List.of(above, e), 5);
+        assertEquals(e, s.entry);
+        assertEquals(List.of(above, e), s.neighbours);
+        assertEquals(5, s.total);
+    }
+
+    @Test
+    public void testEquals() {
+        LeaderboardEntry e = new LeaderboardEntry(1L, "test", 10, 1);
+        LeaderboardStanding s1 = new LeaderboardStanding(e, List.of(e), 2);
+        LeaderboardStanding s2 = new LeaderboardStanding(e, List.of(e), 2);
+        LeaderboardStanding s3 = new LeaderboardStanding(e, List.of(e), 3);
+
+        assertEquals(s1, s2);
+        assertNotEquals(s1, s3);
+    }
+
+    @Test
+    public void testHashCode() {
+        LeaderboardEntry e = new LeaderboardEntry(1L, "test", 10, 1);
+        LeaderboardStanding s1 = new LeaderboardStanding(e, List.of(e), 2);
+        LeaderboardStanding s2 = new LeaderboardStanding(e, List.of(e), 2);
+
+        assertEquals(s1.hashCode(), s2.hashCode());
+    }
+
+    @Test
+    public void testToString() {
+        LeaderboardStanding s = new LeaderboardStanding(new LeaderboardEntry(1L, "test", 10, 1), List.of(), 2);
+        String str = s.toString();
+        assertTrue(str.contains("test"));
+        assertTrue(str.contains("total"));
+    }
+}
@@ -0,0 +1,47 @@
+package commons;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchResultTest {
+
+    @Test
+    public void checkEmptyConstructor() {
+        MatchResult r = new MatchResult();
+        assertEquals(0L, r.playerId);
+        assertNull(r.username);
+        assertNull(r.mode);
+        assertEquals(0, r.score);
+        assertEquals(0L, r.finishedAt);
+    }
+
+    @Test
+    public void checkConstructor() {
+        var r = new MatchResult(1L, "test", "single", 42, 1000L);
+        assertEquals(1L, r.playerId);
+        assertEquals("test", r.username);
+        assertEquals("single", r.mode);
+        assertEquals(42, r.score);
+        assertEquals(1000L, r.finishedAt);
+    }
+
+    @Test
+    public void equalsHashCode() {
+        var a = new MatchResult(1L, "test", "single", 42, 1000L);
+        var b = new MatchResult(1L, "test", "single", 42, 1000L);
+        var c = new MatchResult(1L, "test", "single", 42, 2000L);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, c);
+    }
+
+    @Test
+    public void hasToString() {
+        var actual = new MatchResult(1L, "test", "single", 42, 1000L).toString();
+        assertTrue(actual.contains(MatchResult.class.getSimpleName()));
+
+        assertTrue(actual.contains("username=test"));
+        assertTrue(actual.contains("score=42"));
+    }
+}
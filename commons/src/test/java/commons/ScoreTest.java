@@ -0,0 +1,46 @@
+package commons;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreTest {
+
+    @Test
+    public void checkEmptyConstructor() {
+        Score s = new Score();
+        assertEquals(0L, s.playerId);
+        assertNull(s.mode);
+        assertEquals(0, s.best);
+        assertEquals(0L, s.achievedAt);
+    }
+
+    @Test
+    public void checkConstructor() {
+        var s = new Score(1L, "single", 42, 1000L);
+        assertEquals(1L, s.playerId);
+        assertEquals("single", s.mode);
+        assertEquals(42, s.best);
+        assertEquals(1000L, s.achievedAt);
+    }
+
+    @Test
+    public void equalsHashCode() {
+        var a = new Score(1L, "single", 42, 1000L);
+        var b = new Score(1L, "single", 42, 1000L);
+        var c = new Score(1L, "multi", 42, 1000L);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, c);
+    }
+
+    @Test
+    public void hasToString() {
+        var actual = new Score(1L, "single", 42, 1000L).toString();
+        assertTrue(actual.contains(Score.class.getSimpleName()));
+
+        assertTrue(actual.contains("playerId=1"));
+        assertTrue(actual.contains("mode=single"));
+        assertTrue(actual.contains("best=42"));
+    }
+}
@@ -17,14 +17,28 @@ package server;
 
 import java.util.Random;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import server.database.PlayerRepository;
+import server.database.ScoreRepository;
+import server.service.BroadcastEncoder;
+import server.service.EmojiAggregator;
+import server.service.LeaderboardFeed;
+import server.service.LeaderboardIndex;
+import server.service.PlayerCache;
+import server.service.ScoreStore;
+import server.service.ScoreWriteBuffer;
 import server.service.SessionManager;
+import server.service.WindowedLeaderboards;
 
 @Configuration
 public class Config {
 
+    private static final int SCHEDULER_POOL_SIZE = 2;
+
     /**
      * Utility method to check if the provided id is invalid for the game session repo.
      *
@@ -55,6 +69,103 @@ public class Config {
         return new SessionManager();
     }
 
+    /**
+     * Configure the feed of published leaderboard rankings used for controllers autowiring.
+     *
+     * @return a new LeaderboardFeed
+     */
+    @Bean
+    public LeaderboardFeed createLeaderboardFeed() {
+        return new LeaderboardFeed();
+    }
+
+    /**
+     * Configure the in-memory leaderboard rankings used for controllers autowiring.
+     *
+     * @return a new LeaderboardIndex
+     */
+    @Bean
+    public LeaderboardIndex createLeaderboardIndex() {
+        return new LeaderboardIndex();
+    }
+
+    /**
+     * Configure the cache of players looked up by username used for controllers autowiring.
+     *
+     * @return a new PlayerCache
+     */
+    @Bean
+    public PlayerCache createPlayerCache() {
+        return new PlayerCache(PlayerCache.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Configure the store of best scores used for controllers autowiring.
+     *
+     * @param playerRepo the repository of players
+     * @param scoreRepo  the repository of best scores per game mode
+     * @return a new ScoreStore
+     */
+    @Bean
+    public ScoreStore createScoreStore(PlayerRepository playerRepo, ScoreRepository scoreRepo) {
+        return new ScoreStore(playerRepo, scoreRepo);
+    }
+
+    /**
+     * Configure the queue of best scores and match results waiting to be written used for controllers autowiring.
+     *
+     * @return a new ScoreWriteBuffer
+     */
+    @Bean
+    public ScoreWriteBuffer createScoreWriteBuffer() {
+        return new ScoreWriteBuffer();
+    }
+
+    /**
+     * Configure the rankings of the rolling time windows used for controllers autowiring.
+     *
+     * @return a new WindowedLeaderboards
+     */
+    @Bean
+    public WindowedLeaderboards createWindowedLeaderboards() {
+        return new WindowedLeaderboards();
+    }
+
+    /**
+     * Configure the encoder of broadcast payloads used for controllers autowiring.
+     *
+     * @param mapper the object mapper configured by Spring
+     * @return a new BroadcastEncoder
+     */
+    @Bean
+    public BroadcastEncoder createBroadcastEncoder(ObjectMapper mapper) {
+        return new BroadcastEncoder(mapper);
+    }
+
+    /**
+     * Configure the aggregator of emoji reactions used for controllers autowiring.
+     *
+     * @return a new EmojiAggregator
+     */
+    @Bean
+    public EmojiAggregator createEmojiAggregator() {
+        return new EmojiAggregator();
+    }
+
+    /**
+     * Configure the scheduler running the scheduled jobs, i.e. the emoji tick and the score flush. Scheduling uses
+     * the bean named taskScheduler, so the jobs do not share the message broker's heartbeat scheduler.
+     *
+     * @return a new ThreadPoolTaskScheduler, initialized by Spring
+     */
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(SCHEDULER_POOL_SIZE);
+        scheduler.setThreadNamePrefix("scheduled-");
+        return scheduler;
+    }
+
     /**
      * Configure a random object used for controllers autowiring.
      *
@@ -1,15 +1,94 @@
 package server;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import server.service.WebsocketMetrics;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebsocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final ThreadPoolTaskExecutor inboundExecutor;
+    private final ThreadPoolTaskExecutor outboundExecutor;
+    private final WebsocketMetrics metrics;
+    private final long heartbeatMillis;
+    private final int sendTimeLimit;
+    private final int sendBufferSizeLimit;
+    private final int messageSizeLimit;
+    private TaskScheduler heartbeatScheduler;
+
+    /**
+     * Configure the websocket message broker. Every limit can be overridden in application.properties.
+     *
+     * @param poolSize            number of threads handling incoming and outgoing messages, per channel
+     * @param queueCapacity       number of messages a channel can queue before rejecting new ones
+     * @param heartbeatMillis     interval between heartbeats exchanged with clients
+     * @param sendTimeLimit       time in milliseconds a send to a single client may take
+     * @param sendBufferSizeLimit number of bytes that may be buffered for a single slow client
+     * @param messageSizeLimit    maximum size in bytes of an incoming message
+     */
+    public WebsocketConfig(@Value("${websocket.channel.pool-size:4}") int poolSize,
+                           @Value("${websocket.channel.queue-capacity:1000}") int queueCapacity,
+                           @Value("${websocket.heartbeat-millis:10000}") long heartbeatMillis,
+                           @Value("${websocket.send-time-limit:5000}") int sendTimeLimit,
+                           @Value("${websocket.send-buffer-size-limit:262144}") int sendBufferSizeLimit,
+                           @Value("${websocket.message-size-limit:16384}") int messageSizeLimit) {
+        this.inboundExecutor = channelExecutor("ws-inbound-", poolSize, queueCapacity);
+        this.outboundExecutor = channelExecutor("ws-outbound-", poolSize, queueCapacity);
+        this.metrics = new WebsocketMetrics(inboundExecutor, outboundExecutor);
+        // A full channel makes the thread handing over a message run it itself. On the inbound channel that is the
+        // thread reading from the sending client, which slows down only that client, and outbound sends are bounded
+        // by the send time and buffer limits. Either way no message is dropped, and every rejection is counted.
+        inboundExecutor.setRejectedExecutionHandler(
+                metrics.countRejections(true, new ThreadPoolExecutor.CallerRunsPolicy()));
+        outboundExecutor.setRejectedExecutionHandler(
+                metrics.countRejections(false, new ThreadPoolExecutor.CallerRunsPolicy()));
+        this.heartbeatMillis = heartbeatMillis;
+        this.sendTimeLimit = sendTimeLimit;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.messageSizeLimit = messageSizeLimit;
+    }
+
+    /**
+     * Use the broker's own task scheduler to send heartbeats. It is injected lazily, as it is created by the broker
+     * configuration this class takes part in. Scheduled jobs run on a scheduler of their own, so they never delay
+     * heartbeats.
+     *
+     * @param taskScheduler the message broker task scheduler
+     */
+    @Autowired
+    public void setHeartbeatScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler) {
+        this.heartbeatScheduler = taskScheduler;
+    }
+
+    /**
+     * Configure the metrics of the websocket channels used for controllers autowiring.
+     *
+     * @return the WebsocketMetrics of this configuration
+     */
+    @Bean
+    public WebsocketMetrics websocketMetrics() {
+        return metrics;
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Initial point of contact to connect to the websocket server
@@ -19,9 +98,70 @@ public class WebsocketConfig implements WebSocketMessageBrokerConfigurer {
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         // Endpoint to which incoming messages can be published
-        registry.enableSimpleBroker("/updates");
+        registry.enableSimpleBroker("/updates")
+                .setHeartbeatValue(new long[]{heartbeatMillis, heartbeatMillis})
+                .setTaskScheduler(heartbeatScheduler);
 
         // Endpoint prefix for incoming websocket messages e.g. /app/emoji/send
         registry.setApplicationDestinationPrefixes("/app");
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(inboundExecutor);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(outboundExecutor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Clients that cannot keep up within these limits are disconnected instead of backing up the outbound queue
+        registration.setSendTimeLimit(sendTimeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(this::trackSessions);
+    }
+
+    /**
+     * Decorate a websocket handler so that opened and dropped sessions are counted
+     *
+     * @param handler the handler to decorate
+     * @return the decorated handler
+     */
+    private WebSocketHandler trackSessions(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                metrics.sessionOpened();
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+                metrics.sessionClosed(CloseStatus.SESSION_NOT_RELIABLE.equals(status));
+                super.afterConnectionClosed(session, status);
+            }
+        };
+    }
+
+    /**
+     * Create a bounded executor for a client channel
+     *
+     * @param prefix        the name prefix of the executor's threads
+     * @param poolSize      the number of threads of the executor
+     * @param queueCapacity the number of tasks the executor can queue
+     * @return a new ThreadPoolTaskExecutor, initialized by Spring once registered
+     */
+    private static ThreadPoolTaskExecutor channelExecutor(String prefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(prefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
+    }
 }
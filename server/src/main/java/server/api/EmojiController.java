@@ -1,35 +1,55 @@
 package server.api;
 
 import commons.Emoji;
+import commons.GameSession;
 import commons.Player;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Controller;
+import server.service.EmojiAggregator;
+import server.service.SessionManager;
+
+import java.util.Optional;
 
 @Controller
 public class EmojiController {
-    private LeaderboardController leaderboard;
+    private final SessionManager sm;
+    private final EmojiAggregator aggregator;
+    private final SimpMessageSendingOperations messaging;
 
-    public EmojiController(LeaderboardController leaderboard) {
-        this.leaderboard = leaderboard;
+    public EmojiController(SessionManager sm, EmojiAggregator aggregator, SimpMessageSendingOperations messaging) {
+        this.sm = sm;
+        this.aggregator = aggregator;
+        this.messaging = messaging;
     }
 
     /**
-     * Send an emoji to the specified session
+     * Send an emoji to the specified session. The sender is looked up among the players of the session in memory,
+     * so sending an emoji never queries the database. Accepted emojis are published with the next batch.
      *
-     * @param emoji The emoji to publish to the session
-     * @return The emoji that is published to the session
+     * @param sessionId The id of the session to publish the emoji to
+     * @param playerId  The id of the player sending the emoji
+     * @param emoji     The emoji to publish to the session
      */
     @MessageMapping("/emoji/{sessionId}/send/{playerId}")
-    @SendTo("/updates/emoji/{sessionId}")
-    public Emoji sendEmoji(@DestinationVariable("playerId") long playerId, Emoji.EmojiType emoji) {
-        ResponseEntity<Player> playerInfo = leaderboard.getPlayerById(playerId);
-        if (playerInfo.getStatusCode() != HttpStatus.OK || playerInfo.getBody() == null) return null;
-        String username = playerInfo.getBody().username;
+    public void sendEmoji(@DestinationVariable("sessionId") long sessionId,
+                          @DestinationVariable("playerId") long playerId, Emoji.EmojiType emoji) {
+        if (!sm.isValid(sessionId)) return;
+        GameSession session = sm.getById(sessionId);
+        Optional<Player> player = session.players.stream().filter(p -> p.id == playerId).findFirst();
+        if (player.isEmpty()) return;
+
+        aggregator.offer(sessionId, playerId, player.get().username, emoji, System.currentTimeMillis());
+    }
 
-        return new Emoji(username, emoji);
+    /**
+     * Publish the emojis collected during the last tick, as one batch per session
+     */
+    @Scheduled(fixedRate = EmojiAggregator.TICK_MILLIS)
+    public void publishEmojis() {
+        aggregator.drain(System.currentTimeMillis())
+                .forEach((sessionId, batch) -> messaging.convertAndSend("/updates/emoji/" + sessionId, batch));
     }
 }
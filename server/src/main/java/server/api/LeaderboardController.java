@@ -1,37 +1,109 @@
 package server.api;
 
 import java.util.*;
-import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
+import java.util.function.LongFunction;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+import commons.LeaderboardDelta;
+import commons.LeaderboardEntry;
+import commons.LeaderboardStanding;
+import commons.MatchResult;
 import commons.Player;
 
-import org.springframework.data.util.Pair;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.*;
 
 import org.springframework.web.context.request.async.DeferredResult;
+import server.database.MatchResultRepository;
 import server.database.PlayerRepository;
+import server.database.ScoreRepository;
+import server.service.BroadcastEncoder;
+import server.service.LeaderboardFeed;
+import server.service.LeaderboardIndex;
+import server.service.PlayerCache;
+import server.service.ScoreStore;
+import server.service.ScoreWriteBuffer;
+import server.service.WindowedLeaderboards;
+import server.service.WindowedLeaderboards.Window;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import static server.Config.isNullOrEmpty;
+import static server.service.ScoreStore.GAME_MODES;
+import static server.service.ScoreStore.scoreOf;
 
 @SuppressWarnings("OptionalGetWithoutIsPresent")
 @RestController
 @RequestMapping("/api/leaderboard")
 public class LeaderboardController {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int LIVE_RANKING_SIZE = 100;
+    public static final int MAX_NEIGHBOURS = 25;
+    private static final int SEED_PAGE_SIZE = 1000;
+
     private final PlayerRepository repo;
+    private final ScoreRepository scoreRepo;
+    private final MatchResultRepository resultRepo;
+    private final LeaderboardFeed feed;
+    private final LeaderboardIndex index;
+    private final BroadcastEncoder encoder;
+    private final PlayerCache players;
+    private final ScoreStore scores;
+    private final ScoreWriteBuffer pendingScores;
+    private final WindowedLeaderboards windows;
     private boolean multiChangesToCommit = false;
+    private long lastFlush;
 
     /**
-     * @param por the repository of players
+     * @param por       the repository of players
+     * @param scoreRepo  the repository of best scores per game mode
+     * @param resultRepo the log of the results of finished games
+     * @param feed      the feed that versions the published rankings
+     * @param index     the in-memory ranking of every game mode
+     * @param encoder   the encoder of the updates sent to clients
+     * @param players   the cache of players looked up by username
+     * @param scores    the store writing best scores to the player and score tables together
+     * @param pendingScores the queue of score writes that were not flushed to the database yet
+     * @param windows   the rankings of the rolling time windows
      */
-    public LeaderboardController(PlayerRepository por) {
+    public LeaderboardController(PlayerRepository por, ScoreRepository scoreRepo, MatchResultRepository resultRepo,
+                                 LeaderboardFeed feed, LeaderboardIndex index, BroadcastEncoder encoder,
+                                 PlayerCache players, ScoreStore scores, ScoreWriteBuffer pendingScores,
+                                 WindowedLeaderboards windows) {
         this.repo = por;
+        this.scoreRepo = scoreRepo;
+        this.resultRepo = resultRepo;
+        this.feed = feed;
+        this.index = index;
+        this.encoder = encoder;
+        this.players = players;
+        this.scores = scores;
+        this.pendingScores = pendingScores;
+        this.windows = windows;
+        this.lastFlush = System.nanoTime();
+    }
+
+    /**
+     * Load the rankings of all game modes from the database at startup, so that leaderboard reads never have to.
+     * Scores of databases that predate the score table are migrated first. The rankings of the time windows are
+     * rebuilt from the games of the last season in the match result log.
+     */
+    @PostConstruct
+    public void seedRankings() {
+        scores.migrate(System.currentTimeMillis());
+        GAME_MODES.forEach(this::ensureSeeded);
+        replayResults();
     }
 
     /**
@@ -41,64 +113,119 @@ public class LeaderboardController {
      */
     @GetMapping(path = {"/"})
     public ResponseEntity<List<Player>> getAllPlayers() {
-        var list = repo.findAll();
-        return ResponseEntity.ok(list);
+        return ResponseEntity.ok(repo.findAll().stream().map(this::withPendingScores).collect(Collectors.toList()));
     }
 
     /**
-     * Deliver all Player data in the DB
-     * sorted by best single mode score, filtered all players with 0 score
+     * Deliver a page of the ranking of all players with a score in single mode, sorted by best score.
+     * Served from the in-memory ranking, without querying the database.
      *
-     * @return a list of all data about players in single mode
+     * @param limit      the maximum number of entries to return, {@value DEFAULT_PAGE_SIZE} if absent
+     * @param offset     the rank of the first entry to return, 0 if absent
+     * @param afterScore the score of the last entry of the previous page, to page by key instead of offset
+     * @param afterId    the player id of the last entry of the previous page, to page by key instead of offset
+     * @param window     the rolling time window to rank best scores in, day, week or season, all time if absent
+     * @return the requested leaderboard entries of single mode
      */
     @GetMapping(path = {"/single"})
-    public ResponseEntity<List<Player>> getPlayerSingleScores() {
-        var list = repo.findByOrderByBestSingleScoreDesc().stream()
-                .filter(player -> player.getBestSingleScore() != 0)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(list);
+    public ResponseEntity<List<LeaderboardEntry>> getPlayerSingleScores(
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer afterScore, @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) String window) {
+        return page("single", limit, offset, afterScore, afterId, window);
     }
 
     /**
-     * Deliver all Player data in the DB
-     * sorted by best time attack mode score, excluding all players with 0 score
+     * Deliver a page of the ranking of all players with a score in time attack mode, sorted by best score.
+     * Served from the in-memory ranking, without querying the database.
      *
-     * @return a list of all data about players for time attack mode
+     * @param limit      the maximum number of entries to return, {@value DEFAULT_PAGE_SIZE} if absent
+     * @param offset     the rank of the first entry to return, 0 if absent
+     * @param afterScore the score of the last entry of the previous page, to page by key instead of offset
+     * @param afterId    the player id of the last entry of the previous page, to page by key instead of offset
+     * @param window     the rolling time window to rank best scores in, day, week or season, all time if absent
+     * @return the requested leaderboard entries of time attack mode
      */
     @GetMapping(path = {"/timeAttack"})
-    public ResponseEntity<List<Player>> getPlayerTimeAttackScores() {
-        var list = repo.findByOrderByBestTimeAttackScoreDesc().stream()
-                .filter(player -> player.getBestTimeAttackScore() != 0)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(list);
+    public ResponseEntity<List<LeaderboardEntry>> getPlayerTimeAttackScores(
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer afterScore, @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) String window) {
+        return page("timeAttack", limit, offset, afterScore, afterId, window);
     }
 
     /**
-     * Deliver all player data in the DB
-     * sorted by best survival mode score, excluding all players with a 0 score
+     * Deliver a page of the ranking of all players with a score in survival mode, sorted by best score.
+     * Served from the in-memory ranking, without querying the database.
      *
-     * @return a list of all data about players for survival mode
+     * @param limit      the maximum number of entries to return, {@value DEFAULT_PAGE_SIZE} if absent
+     * @param offset     the rank of the first entry to return, 0 if absent
+     * @param afterScore the score of the last entry of the previous page, to page by key instead of offset
+     * @param afterId    the player id of the last entry of the previous page, to page by key instead of offset
+     * @param window     the rolling time window to rank best scores in, day, week or season, all time if absent
+     * @return the requested leaderboard entries of survival mode
      */
     @GetMapping(path = {"/survival"})
-    public ResponseEntity<List<Player>> getPlayerSurvivalScores() {
-        var list = repo.findByOrderByBestSurvivalScoreDesc().stream()
-                .filter(player -> player.getBestSurvivalScore() != 0)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(list);
+    public ResponseEntity<List<LeaderboardEntry>> getPlayerSurvivalScores(
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer afterScore, @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) String window) {
+        return page("survival", limit, offset, afterScore, afterId, window);
     }
 
     /**
-     * Deliver all Player data in the DB
-     * sorted by best multi mode score, filtered all players with 0 score
+     * Deliver a page of the ranking of all players with a score in multi mode, sorted by best score.
+     * Served from the in-memory ranking, without querying the database.
      *
-     * @return a list of all data about players in multi mode
+     * @param limit      the maximum number of entries to return, {@value DEFAULT_PAGE_SIZE} if absent
+     * @param offset     the rank of the first entry to return, 0 if absent
+     * @param afterScore the score of the last entry of the previous page, to page by key instead of offset
+     * @param afterId    the player id of the last entry of the previous page, to page by key instead of offset
+     * @param window     the rolling time window to rank best scores in, day, week or season, all time if absent
+     * @return the requested leaderboard entries of multi mode
      */
     @GetMapping(path = {"/multi"})
-    public ResponseEntity<List<Player>> getPlayerMultiScores() {
-        var list = repo.findByOrderByBestMultiScoreDesc().stream()
-                .filter(player -> player.getBestMultiScore() != 0)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(list);
+    public ResponseEntity<List<LeaderboardEntry>> getPlayerMultiScores(
+            @RequestParam(required = false) Integer limit, @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer afterScore, @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) String window) {
+        return page("multi", limit, offset, afterScore, afterId, window);
+    }
+
+    /**
+     * Deliver the rank and score of a player in a game mode, with the players ranked directly above and below.
+     * Works for any ranked player, not only those in the first pages of the leaderboard.
+     *
+     * @param mode     the game mode, e.g. single
+     * @param playerId the id of the player
+     * @param k        the number of neighbours to include on either side of the player, at most MAX_NEIGHBOURS
+     * @return the standing of the player, or not found if the player has no score in the game mode
+     */
+    @GetMapping("/{mode}/rank/{playerId}")
+    public ResponseEntity<LeaderboardStanding> getPlayerStanding(@PathVariable("mode") String mode,
+                                                                 @PathVariable("playerId") long playerId,
+                                                                 @RequestParam(defaultValue = "2") int k) {
+        if (!GAME_MODES.contains(mode) || k < 0 || k > MAX_NEIGHBOURS) return ResponseEntity.badRequest().build();
+        ensureSeeded(mode);
+        LeaderboardStanding standing = index.standing(mode, playerId, k);
+        if (standing == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(standing);
+    }
+
+    /**
+     * Deliver the share of ranked players in a game mode whose best score is below the given score, e.g. to tell a
+     * player which share of all players they beat. Estimated from a histogram of the game mode's best scores, so it
+     * takes the same time however many players are ranked.
+     *
+     * @param mode  the game mode, e.g. single
+     * @param score the score to compare with
+     * @return the percentage of ranked players with a lower best score, between 0 and 100
+     */
+    @GetMapping("/{mode}/percentile")
+    public ResponseEntity<Double> getPercentile(@PathVariable("mode") String mode, @RequestParam int score) {
+        if (!GAME_MODES.contains(mode)) return ResponseEntity.badRequest().build();
+        ensureSeeded(mode);
+        return ResponseEntity.ok(index.percentile(mode, score));
     }
 
     /**
@@ -112,7 +239,7 @@ public class LeaderboardController {
         if (id < 0 || !repo.existsById(id)) {
             return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(repo.findById(id).get());
+        return ResponseEntity.ok(withPendingScores(repo.findById(id).get()));
     }
 
     /**
@@ -123,8 +250,8 @@ public class LeaderboardController {
      */
     @GetMapping("/getByUsername/{username}")
     public ResponseEntity<Player> getPlayerByUsername(@PathVariable("username") String username) {
-        Optional<Player> result = repo.findAll().stream().filter(p -> p.username.equals(username)).findFirst();
-        return ResponseEntity.ok(result.orElse(null));
+        Optional<Player> result = players.get(username, repo::findByUsername);
+        return ResponseEntity.ok(result.map(this::withPendingScores).orElse(null));
     }
 
     /**
@@ -140,7 +267,9 @@ public class LeaderboardController {
             return ResponseEntity.badRequest().build();
         }
 
-        Player saved = repo.save(player);
+        Player saved = scores.save(player, System.currentTimeMillis());
+        players.evict(saved.username);
+        for (String mode : GAME_MODES) rank(mode, saved);
         return ResponseEntity.ok(saved);
     }
 
@@ -157,7 +286,7 @@ public class LeaderboardController {
         if (playerId < 0 || !repo.existsById(playerId)) return ResponseEntity.badRequest().build();
         Player updatedPlayer = repo.findById(playerId).get();
         updatedPlayer.currentPoints += points;
-        repo.save(updatedPlayer);
+        save(updatedPlayer);
         return ResponseEntity.ok(updatedPlayer);
     }
 
@@ -174,7 +303,7 @@ public class LeaderboardController {
         if (playerId < 0 || !repo.existsById(playerId)) return ResponseEntity.badRequest().build();
         Player updatedPlayer = repo.findById(playerId).get();
         updatedPlayer.currentPoints += points;
-        repo.save(updatedPlayer);
+        save(updatedPlayer);
         return ResponseEntity.ok(updatedPlayer);
     }
 
@@ -188,15 +317,8 @@ public class LeaderboardController {
     @PutMapping("/{id}/bestsinglescore")
     public ResponseEntity<Player> updateBestSingleScore(@PathVariable("id") long playerId,
                                                         @RequestBody int points) {
-        if (playerId < 0 || !repo.existsById(playerId)) return ResponseEntity.badRequest().build();
-        Player updatedPlayer = repo.findById(playerId).get();
-        if (points > updatedPlayer.getBestSingleScore()) {
-            updatedPlayer.setBestSingleScore(points);
-            updatedPlayer.setCurrentPoints(0);
-            repo.save(updatedPlayer);
-            listeners.forEach((k, l) -> l.accept(Pair.of("single", this.getPlayerSingleScores().getBody())));
-        }
-        return ResponseEntity.ok(updatedPlayer);
+        if (playerId < 0) return ResponseEntity.badRequest().build();
+        return updateBestScore("single", playerId, points);
     }
 
     /**
@@ -209,15 +331,8 @@ public class LeaderboardController {
     @PutMapping("/{id}/bestmultiscore")
     public ResponseEntity<Player> updateBestMultiScore(@PathVariable("id") long playerId,
                                                        @RequestBody int points) {
-        if (playerId < 0 || !repo.existsById(playerId)) return ResponseEntity.badRequest().build();
-        Player updatedPlayer = repo.findById(playerId).get();
-        if (points > updatedPlayer.getBestMultiScore()) {
-            updatedPlayer.setBestMultiScore(points);
-            updatedPlayer.setCurrentPoints(0);
-            repo.save(updatedPlayer);
-            multiChangesToCommit = true;
-        }
-        return ResponseEntity.ok(updatedPlayer);
+        if (playerId < 0) return ResponseEntity.badRequest().build();
+        return updateBestScore("multi", playerId, points);
     }
 
     /**
@@ -230,15 +345,8 @@ public class LeaderboardController {
     @PutMapping("/{id}/bestsurvivalscore")
     public ResponseEntity<Player> updateBestSurvivalScore(@PathVariable("id") long playerId,
                                                        @RequestBody int points) {
-        if (playerId < 0 || !repo.existsById(playerId)) return ResponseEntity.badRequest().build();
-        Player updatedPlayer = repo.findById(playerId).get();
-        if (points > updatedPlayer.getBestSurvivalScore()) {
-            updatedPlayer.setBestSurvivalScore(points);
-            updatedPlayer.setCurrentPoints(0);
-            repo.save(updatedPlayer);
-            listeners.forEach((k, l) -> l.accept(Pair.of("survival", this.getPlayerSurvivalScores().getBody())));
-        }
-        return ResponseEntity.ok(updatedPlayer);
+        if (playerId < 0) return ResponseEntity.badRequest().build();
+        return updateBestScore("survival", playerId, points);
     }
 
     /**
@@ -251,46 +359,287 @@ public class LeaderboardController {
     @PutMapping("/{id}/besttimeattackscore")
     public ResponseEntity<Player> updateBestTimeAttackScore(@PathVariable("id") long playerId,
                                                        @RequestBody int points) {
-        if (playerId < 0 || !repo.existsById(playerId)) return ResponseEntity.badRequest().build();
-        Player updatedPlayer = repo.findById(playerId).get();
-        if (points > updatedPlayer.getBestTimeAttackScore()) {
-            updatedPlayer.setBestTimeAttackScore(points);
-            updatedPlayer.setCurrentPoints(0);
-            repo.save(updatedPlayer);
-            listeners.forEach((k, l) -> l.accept(Pair.of("timeAttack", this.getPlayerTimeAttackScores().getBody())));
-        }
-        return ResponseEntity.ok(updatedPlayer);
+        if (playerId < 0) return ResponseEntity.badRequest().build();
+        return updateBestScore("timeAttack", playerId, points);
     }
 
-    Map<Object, Consumer<Pair<String, List<Player>>>> listeners = new HashMap<>();
+    Map<Object, BiConsumer<String, LongFunction<byte[]>>> listeners = new HashMap<>();
 
     /**
-     * Register client listener for leaderboard updates
+     * Register client listener for leaderboard updates. The client passes the version it has of every game mode's
+     * ranking as a query parameter named after the game mode, e.g. ?single=4&multi=2. Rankings the client does not
+     * know yet start at version 0.
      *
-     * @return DeferredResult that contains updates on leaderboard, if any
+     * @param versions The ranking versions known by the client
+     * @return DeferredResult that contains the deltas the client is missing, if any
      */
     @GetMapping("/updates")
-    public DeferredResult<ResponseEntity<List<Player>>> getLeaderboardUpdates() {
+    public DeferredResult<ResponseEntity<byte[]>> getLeaderboardUpdates(@RequestParam Map<String, String> versions) {
         var emptyContent = ResponseEntity.status(HttpStatus.NO_CONTENT).build();
-        var res = new DeferredResult<ResponseEntity<List<Player>>>(2000L, emptyContent);
+        var res = new DeferredResult<ResponseEntity<byte[]>>(2000L, emptyContent);
+
+        Map<String, Long> known = new HashMap<>();
+        List<LeaderboardDelta> missed = new ArrayList<>();
+        for (String mode : GAME_MODES) {
+            if (!feed.isSeeded(mode)) feed.publish(mode, ranking(mode));
+            known.put(mode, parseVersion(versions.get(mode)));
+            missed.addAll(feed.since(mode, known.get(mode)));
+        }
+        if (!missed.isEmpty()) {
+            res.setResult(BroadcastEncoder.toResponse(encoder.encode(missed), new HttpHeaders()));
+            return res;
+        }
 
         var k = new Object();
-        listeners.put(k, p -> {
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("X-gamemodeType", p.getFirst());
-            res.setResult(new ResponseEntity<List<Player>>(p.getSecond(), headers, HttpStatus.OK));
-        });
+        listeners.put(k, (mode, deltasSince) ->
+                res.setResult(BroadcastEncoder.toResponse(deltasSince.apply(known.get(mode)), new HttpHeaders())));
         res.onCompletion(() -> listeners.remove(k));
         return res;
     }
 
+    /**
+     * Record the score a player reached at the end of a game. The rankings are updated right away, while the
+     * database writes are queued and flushed together with the scores of other players by the scheduled flush, so
+     * the request thread never waits for the database.
+     * Every game counts towards the rankings of the time windows, even if it did not improve the player's best score.
+     *
+     * @param mode   The game mode of the score
+     * @param p      The player
+     * @param points The score the player reached
+     */
+    public void submitBestScore(String mode, Player p, int points) {
+        ensureSeeded(mode);
+        long now = System.currentTimeMillis();
+        windows.record(mode, p.id, p.username, points, now);
+        pendingScores.log(new MatchResult(p.id, p.username, mode, points, now));
+
+        boolean improved = index.raise(mode, p.id, p.username, points);
+        if (!improved) return;
+        pendingScores.submit(mode, p.id, p.username, points);
+        if (mode.equals("multi")) multiChangesToCommit = true;
+        else publishRanking(mode);
+    }
+
+    /**
+     * Flush the queued writes if the buffer is full or the last flush was {@value ScoreWriteBuffer#FLUSH_MILLIS}
+     * milliseconds ago. Runs on the scheduler every {@value ScoreWriteBuffer#CHECK_MILLIS} milliseconds, so a full
+     * buffer is written soon after it fills up without a request thread doing the write.
+     */
+    @Scheduled(fixedDelay = ScoreWriteBuffer.CHECK_MILLIS)
+    public synchronized void flushScoresIfDue() {
+        long sinceFlush = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastFlush);
+        if (pendingScores.isFull() || sinceFlush >= ScoreWriteBuffer.FLUSH_MILLIS) flushScores();
+    }
+
+    /**
+     * Write the queued best scores to the database, one transaction per game mode, and append the queued match
+     * results to the log. Runs when the scheduled flush is due, and once more on shutdown, before the database is
+     * closed.
+     */
+    @PreDestroy
+    public synchronized void flushScores() {
+        lastFlush = System.nanoTime();
+        List<MatchResult> results = pendingScores.drainResults();
+        if (!results.isEmpty()) resultRepo.saveAll(results);
+
+        for (String mode : GAME_MODES) {
+            List<ScoreWriteBuffer.PendingScore> queued = pendingScores.pending(mode);
+            if (queued.isEmpty()) continue;
+
+            Map<Long, Integer> byPlayer = new HashMap<>();
+            queued.forEach(s -> byPlayer.put(s.playerId(), s.score()));
+            scores.raise(mode, byPlayer, System.currentTimeMillis());
+            queued.forEach(s -> players.evict(s.username()));
+            pendingScores.written(mode, queued);
+        }
+    }
+
     /**
      * Informs clients of multiplayer best score changes once all transactions are committed
      */
     public void commitMultiplayerUpdates() {
         if (!multiChangesToCommit) return;
-        listeners.forEach((k, l) -> l.accept(Pair.of("multi", this.getPlayerMultiScores().getBody())));
+        publishRanking("multi");
         multiChangesToCommit = false;
     }
 
-}
\ No newline at end of file
+    /**
+     * Publish the current ranking of a game mode and inform clients if it changed. Listeners that know the same
+     * version need the same deltas, so those are serialized once per version and the bytes are shared.
+     *
+     * @param mode The game mode whose ranking changed
+     */
+    private void publishRanking(String mode) {
+        if (feed.publish(mode, ranking(mode)) == null) return;
+        Map<Long, byte[]> encoded = new HashMap<>();
+        LongFunction<byte[]> deltasSince = v -> encoded.computeIfAbsent(v, x -> encoder.encode(feed.since(mode, x)));
+        listeners.forEach((k, l) -> l.accept(mode, deltasSince));
+    }
+
+    /**
+     * Get the leaderboard entries of the best ranked players in the given game mode, which are pushed to clients
+     * whenever they change
+     *
+     * @param mode The game mode
+     * @return The leaderboard entries, sorted by descending score
+     */
+    private List<LeaderboardEntry> ranking(String mode) {
+        ensureSeeded(mode);
+        return index.top(mode, LIVE_RANKING_SIZE);
+    }
+
+    /**
+     * Get a page of the ranking of a game mode, either by offset or, if a key is given, after that key
+     *
+     * @param mode       The game mode
+     * @param limit      The maximum number of entries to return, or null for the default page size
+     * @param offset     The rank of the first entry to return, or null for 0
+     * @param afterScore The score of the entry to return the successors of, or null
+     * @param afterId    The player id of the entry to return the successors of, or null
+     * @param window     The name of the time window to rank, or null for the all time ranking
+     * @return The page of leaderboard entries, or a bad request if the parameters are invalid
+     */
+    private ResponseEntity<List<LeaderboardEntry>> page(String mode, Integer limit, Integer offset,
+                                                        Integer afterScore, Long afterId, String window) {
+        int size = (limit == null) ? DEFAULT_PAGE_SIZE : limit;
+        int start = (offset == null) ? 0 : offset;
+        boolean keyed = afterScore != null || afterId != null;
+        Window w = (window == null) ? null : Window.parse(window);
+        if (size <= 0 || size > MAX_PAGE_SIZE || start < 0 || (window != null && w == null)
+                || (keyed && (afterScore == null || afterId == null || start != 0))) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        ensureSeeded(mode);
+        LeaderboardIndex ranking = (w == null) ? index : windows.view(w, System.currentTimeMillis());
+        return ResponseEntity.ok(keyed
+                ? ranking.pageAfter(mode, afterScore, afterId, size)
+                : ranking.page(mode, start, size));
+    }
+
+    /**
+     * Raise a player's best score in a game mode. Rankings are only updated and broadcast if the conditional update
+     * actually raised the score.
+     *
+     * @param mode     The game mode of the score
+     * @param playerId The id of the player
+     * @param points   The new score
+     * @return The player, or a bad request if no player has the given id
+     */
+    private ResponseEntity<Player> updateBestScore(String mode, long playerId, int points) {
+        boolean improved = scores.raise(mode, Map.of(playerId, points), System.currentTimeMillis()) > 0;
+        Optional<Player> updatedPlayer = repo.findById(playerId);
+        if (updatedPlayer.isEmpty()) return ResponseEntity.badRequest().build();
+        Player p = withPendingScores(updatedPlayer.get());
+        if (improved) {
+            players.evict(p.username);
+            index.raise(mode, playerId, p.username, scoreOf(p, mode));
+            if (mode.equals("multi")) multiChangesToCommit = true;
+            else publishRanking(mode);
+        }
+        return ResponseEntity.ok(p);
+    }
+
+    /**
+     * Save a player and drop its cached copy, so that lookups by username see the change
+     *
+     * @param p The player to save
+     * @return The saved player
+     */
+    private Player save(Player p) {
+        Player saved = repo.save(p);
+        players.evict(saved.username);
+        return saved;
+    }
+
+    /**
+     * Update the ranking of a game mode with the best score of a player, which was written to the database already
+     *
+     * @param mode The game mode of the score
+     * @param p    The player whose best score changed
+     */
+    private void rank(String mode, Player p) {
+        ensureSeeded(mode);
+        index.update(mode, p.id, p.username, scoreOf(p, mode));
+    }
+
+    /**
+     * Load the ranking of a game mode from the score table, if that was not done yet. Only players with a score are
+     * fetched, one page at a time, reading each page straight from the (mode, best, playerId) index.
+     *
+     * @param mode The game mode
+     */
+    private void ensureSeeded(String mode) {
+        index.ensureSeeded(mode, () -> {
+            List<LeaderboardEntry> entries = new ArrayList<>();
+            for (int page = 0; ; ++page) {
+                List<LeaderboardEntry> ranking = scoreRepo.findRanking(mode, PageRequest.of(page, SEED_PAGE_SIZE));
+                entries.addAll(ranking);
+                if (ranking.size() < SEED_PAGE_SIZE) return entries;
+            }
+        });
+    }
+
+    /**
+     * Rebuild the rankings of the time windows from the match result log. Only games of the longest window are read,
+     * one page at a time, oldest first.
+     */
+    private void replayResults() {
+        long since = System.currentTimeMillis() - Window.SEASON.getLengthMillis();
+        for (int page = 0; ; ++page) {
+            List<MatchResult> results = resultRepo.findByFinishedAtGreaterThanEqualOrderByFinishedAt(since,
+                    PageRequest.of(page, SEED_PAGE_SIZE));
+            results.forEach(r -> windows.record(r.mode, r.playerId, r.username, r.score, r.finishedAt));
+            if (results.size() < SEED_PAGE_SIZE) return;
+        }
+    }
+
+    /**
+     * Apply the queued best scores of a player, so that reads see scores that were not written yet. The player may be
+     * shared through the player cache or still be managed by JPA, so the scores are applied to a copy.
+     *
+     * @param p The player as loaded from the database
+     * @return The same player if it has no queued scores, otherwise a copy with its queued best scores applied
+     */
+    private Player withPendingScores(Player p) {
+        Player applied = p;
+        for (String mode : GAME_MODES) {
+            Optional<Integer> pending = pendingScores.get(mode, p.id).filter(s -> s > scoreOf(p, mode));
+            if (pending.isEmpty()) continue;
+            if (applied == p) applied = copyOf(p);
+            ScoreStore.setScore(applied, mode, pending.get());
+            applied.setCurrentPoints(0);
+        }
+        return applied;
+    }
+
+    /**
+     * Copy the stored fields of a player
+     *
+     * @param p The player to copy
+     * @return A new player with the same id, username and scores
+     */
+    private static Player copyOf(Player p) {
+        Player copy = new Player(p.username, 0);
+        copy.id = p.id;
+        copy.ans = p.ans;
+        copy.setCurrentPoints(p.currentPoints);
+        for (String mode : GAME_MODES) ScoreStore.setScore(copy, mode, scoreOf(p, mode));
+        return copy;
+    }
+
+    /**
+     * Parse a ranking version sent by a client
+     *
+     * @param version The version as sent in the request
+     * @return The parsed version, or 0 if the client did not send a valid one
+     */
+    private static long parseVersion(String version) {
+        try {
+            return (version == null) ? 0L : Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+}
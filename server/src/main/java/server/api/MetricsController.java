@@ -0,0 +1,31 @@
+package server.api;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import server.service.WebsocketMetrics;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("api/metrics")
+public class MetricsController {
+
+    private final WebsocketMetrics websocketMetrics;
+
+    public MetricsController(WebsocketMetrics websocketMetrics) {
+        this.websocketMetrics = websocketMetrics;
+    }
+
+    /**
+     * Get the metrics of the websocket message broker
+     *
+     * @return The number of open and dropped sessions, and the queue depths and rejected messages of the client
+     * channels
+     */
+    @GetMapping("/websocket")
+    public ResponseEntity<Map<String, Long>> getWebsocketMetrics() {
+        return ResponseEntity.ok(websocketMetrics.snapshot());
+    }
+}
@@ -1,6 +1,7 @@
 package server.api;
 
 import commons.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -9,6 +10,7 @@ import javax.imageio.ImageIO;
 import javax.servlet.http.HttpServletRequest;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.util.List;
 
@@ -137,29 +139,48 @@ public class QuestionController {
     }
 
     /**
-     * Fetches the images for the corresponding path.
+     * Fetches the images for the corresponding path. Every image carries an ETag, so that clients that cached it can
+     * revalidate their copy instead of downloading it again.
      *
-     * @param req The path of the image.
-     * @return The BufferedImage.
+     * @param req         The path of the image.
+     * @param ifNoneMatch The ETag of the copy the client has cached, if any
+     * @return The BufferedImage, or 304 if the client's copy is still current
      */
     @RequestMapping(path = "/image/**", method = RequestMethod.GET)
-    public byte[] fetchImage(HttpServletRequest req) {
+    public ResponseEntity<byte[]> fetchImage(HttpServletRequest req,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                             String ifNoneMatch) {
         BufferedImage image;
         try {
             String url = ActivityController.ASSET_DIR + req.getRequestURL().toString().split("/image/")[1];
-            image = ImageIO.read(new FileInputStream(url));
+            File file = new File(url);
+            if (!file.isFile()) return ResponseEntity.ok().build();
+            String etag = imageTag(file);
+            if (etag.equals(ifNoneMatch)) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+
+            image = ImageIO.read(new FileInputStream(file));
             ByteArrayOutputStream baos = new ByteArrayOutputStream();
             String[] urlParts = url.split("\\.");
             String extension = urlParts[urlParts.length - 1];
             switch (extension) {
                 case "jpg", "png", "jpeg" -> {
                     ImageIO.write(image, extension, baos);
-                    return baos.toByteArray();
+                    return ResponseEntity.ok().eTag(etag).body(baos.toByteArray());
                 }
                 default -> throw new UnsupportedOperationException("Unsupported filetype");
             }
         } catch (Exception e) {
-            return null;
+            return ResponseEntity.ok().build();
         }
     }
+
+    /**
+     * Compute the ETag of an image file. It changes whenever the file is replaced, e.g. when an activity is edited.
+     *
+     * @param file The image file
+     * @return The quoted ETag of the file's current version
+     */
+    static String imageTag(File file) {
+        return "\"" + Long.toHexString(file.lastModified()) + "-" + Long.toHexString(file.length()) + "\"";
+    }
 }
@@ -4,6 +4,7 @@ import commons.GameSession;
 import commons.Joker;
 import commons.Player;
 import commons.Question;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.util.Pair;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -11,9 +12,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.async.DeferredResult;
 import server.database.PlayerRepository;
+import server.service.BroadcastEncoder;
+import server.service.PlayerCache;
 import server.service.QuestionGenerator;
 import server.service.SessionManager;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -33,14 +38,19 @@ public class SessionController {
     private final Random random;
     private final ActivityController activityCtrl;
     private final LeaderboardController leaderboardCtrl;
+    private final BroadcastEncoder encoder;
+    private final PlayerCache players;
 
     public SessionController(Random random, PlayerRepository repo, String controllerConfig, SessionManager sm,
-                             ActivityController activityCtrl, LeaderboardController leaderboardCtrl) {
+                             ActivityController activityCtrl, LeaderboardController leaderboardCtrl,
+                             BroadcastEncoder encoder, PlayerCache players) {
         this.random = random;
         this.repo = repo;
         this.sm = sm;
         this.activityCtrl = activityCtrl;
         this.leaderboardCtrl = leaderboardCtrl;
+        this.encoder = encoder;
+        this.players = players;
         if (!controllerConfig.equals("test")) {
             sm.save(new GameSession(GameSession.SessionType.SELECTING));
         }
@@ -79,7 +89,7 @@ public class SessionController {
                 removeSession(session.id);
             }
             default -> {
-                for (Player p : session.players) leaderboardCtrl.updateBestMultiScore(p.id, p.currentPoints);
+                for (Player p : session.players) leaderboardCtrl.submitBestScore("multi", p, p.currentPoints);
                 leaderboardCtrl.commitMultiplayerUpdates();
 
                 session.setSessionStatus(GameSession.SessionStatus.PAUSED);
@@ -106,9 +116,9 @@ public class SessionController {
      */
     public void updateHighscore(Player p, GameSession.SessionType sessionType) {
         switch (sessionType) {
-            case SINGLEPLAYER -> leaderboardCtrl.updateBestSingleScore(p.id, p.currentPoints);
-            case SURVIVAL -> leaderboardCtrl.updateBestSurvivalScore(p.id, p.currentPoints);
-            case TIME_ATTACK -> leaderboardCtrl.updateBestTimeAttackScore(p.id, p.currentPoints);
+            case SINGLEPLAYER -> leaderboardCtrl.submitBestScore("single", p, p.currentPoints);
+            case SURVIVAL -> leaderboardCtrl.submitBestScore("survival", p, p.currentPoints);
+            case TIME_ATTACK -> leaderboardCtrl.submitBestScore("timeAttack", p, p.currentPoints);
         }
     }
 
@@ -186,6 +196,8 @@ public class SessionController {
     public void resetDatabase() {
         try (Connection CONN = DriverManager.getConnection("jdbc:h2:file:./quizzzz", "sa", "")) {
             Statement stmt = CONN.createStatement();
+            stmt.executeUpdate("DELETE FROM MATCH_RESULT");
+            stmt.executeUpdate("DELETE FROM SCORE");
             stmt.executeUpdate("DELETE FROM PLAYER");
             stmt.executeUpdate("DELETE FROM ACTIVITY");
             stmt.executeUpdate("ALTER SEQUENCE HIBERNATE_SEQUENCE RESTART WITH 1");
@@ -217,15 +229,14 @@ public class SessionController {
      * Adds a session to the DB
      *
      * @param session Session to be added
-     * @return ResponseEntity that contains the added session
+     * @return ResponseEntity that contains the added session, or a bad request if a new player's username is taken
      */
     @PostMapping(path = {"", "/"})
     public ResponseEntity<GameSession> addSession(@RequestBody GameSession session) {
 
         if (session.players == null) return ResponseEntity.badRequest().build();
         for (Player p : session.players) {
-            if (isNullOrEmpty(p.username)) return ResponseEntity.badRequest().build();
-            repo.save(p);
+            if (isNullOrEmpty(p.username) || !register(p)) return ResponseEntity.badRequest().build();
         }
         advanceRounds(session);
         GameSession saved = sm.save(session);
@@ -236,13 +247,13 @@ public class SessionController {
      * Adds a waiting area to the DB
      *
      * @param session Session to be added
-     * @return ResponseEntity that contains the added session
+     * @return ResponseEntity that contains the added session, or a bad request if a new player's username is taken
      */
     @PostMapping(path = {"/waiting"})
     public ResponseEntity<GameSession> addWaitingArea(@RequestBody GameSession session) {
-        repo.save(session.players.get(0));
+        if (!register(session.players.get(0))) return ResponseEntity.badRequest().build();
         GameSession saved = sm.save(session);
-        listenersSelectionRoom.forEach((k, l) -> l.accept(Pair.of("add", saved)));
+        broadcastSelectionRoom("add", saved);
         return ResponseEntity.ok(saved);
     }
 
@@ -261,15 +272,54 @@ public class SessionController {
     }
 
     /**
-     * Retrieves a session by the given id
+     * Retrieves a session by the given id for use on the server, e.g. by other controllers. Unlike the endpoint of
+     * clients, the session is neither encoded nor tagged.
      *
      * @param id id of session
-     * @return ResponseEntity that contains the retrieved session
+     * @return ResponseEntity that contains the retrieved session, or a bad request if there is no such session
+     */
+    public ResponseEntity<GameSession> getSessionById(long id) {
+        GameSession res = sm.getById(id);
+        if (res == null) return ResponseEntity.badRequest().build();
+        return ResponseEntity.ok(res);
+    }
+
+    /**
+     * Retrieves a session by the given id, unless the client's copy is still current. Clients poll the session of
+     * their game many times a second, and most polls find it unchanged. The session is encoded once, both to derive
+     * its ETag and as the body of the response.
+     *
+     * @param id          id of session
+     * @param ifNoneMatch The ETag of the client's copy of the session, if any
+     * @return ResponseEntity that contains the encoded session and its ETag, or 304 if the copy is still current
      */
     @GetMapping("/{id}")
-    public ResponseEntity<GameSession> getSessionById(@PathVariable("id") long id) {
+    public ResponseEntity<byte[]> getSessionIfModified(
+            @PathVariable("id") long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         GameSession res = sm.getById(id);
-        return (res == null) ? ResponseEntity.badRequest().build() : ResponseEntity.ok(res);
+        if (res == null) return ResponseEntity.badRequest().build();
+        byte[] encoded = encoder.encode(res);
+        String etag = sessionTag(encoded);
+        if (etag.equals(ifNoneMatch)) return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        return BroadcastEncoder.toResponse(encoded, headers);
+    }
+
+    /**
+     * Compute the ETag of a session from its JSON encoding, so that it changes whenever anything the client sees does
+     *
+     * @param encoded The JSON encoding of the session
+     * @return The quoted ETag of the session's current state
+     */
+    static String sessionTag(byte[] encoded) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(encoded);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
@@ -282,7 +332,7 @@ public class SessionController {
     public ResponseEntity<GameSession> removeSession(@PathVariable("id") long id) {
         GameSession removedSession = sm.delete(id);
         if (removedSession != null) {
-            listenersSelectionRoom.forEach((k, l) -> l.accept(Pair.of("remove", removedSession)));
+            broadcastSelectionRoom("remove", removedSession);
         }
         return ResponseEntity.ok(removedSession);
     }
@@ -388,7 +438,7 @@ public class SessionController {
             advanceRounds(session);
         }
         updateSession(session);
-        if (session.id != 1) listenersSelectionRoom.forEach((k, l) -> l.accept(Pair.of("update", session)));
+        if (session.id != 1) broadcastSelectionRoom("update", session);
         return ResponseEntity.ok(session);
     }
 
@@ -439,21 +489,21 @@ public class SessionController {
      *
      * @param id     id of game session
      * @param player Player object to be added
-     * @return ResponseEntity that contains the added player
+     * @return ResponseEntity that contains the added player, or a bad request if a new player's username is taken
      */
     @PostMapping("/{id}/players")
     public ResponseEntity<Player> addPlayer(@PathVariable("id") long id, @RequestBody Player player) {
         if (!sm.isValid(id)) return ResponseEntity.badRequest().build();
         GameSession session = sm.getById(id);
 
+        if (!register(player)) return ResponseEntity.badRequest().build();
         session.addPlayer(player);
-        repo.save(player);
         if (session.sessionType.equals(GameSession.SessionType.WAITING_AREA)) {
             listenersWaitingArea.forEach((k, l) -> {
                 if (k.getSecond().equals(session.id)) l.accept("addPlayer: " + player.username);
             });
         }
-        if (session.id != 1) listenersSelectionRoom.forEach((k, l) -> l.accept(Pair.of("update", session)));
+        if (session.id != 1) broadcastSelectionRoom("update", session);
         return ResponseEntity.ok(player);
     }
 
@@ -483,7 +533,7 @@ public class SessionController {
                     if (k.getSecond().equals(session.id)) l.accept("removePlayer: " + player.username);
                 });
             }
-            if (session.id != 1) listenersSelectionRoom.forEach((k, l) -> l.accept(Pair.of("update", session)));
+            if (session.id != 1) broadcastSelectionRoom("update", session);
         }
         return ResponseEntity.ok(player);
     }
@@ -585,24 +635,59 @@ public class SessionController {
         return ResponseEntity.ok(p.jokerStates);
     }
 
-    Map<Object, Consumer<Pair<String, GameSession>>> listenersSelectionRoom = new HashMap<>();
+    Map<Object, Consumer<Pair<String, byte[]>>> listenersSelectionRoom = new HashMap<>();
     Map<Pair<Object, Long>, Consumer<String>> listenersWaitingArea = new HashMap<>();
 
+    /**
+     * Store a player that joins a session for the first time. Players that already have an id only move between
+     * sessions, which is in-memory session state, so joins and transfers do not write to the database. Best scores
+     * are persisted by the leaderboard at the end of each game. Usernames are unique, so a new player cannot take the
+     * username of a stored player; clients look a username up first and join as the stored player instead.
+     *
+     * @param p The player joining a session
+     * @return false iff the player is new and its username is already taken
+     */
+    private boolean register(Player p) {
+        if (p.id != 0L) return true;
+        if (players.get(p.username, repo::findByUsername).isPresent()) return false;
+        try {
+            repo.save(p);
+        } catch (DataIntegrityViolationException e) {
+            // another request stored a player with the same username first
+            return false;
+        }
+        players.evict(p.username);
+        return true;
+    }
+
+    /**
+     * Inform selection room listeners of a change to a session. The session is serialized once and the same bytes are
+     * written to every listener.
+     *
+     * @param operation The operation that was performed on the session
+     * @param session   The session that changed
+     */
+    private void broadcastSelectionRoom(String operation, GameSession session) {
+        if (listenersSelectionRoom.isEmpty()) return;
+        byte[] encoded = encoder.encode(session);
+        listenersSelectionRoom.forEach((k, l) -> l.accept(Pair.of(operation, encoded)));
+    }
+
     /**
      * Register client listener for selection room updates
      *
      * @return DeferredResult that contains updates on selection room, if any
      */
     @GetMapping("/updates/selectionroom")
-    public DeferredResult<ResponseEntity<GameSession>> getSelectionRoomUpdates() {
+    public DeferredResult<ResponseEntity<byte[]>> getSelectionRoomUpdates() {
         var emptyContent = ResponseEntity.status(HttpStatus.NO_CONTENT).build();
-        var res = new DeferredResult<ResponseEntity<GameSession>>(1000L, emptyContent);
+        var res = new DeferredResult<ResponseEntity<byte[]>>(1000L, emptyContent);
 
         var k = new Object();
         listenersSelectionRoom.put(k, p -> {
             HttpHeaders headers = new HttpHeaders();
             headers.set("X-operation", p.getFirst());
-            res.setResult(new ResponseEntity<GameSession>(p.getSecond(), headers, HttpStatus.OK));
+            res.setResult(BroadcastEncoder.toResponse(p.getSecond(), headers));
         });
         res.onCompletion(() -> listenersSelectionRoom.remove(k));
         return res;
@@ -0,0 +1,18 @@
+package server.database;
+
+import commons.MatchResult;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface MatchResultRepository extends JpaRepository<MatchResult, Long> {
+    /**
+     * the JPA method to return a page of the games that ended at or after the given time, oldest first
+     *
+     * @param since    the time in milliseconds since the epoch from which to return games
+     * @param pageable the page to return
+     * @return a page of match results, ordered by the time the game ended
+     */
+    List<MatchResult> findByFinishedAtGreaterThanEqualOrderByFinishedAt(long since, Pageable pageable);
+}
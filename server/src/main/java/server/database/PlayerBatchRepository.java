@@ -0,0 +1,16 @@
+package server.database;
+
+import java.util.Map;
+import java.util.Set;
+
+public interface PlayerBatchRepository {
+    /**
+     * Raise the best scores of several players in a game mode with one JDBC batch of conditional updates. A score is
+     * only written if it beats the stored one, which also resets the player's current points.
+     *
+     * @param mode   the game mode of the scores
+     * @param scores the new best score of every player, by player id
+     * @return the ids of the players whose best score improved
+     */
+    Set<Long> raiseBestScores(String mode, Map<Long, Integer> scores);
+}
@@ -0,0 +1,66 @@
+package server.database;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class PlayerBatchRepositoryImpl implements PlayerBatchRepository {
+
+    private static final String RAISE_SQL = "UPDATE player SET %1$s = ?, current_points = 0 WHERE id = ? AND %1$s < ?";
+
+    private final JdbcTemplate jdbc;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Create the batched updates of the player table
+     *
+     * @param jdbc The JDBC template the batches are sent with
+     */
+    public PlayerBatchRepositoryImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Raise the best scores of several players in a game mode with one JDBC batch of conditional updates. Pending
+     * changes are flushed first and the persistence context is cleared afterwards, as the batch bypasses it.
+     *
+     * @param mode   the game mode of the scores
+     * @param scores the new best score of every player, by player id
+     * @return the ids of the players whose best score improved
+     */
+    @Override
+    @Transactional
+    public Set<Long> raiseBestScores(String mode, Map<Long, Integer> scores) {
+        Set<Long> raised = new HashSet<>();
+        if (scores.isEmpty()) return raised;
+        List<Long> ids = new ArrayList<>(scores.keySet());
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (long id : ids) args.add(new Object[]{scores.get(id), id, scores.get(id)});
+
+        em.flush();
+        int[] updated = jdbc.batchUpdate(String.format(RAISE_SQL, column(mode)), args);
+        em.clear();
+        // drivers that do not report the rows of a batch entry return a negative count, so count those as raised
+        for (int i = 0; i < updated.length; ++i) if (updated[i] != 0) raised.add(ids.get(i));
+        return raised;
+    }
+
+    private static String column(String mode) {
+        return switch (mode) {
+            case "single" -> "best_single_score";
+            case "multi" -> "best_multi_score";
+            case "survival" -> "best_survival_score";
+            case "timeAttack" -> "best_time_attack_score";
+            default -> throw new IllegalArgumentException("Unknown game mode " + mode);
+        };
+    }
+}
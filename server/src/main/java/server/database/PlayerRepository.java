@@ -1,39 +1,61 @@
 package server.database;
 
 import commons.Player;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
+import java.util.Optional;
 
-public interface PlayerRepository extends JpaRepository<Player, Long> {
+public interface PlayerRepository extends JpaRepository<Player, Long>, PlayerBatchRepository {
     /**
-     * the JPA sorting method to return a list of players sorted by their best single score
+     * the JPA method to find a player by username, using the unique index on the username column
      *
-     * @return a list of ordered players
+     * @param username the username of the player
+     * @return the player with the given username, if any
      */
-    List<Player> findByOrderByBestSingleScoreDesc();
+    Optional<Player> findByUsername(String username);
+
+    /**
+     * the JPA method to return a page of the players with a best single score above the given one,
+     * sorted by their best single score
+     *
+     * @param score    the score players must exceed
+     * @param pageable the page to return
+     * @return a page of ordered players
+     */
+    List<Player> findByBestSingleScoreGreaterThanOrderByBestSingleScoreDesc(int score, Pageable pageable);
     //since we don't have a separate hibernateUtil here, I suggest use the local way to do this
     //with a simpler way
 
     /**
-     * the JPA sorting method to return a list of players sorted by their best multimode score
+     * the JPA method to return a page of the players with a best multimode score above the given one,
+     * sorted by their best multimode score
      *
-     * @return a list of ordered players
+     * @param score    the score players must exceed
+     * @param pageable the page to return
+     * @return a page of ordered players
      */
-    List<Player> findByOrderByBestMultiScoreDesc();
+    List<Player> findByBestMultiScoreGreaterThanOrderByBestMultiScoreDesc(int score, Pageable pageable);
 
     /**
-     * the JPA sorting method to return a list of players sorted by their best time attack score
+     * the JPA method to return a page of the players with a best time attack score above the given one,
+     * sorted by their best time attack score
      *
-     * @return a list of ordered players
+     * @param score    the score players must exceed
+     * @param pageable the page to return
+     * @return a page of ordered players
      */
-    List<Player> findByOrderByBestTimeAttackScoreDesc();
+    List<Player> findByBestTimeAttackScoreGreaterThanOrderByBestTimeAttackScoreDesc(int score, Pageable pageable);
 
     /**
-     * the JPA sorting method to return a list of player sorted by their best survival score
+     * the JPA method to return a page of the players with a best survival score above the given one,
+     * sorted by their best survival score
      *
-     * @return a list of ordered players
+     * @param score    the score players must exceed
+     * @param pageable the page to return
+     * @return a page of ordered players
      */
-    List<Player> findByOrderByBestSurvivalScoreDesc();
+    List<Player> findByBestSurvivalScoreGreaterThanOrderByBestSurvivalScoreDesc(int score, Pageable pageable);
 
 }
@@ -0,0 +1,16 @@
+package server.database;
+
+import java.util.Map;
+
+public interface ScoreBatchRepository {
+    /**
+     * Raise the best scores of several players in a game mode with one JDBC batch of conditional updates, creating the
+     * scores of players that did not have one in the game mode yet
+     *
+     * @param mode       the game mode of the scores
+     * @param scores     the new best score of every player, by player id
+     * @param achievedAt the time at which the scores were reached
+     * @return the number of players whose best score improved
+     */
+    int raiseBest(String mode, Map<Long, Integer> scores, long achievedAt);
+}
@@ -0,0 +1,82 @@
+package server.database;
+
+import commons.Score;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ScoreBatchRepositoryImpl implements ScoreBatchRepository {
+
+    private static final String RAISE_SQL = "UPDATE score SET best = ?, achieved_at = ? "
+            + "WHERE player_id = ? AND mode = ? AND best < ?";
+    private static final String FIND_SQL = "SELECT player_id FROM score WHERE mode = ? AND player_id IN (%s)";
+
+    private final JdbcTemplate jdbc;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Create the batched updates of the score table
+     *
+     * @param jdbc The JDBC template the batches are sent with
+     */
+    public ScoreBatchRepositoryImpl(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Raise the best scores of several players in a game mode with one JDBC batch of conditional updates. The players
+     * the batch did not update are looked up in one query, and those without a score get a new one, which Hibernate
+     * inserts in a batch as well. Pending changes are flushed first and the persistence context is cleared after the
+     * batch, as it bypasses it.
+     *
+     * @param mode       the game mode of the scores
+     * @param scores     the new best score of every player, by player id
+     * @param achievedAt the time at which the scores were reached
+     * @return the number of players whose best score improved
+     */
+    @Override
+    @Transactional
+    public int raiseBest(String mode, Map<Long, Integer> scores, long achievedAt) {
+        if (scores.isEmpty()) return 0;
+        List<Long> ids = new ArrayList<>(scores.keySet());
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (long id : ids) args.add(new Object[]{scores.get(id), achievedAt, id, mode, scores.get(id)});
+
+        em.flush();
+        int[] updated = jdbc.batchUpdate(RAISE_SQL, args);
+        em.clear();
+        int raised = 0;
+        List<Long> missed = new ArrayList<>();
+        for (int i = 0; i < updated.length; ++i) {
+            if (updated[i] != 0) {
+                ++raised;
+            } else {
+                missed.add(ids.get(i));
+            }
+        }
+        if (missed.isEmpty()) return raised;
+
+        List<Object> findArgs = new ArrayList<>(missed.size() + 1);
+        findArgs.add(mode);
+        findArgs.addAll(missed);
+        Set<Long> existing = new HashSet<>(jdbc.queryForList(
+                String.format(FIND_SQL, String.join(", ", Collections.nCopies(missed.size(), "?"))),
+                Long.class, findArgs.toArray()));
+        for (long id : missed) {
+            if (existing.contains(id)) continue;
+            em.persist(new Score(id, mode, scores.get(id), achievedAt));
+            ++raised;
+        }
+        return raised;
+    }
+}
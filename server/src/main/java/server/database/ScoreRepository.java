@@ -0,0 +1,69 @@
+package server.database;
+
+import commons.LeaderboardEntry;
+import commons.Score;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface ScoreRepository extends JpaRepository<Score, Long>, ScoreBatchRepository {
+    /**
+     * the JPA method to return a page of the ranking of a game mode. The ordering matches the
+     * (mode, best DESC, playerId) index, so the database reads the page from the index instead of sorting the table.
+     *
+     * @param mode     the game mode
+     * @param pageable the page to return
+     * @return a page of leaderboard entries, sorted by best score
+     */
+    @Query("SELECT new commons.LeaderboardEntry(s.playerId, p.username, s.best) FROM Score s, Player p "
+            + "WHERE p.id = s.playerId AND s.mode = :mode AND s.best > 0 "
+            + "ORDER BY s.mode, s.best DESC, s.playerId")
+    List<LeaderboardEntry> findRanking(@Param("mode") String mode, Pageable pageable);
+
+    /**
+     * the JPA method to check whether a player has a score in a game mode
+     *
+     * @param playerId the id of the player
+     * @param mode     the game mode
+     * @return true iff the player has a score in the game mode
+     */
+    boolean existsByPlayerIdAndMode(long playerId, String mode);
+
+    /**
+     * the JPA method to overwrite the best score of a player in a game mode, even if it is lower than the stored one.
+     * Pending changes are flushed first, since the persistence context is cleared afterwards.
+     *
+     * @param mode       the game mode
+     * @param playerId   the id of the player
+     * @param points     the new score
+     * @param achievedAt the time at which the score was reached
+     * @return the number of updated scores, 0 iff the player has no score in the game mode
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Score s SET s.best = :points, s.achievedAt = :achievedAt "
+            + "WHERE s.playerId = :playerId AND s.mode = :mode")
+    int replaceBest(@Param("mode") String mode, @Param("playerId") long playerId, @Param("points") int points,
+                    @Param("achievedAt") long achievedAt);
+
+    /**
+     * Set the best score of a player in a game mode, creating the score if the player did not have one in the game
+     * mode yet. Players without points in a game mode are not given a score in it.
+     *
+     * @param mode       the game mode of the score
+     * @param playerId   the id of the player
+     * @param points     the new best score
+     * @param achievedAt the time at which the score was reached
+     */
+    @Transactional
+    default void putBest(String mode, long playerId, int points, long achievedAt) {
+        if (replaceBest(mode, playerId, points, achievedAt) == 0 && points > 0) {
+            save(new Score(playerId, mode, points, achievedAt));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package server.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BroadcastEncoder {
+
+    private final ObjectMapper mapper;
+    private final AtomicLong encodings;
+
+    public BroadcastEncoder(ObjectMapper mapper) {
+        this.mapper = mapper;
+        this.encodings = new AtomicLong();
+    }
+
+    /**
+     * Serialize a broadcast payload to JSON. The resulting bytes are shared by every listener of the broadcast and
+     * must therefore never be modified.
+     *
+     * @param payload The object to broadcast
+     * @return The JSON encoding of the payload
+     */
+    public byte[] encode(Object payload) {
+        try {
+            encodings.incrementAndGet();
+            return mapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode broadcast payload", e);
+        }
+    }
+
+    /**
+     * Wrap an encoded payload in a response, so that it is written out as is instead of being serialized again
+     *
+     * @param encoded The JSON encoding of the payload
+     * @param headers Additional headers of the response
+     * @return A response with the encoded payload as JSON body
+     */
+    public static ResponseEntity<byte[]> toResponse(byte[] encoded, HttpHeaders headers) {
+        return ResponseEntity.ok().headers(headers).contentType(MediaType.APPLICATION_JSON).body(encoded);
+    }
+
+    /**
+     * Get the number of payloads encoded so far
+     *
+     * @return The number of calls to {@link #encode(Object)}
+     */
+    public long getEncodings() {
+        return encodings.get();
+    }
+}
@@ -0,0 +1,85 @@
+package server.service;
+
+import commons.Emoji;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EmojiAggregator {
+
+    public static final long TICK_MILLIS = 100L;
+    public static final double BUCKET_CAPACITY = 5.0;
+    public static final double TOKENS_PER_SECOND = 3.0;
+
+    private final Map<Long, Map<String, Emoji>> pending;
+    private final Map<Long, TokenBucket> buckets;
+
+    /**
+     * Token bucket limiting the rate at which a single player can send emojis
+     */
+    private static class TokenBucket {
+        private double tokens = BUCKET_CAPACITY;
+        private long lastRefill;
+
+        TokenBucket(long now) {
+            this.lastRefill = now;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(BUCKET_CAPACITY, tokens + (now - lastRefill) * TOKENS_PER_SECOND / 1000.0);
+            lastRefill = now;
+        }
+    }
+
+    public EmojiAggregator() {
+        this.pending = new HashMap<>();
+        this.buckets = new HashMap<>();
+    }
+
+    /**
+     * Add an emoji to the next batch of a session, unless its sender exceeded the emoji rate limit
+     *
+     * @param sessionId The id of the session the emoji is sent to
+     * @param playerId  The id of the player sending the emoji
+     * @param username  The username of the player sending the emoji
+     * @param type      The type of the emoji
+     * @param now       The current time in milliseconds
+     * @return True iff the emoji was accepted
+     */
+    public synchronized boolean offer(long sessionId, long playerId, String username, Emoji.EmojiType type,
+                                      long now) {
+        TokenBucket bucket = buckets.computeIfAbsent(playerId, id -> new TokenBucket(now));
+        bucket.refill(now);
+        if (bucket.tokens < 1.0) return false;
+        bucket.tokens -= 1.0;
+
+        pending.computeIfAbsent(sessionId, id -> new LinkedHashMap<>())
+                .merge(username + "/" + type, new Emoji(username, type, 1), (a, b) -> {
+                    a.count += b.count;
+                    return a;
+                });
+        return true;
+    }
+
+    /**
+     * Take the batches collected since the previous call. Buckets of players that have been idle long enough to be
+     * full again are dropped, so only recently active players are tracked.
+     *
+     * @param now The current time in milliseconds
+     * @return The batch of emojis collected for every session, with one entry per username and emoji type
+     */
+    public synchronized Map<Long, List<Emoji>> drain(long now) {
+        Map<Long, List<Emoji>> batches = new HashMap<>();
+        pending.forEach((id, emojis) -> batches.put(id, new ArrayList<>(emojis.values())));
+        pending.clear();
+
+        buckets.values().removeIf(b -> {
+            b.refill(now);
+            return b.tokens >= BUCKET_CAPACITY;
+        });
+        return batches;
+    }
+}
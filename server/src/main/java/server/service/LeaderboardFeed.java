@@ -0,0 +1,117 @@
+package server.service;
+
+import commons.LeaderboardDelta;
+import commons.LeaderboardEntry;
+
+import java.util.*;
+
+public class LeaderboardFeed {
+
+    public static final int HISTORY_SIZE = 64;
+
+    private final Map<String, ModeFeed> feeds;
+
+    /**
+     * Published state of the ranking of a single game mode
+     */
+    private static class ModeFeed {
+        private long version = 0L;
+        private boolean seeded = false;
+        private List<LeaderboardEntry> ranking = List.of();
+        private final Deque<LeaderboardDelta> history = new ArrayDeque<>();
+    }
+
+    public LeaderboardFeed() {
+        this.feeds = new HashMap<>();
+    }
+
+    /**
+     * Check whether a ranking has been published for the given game mode
+     *
+     * @param mode The game mode to check
+     * @return True iff at least one ranking was published for the game mode
+     */
+    public synchronized boolean isSeeded(String mode) {
+        return feeds.containsKey(mode) && feeds.get(mode).seeded;
+    }
+
+    /**
+     * Get the latest published version of a game mode's ranking
+     *
+     * @param mode The game mode
+     * @return The version of the latest ranking, or 0 if nothing was published yet
+     */
+    public synchronized long getVersion(String mode) {
+        return feeds.containsKey(mode) ? feeds.get(mode).version : 0L;
+    }
+
+    /**
+     * Publish the current ranking of a game mode. Only the entries that were inserted, that changed score or that
+     * were removed compared to the previously published ranking end up in the resulting delta.
+     *
+     * @param mode    The game mode of the ranking
+     * @param entries The entries of the ranking, in any order
+     * @return The delta between the previous and the new ranking, or null if nothing changed
+     */
+    public synchronized LeaderboardDelta publish(String mode, List<LeaderboardEntry> entries) {
+        ModeFeed feed = feeds.computeIfAbsent(mode, m -> new ModeFeed());
+        List<LeaderboardEntry> ranking = rank(entries);
+
+        Map<Long, LeaderboardEntry> previous = new HashMap<>();
+        for (LeaderboardEntry e : feed.ranking) previous.put(e.playerId, e);
+
+        LeaderboardDelta delta = new LeaderboardDelta(mode, feed.version + 1, false);
+        for (LeaderboardEntry e : ranking) {
+            LeaderboardEntry old = previous.remove(e.playerId);
+            if (old == null) delta.inserted.add(e);
+            else if (!old.sameStanding(e)) delta.moved.add(e);
+        }
+        delta.removed.addAll(previous.keySet());
+
+        if (feed.seeded && !delta.hasChanges()) return null;
+
+        feed.seeded = true;
+        feed.version = delta.version;
+        feed.ranking = ranking;
+        feed.history.addLast(delta);
+        while (feed.history.size() > HISTORY_SIZE) feed.history.removeFirst();
+        return delta;
+    }
+
+    /**
+     * Get the deltas a client needs to bring its ranking of a game mode up to date. Clients that are too far behind,
+     * or that know a version this feed never published, receive a single snapshot instead.
+     *
+     * @param mode    The game mode of the ranking
+     * @param version The version of the ranking the client currently has
+     * @return The deltas to apply in order, or an empty list if the client is up to date
+     */
+    public synchronized List<LeaderboardDelta> since(String mode, long version) {
+        ModeFeed feed = feeds.get(mode);
+        if (feed == null || version == feed.version) return List.of();
+
+        long oldest = feed.history.isEmpty() ? feed.version + 1 : feed.history.getFirst().version;
+        if (version > feed.version || version < oldest - 1) {
+            return List.of(LeaderboardDelta.snapshot(mode, feed.version, feed.ranking));
+        }
+        return feed.history.stream().filter(d -> d.version > version).toList();
+    }
+
+    /**
+     * Sort entries by descending score and assign their ranks. Ties are broken by player id, so that entries whose
+     * score did not change keep their relative order between versions.
+     *
+     * @param entries The entries to rank
+     * @return New entries carrying their rank, ordered by rank
+     */
+    private static List<LeaderboardEntry> rank(List<LeaderboardEntry> entries) {
+        List<LeaderboardEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(LeaderboardIndex.RANK_ORDER);
+        List<LeaderboardEntry> ranking = new ArrayList<>(sorted.size());
+        for (int i = 0; i < sorted.size(); ++i) {
+            LeaderboardEntry e = sorted.get(i);
+            ranking.add(new LeaderboardEntry(e.playerId, e.username, e.score, i));
+        }
+        return List.copyOf(ranking);
+    }
+}
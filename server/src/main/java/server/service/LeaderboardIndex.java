@@ -0,0 +1,221 @@
+package server.service;
+
+import commons.LeaderboardEntry;
+import commons.LeaderboardStanding;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+public class LeaderboardIndex {
+
+    public static final Comparator<LeaderboardEntry> RANK_ORDER = Comparator
+            .comparingInt((LeaderboardEntry e) -> e.score).reversed()
+            .thenComparingLong(e -> e.playerId);
+
+    private final Map<String, ModeIndex> indexes;
+
+    /**
+     * Ordered entries of all players with a score in a single game mode. The ranking knows the rank of every entry,
+     * so players far down the leaderboard can be located without walking past everyone above them. The histogram
+     * summarizes the same scores for percentile lookups.
+     */
+    private static class ModeIndex {
+        private final OrderStatisticTree<LeaderboardEntry> ranking = new OrderStatisticTree<>(RANK_ORDER);
+        private final Map<Long, LeaderboardEntry> byPlayer = new HashMap<>();
+        private final ScoreHistogram histogram = new ScoreHistogram();
+    }
+
+    public LeaderboardIndex() {
+        this.indexes = new HashMap<>();
+    }
+
+    /**
+     * Check whether the index of a game mode was seeded
+     *
+     * @param mode The game mode to check
+     * @return True iff the game mode's index was seeded
+     */
+    public synchronized boolean isSeeded(String mode) {
+        return indexes.containsKey(mode);
+    }
+
+    /**
+     * Seed the index of a game mode, unless it was seeded already
+     *
+     * @param mode   The game mode to seed
+     * @param loader Supplier of the entries of all players with a score in the game mode, in any order
+     */
+    public synchronized void ensureSeeded(String mode, Supplier<List<LeaderboardEntry>> loader) {
+        if (indexes.containsKey(mode)) return;
+        ModeIndex index = new ModeIndex();
+        for (LeaderboardEntry e : loader.get()) put(index, e.playerId, e.username, e.score);
+        indexes.put(mode, index);
+    }
+
+    /**
+     * Replace the ranking of a game mode with the given entries
+     *
+     * @param mode    The game mode
+     * @param entries The entries of all players with a score in the game mode, in any order
+     */
+    public synchronized void replace(String mode, List<LeaderboardEntry> entries) {
+        ModeIndex index = new ModeIndex();
+        for (LeaderboardEntry e : entries) put(index, e.playerId, e.username, e.score);
+        indexes.put(mode, index);
+    }
+
+    /**
+     * Set the score of a player in a game mode. Players without a positive score are not ranked. The game mode's
+     * index must have been seeded before, or it will only contain the updated players.
+     *
+     * @param mode     The game mode of the score
+     * @param playerId The id of the player
+     * @param username The username of the player
+     * @param score    The new score of the player
+     */
+    public synchronized void update(String mode, long playerId, String username, int score) {
+        put(indexes.computeIfAbsent(mode, m -> new ModeIndex()), playerId, username, score);
+    }
+
+    /**
+     * Raise the score of a player in a game mode, unless the player already has an equal or higher score
+     *
+     * @param mode     The game mode of the score
+     * @param playerId The id of the player
+     * @param username The username of the player
+     * @param score    The new score of the player
+     * @return True iff the score of the player was raised
+     */
+    public synchronized boolean raise(String mode, long playerId, String username, int score) {
+        ModeIndex index = indexes.computeIfAbsent(mode, m -> new ModeIndex());
+        LeaderboardEntry old = index.byPlayer.get(playerId);
+        if (score <= 0 || (old != null && old.score >= score)) return false;
+        put(index, playerId, username, score);
+        return true;
+    }
+
+    /**
+     * Get the best ranked entries of a game mode
+     *
+     * @param mode  The game mode
+     * @param limit The maximum number of entries to return
+     * @return The entries with the highest scores, carrying their rank, ordered by rank
+     */
+    public synchronized List<LeaderboardEntry> top(String mode, int limit) {
+        return page(mode, 0, limit);
+    }
+
+    /**
+     * Get a page of the ranking of a game mode
+     *
+     * @param mode   The game mode
+     * @param offset The rank of the first entry to return
+     * @param limit  The maximum number of entries to return
+     * @return The entries ranked from offset onwards, carrying their rank, ordered by rank
+     */
+    public synchronized List<LeaderboardEntry> page(String mode, int offset, int limit) {
+        ModeIndex index = indexes.get(mode);
+        if (index == null) return List.of();
+        return withRanks(index.ranking.range(offset, limit), offset);
+    }
+
+    /**
+     * Get the page of the ranking of a game mode that follows a given entry. Unlike offsets, the position of such a
+     * key does not shift when players above it improve their score while a client is paging.
+     *
+     * @param mode     The game mode
+     * @param score    The score of the last entry the client has
+     * @param playerId The player id of the last entry the client has
+     * @param limit    The maximum number of entries to return
+     * @return The entries ranked below the given one, carrying their rank, ordered by rank
+     */
+    public synchronized List<LeaderboardEntry> pageAfter(String mode, int score, long playerId, int limit) {
+        ModeIndex index = indexes.get(mode);
+        if (index == null) return List.of();
+
+        LeaderboardEntry key = new LeaderboardEntry(playerId, null, score);
+        int offset = index.ranking.rankOf(key) + (index.ranking.contains(key) ? 1 : 0);
+        return withRanks(index.ranking.range(offset, limit), offset);
+    }
+
+    /**
+     * Get the standing of a player in a game mode, with the players ranked directly around them
+     *
+     * @param mode     The game mode
+     * @param playerId The id of the player
+     * @param k        The number of neighbours to include on either side of the player
+     * @return The standing of the player, or null if the player is not ranked in the game mode
+     */
+    public synchronized LeaderboardStanding standing(String mode, long playerId, int k) {
+        ModeIndex index = indexes.get(mode);
+        LeaderboardEntry entry = (index == null) ? null : index.byPlayer.get(playerId);
+        if (entry == null) return null;
+
+        int rank = index.ranking.rankOf(entry);
+        int from = Math.max(0, rank - k);
+        List<LeaderboardEntry> neighbours = withRanks(index.ranking.range(from, rank - from + k + 1), from);
+        return new LeaderboardStanding(neighbours.get(rank - from), neighbours, index.ranking.size());
+    }
+
+    /**
+     * Estimate the share of ranked players in a game mode whose best score is below the given score, from the game
+     * mode's histogram rather than the ranking, so the time taken does not depend on the number of players
+     *
+     * @param mode  The game mode
+     * @param score The score to compare with
+     * @return The percentage of ranked players with a lower score, between 0 and 100, or 0 if nobody is ranked
+     */
+    public synchronized double percentile(String mode, int score) {
+        ModeIndex index = indexes.get(mode);
+        if (index == null || index.histogram.total() == 0) return 0.0;
+        return 100.0 * index.histogram.countBelow(score) / index.histogram.total();
+    }
+
+    /**
+     * Get the number of ranked players in a game mode
+     *
+     * @param mode The game mode
+     * @return The number of players with a positive score in the game mode
+     */
+    public synchronized int size(String mode) {
+        ModeIndex index = indexes.get(mode);
+        return (index == null) ? 0 : index.ranking.size();
+    }
+
+    /**
+     * Copy entries of a ranking, assigning consecutive ranks
+     *
+     * @param entries The entries to copy, ordered by rank
+     * @param rank    The rank of the first entry
+     * @return New entries carrying their rank, ordered by rank
+     */
+    private static List<LeaderboardEntry> withRanks(List<LeaderboardEntry> entries, int rank) {
+        List<LeaderboardEntry> res = new ArrayList<>(entries.size());
+        for (LeaderboardEntry e : entries) {
+            res.add(new LeaderboardEntry(e.playerId, e.username, e.score, rank + res.size()));
+        }
+        return res;
+    }
+
+    /**
+     * Replace the entry of a player in a game mode's index
+     *
+     * @param index    The index of the game mode
+     * @param playerId The id of the player
+     * @param username The username of the player
+     * @param score    The new score of the player
+     */
+    private static void put(ModeIndex index, long playerId, String username, int score) {
+        LeaderboardEntry old = index.byPlayer.remove(playerId);
+        if (old != null) {
+            index.ranking.remove(old);
+            index.histogram.remove(old.score);
+        }
+        if (score <= 0) return;
+
+        LeaderboardEntry entry = new LeaderboardEntry(playerId, username, score);
+        index.byPlayer.put(playerId, entry);
+        index.ranking.add(entry);
+        index.histogram.add(score);
+    }
+}
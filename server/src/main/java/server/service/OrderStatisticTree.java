@@ -0,0 +1,199 @@
+package server.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sorted set that also knows the position of every element. It is a treap whose nodes track the size of their
+ * subtree, so inserting, removing, finding the rank of an element and seeking to a rank all take O(log n) expected
+ * time.
+ *
+ * @param <T> The type of the elements
+ */
+public class OrderStatisticTree<T> {
+
+    private final Comparator<? super T> order;
+    private final Random priorities;
+    private Node<T> root;
+
+    /**
+     * Node of the treap, ordered by value as a search tree and by priority as a heap
+     */
+    private static class Node<T> {
+        private final T value;
+        private final int priority;
+        private int size = 1;
+        private Node<T> left;
+        private Node<T> right;
+
+        Node(T value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * The two treaps a treap is split into
+     */
+    private record Split<T>(Node<T> lower, Node<T> upper) {
+    }
+
+    public OrderStatisticTree(Comparator<? super T> order) {
+        this.order = order;
+        this.priorities = new Random();
+    }
+
+    /**
+     * Get the number of elements in the tree
+     *
+     * @return The number of elements
+     */
+    public int size() {
+        return size(root);
+    }
+
+    /**
+     * Check whether the tree contains an element equal to the given one, according to the tree's order
+     *
+     * @param value The element to look for
+     * @return True iff the tree contains such an element
+     */
+    public boolean contains(T value) {
+        Node<T> node = root;
+        while (node != null) {
+            int cmp = order.compare(value, node.value);
+            if (cmp == 0) return true;
+            node = (cmp < 0) ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Add an element, unless the tree already contains an equal one
+     *
+     * @param value The element to add
+     * @return True iff the element was added
+     */
+    public boolean add(T value) {
+        if (contains(value)) return false;
+        Split<T> split = split(root, value, false);
+        root = merge(merge(split.lower, new Node<>(value, priorities.nextInt())), split.upper);
+        return true;
+    }
+
+    /**
+     * Remove the element equal to the given one, according to the tree's order
+     *
+     * @param value The element to remove
+     * @return True iff an element was removed
+     */
+    public boolean remove(T value) {
+        Split<T> lower = split(root, value, false);
+        Split<T> upper = split(lower.upper, value, true);
+        root = merge(lower.lower, upper.upper);
+        return upper.lower != null;
+    }
+
+    /**
+     * Get the number of elements that come before the given one
+     *
+     * @param value The element, which does not have to be in the tree
+     * @return The number of elements strictly smaller than the given one, i.e. its rank if it is in the tree
+     */
+    public int rankOf(T value) {
+        int rank = 0;
+        Node<T> node = root;
+        while (node != null) {
+            if (order.compare(value, node.value) <= 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Get consecutive elements by rank
+     *
+     * @param from  The rank of the first element to return
+     * @param limit The maximum number of elements to return
+     * @return The elements ranked from the given rank onwards, in order
+     */
+    public List<T> range(int from, int limit) {
+        List<T> res = new ArrayList<>();
+        int to = (int) Math.min((long) from + limit, size());
+        collect(root, from, to, res);
+        return res;
+    }
+
+    /**
+     * Add the elements of a subtree with ranks in [from, to) to a list, skipping subtrees outside that range
+     *
+     * @param node The root of the subtree
+     * @param from The first rank to collect, relative to the subtree
+     * @param to   The rank after the last one to collect, relative to the subtree
+     * @param res  The list to add the elements to
+     */
+    private static <T> void collect(Node<T> node, int from, int to, List<T> res) {
+        if (node == null || from >= to) return;
+        int leftSize = size(node.left);
+        if (from < leftSize) collect(node.left, from, Math.min(to, leftSize), res);
+        if (from <= leftSize && leftSize < to) res.add(node.value);
+        if (to > leftSize + 1) collect(node.right, Math.max(0, from - leftSize - 1), to - leftSize - 1, res);
+    }
+
+    /**
+     * Split a treap into the elements below a value and the remaining ones
+     *
+     * @param node      The root of the treap to split
+     * @param value     The value to split at
+     * @param inclusive Whether elements equal to the value go to the lower part
+     * @return The lower and upper part
+     */
+    private Split<T> split(Node<T> node, T value, boolean inclusive) {
+        if (node == null) return new Split<>(null, null);
+        int cmp = order.compare(node.value, value);
+        if (cmp < 0 || (inclusive && cmp == 0)) {
+            Split<T> rest = split(node.right, value, inclusive);
+            node.right = rest.lower;
+            update(node);
+            return new Split<>(node, rest.upper);
+        }
+        Split<T> rest = split(node.left, value, inclusive);
+        node.left = rest.upper;
+        update(node);
+        return new Split<>(rest.lower, node);
+    }
+
+    /**
+     * Merge two treaps, all elements of the first one being smaller than those of the second one
+     *
+     * @param lower The treap with the smaller elements
+     * @param upper The treap with the larger elements
+     * @return The root of the merged treap
+     */
+    private static <T> Node<T> merge(Node<T> lower, Node<T> upper) {
+        if (lower == null) return upper;
+        if (upper == null) return lower;
+        if (lower.priority > upper.priority) {
+            lower.right = merge(lower.right, upper);
+            update(lower);
+            return lower;
+        }
+        upper.left = merge(lower, upper.left);
+        update(upper);
+        return upper;
+    }
+
+    private static <T> void update(Node<T> node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
+    private static <T> int size(Node<T> node) {
+        return (node == null) ? 0 : node.size;
+    }
+}
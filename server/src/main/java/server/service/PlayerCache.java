@@ -0,0 +1,97 @@
+package server.service;
+
+import commons.Player;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+public class PlayerCache {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final Map<String, Player> byUsername;
+    private long generation;
+    private long hits;
+    private long misses;
+
+    /**
+     * Create a cache of players by username that keeps the most recently used players
+     *
+     * @param capacity The maximum number of players to keep
+     */
+    public PlayerCache(int capacity) {
+        this.byUsername = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Player> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Get the player with the given username, loading it if it is not cached. The loader runs without holding the
+     * cache's lock, and its result is only cached if no player was evicted in the meantime, so a lookup that races
+     * with a save never caches the stale player.
+     *
+     * @param username The username of the player
+     * @param loader   Function loading the player with the given username from the database
+     * @return The player with the given username, if any
+     */
+    public Optional<Player> get(String username, Function<String, Optional<Player>> loader) {
+        long loadedAt;
+        synchronized (this) {
+            Player cached = byUsername.get(username);
+            if (cached != null) {
+                ++hits;
+                return Optional.of(cached);
+            }
+            ++misses;
+            loadedAt = generation;
+        }
+
+        Optional<Player> loaded = loader.apply(username);
+        synchronized (this) {
+            if (loaded.isPresent() && generation == loadedAt) byUsername.put(username, loaded.get());
+        }
+        return loaded;
+    }
+
+    /**
+     * Drop the cached player with the given username. Must be called whenever such a player is saved.
+     *
+     * @param username The username of the saved player
+     */
+    public synchronized void evict(String username) {
+        ++generation;
+        byUsername.remove(username);
+    }
+
+    /**
+     * Get the number of cached players
+     *
+     * @return The number of cached players
+     */
+    public synchronized int size() {
+        return byUsername.size();
+    }
+
+    /**
+     * Get the number of lookups that were answered from the cache
+     *
+     * @return The number of cache hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups that had to load the player
+     *
+     * @return The number of cache misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,103 @@
+package server.service;
+
+/**
+ * Fixed-size histogram of non-negative scores with log-linear buckets. Scores below {@value SUB_BUCKETS} have a
+ * bucket each, larger scores share buckets whose width doubles with every power of two, so every bucket is at most
+ * about 6% wide relative to the scores in it. Memory and query time do not depend on the number of scores recorded.
+ */
+public class ScoreHistogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = SUB_BUCKETS + (Integer.SIZE - 1 - SUB_BUCKET_BITS) * (SUB_BUCKETS / 2);
+
+    private final long[] counts;
+    private long total;
+
+    public ScoreHistogram() {
+        this.counts = new long[BUCKETS];
+    }
+
+    /**
+     * Record a score
+     *
+     * @param score The score, negative scores count as 0
+     */
+    public void add(int score) {
+        ++counts[indexOf(score)];
+        ++total;
+    }
+
+    /**
+     * Remove a previously recorded score
+     *
+     * @param score The score, as it was recorded
+     */
+    public void remove(int score) {
+        --counts[indexOf(score)];
+        --total;
+    }
+
+    /**
+     * Get the number of recorded scores
+     *
+     * @return The number of recorded scores
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Estimate the number of recorded scores strictly below the given one. Scores are assumed to be spread evenly
+     * within the bucket the given score falls in, so the estimate is exact for scores below {@value SUB_BUCKETS}.
+     *
+     * @param score The score to compare with
+     * @return The estimated number of recorded scores below the given one
+     */
+    public double countBelow(int score) {
+        int index = indexOf(score);
+        long below = 0L;
+        for (int i = 0; i < index; ++i) below += counts[i];
+        long lowest = lowestOf(index);
+        return below + counts[index] * (double) (Math.max(score, 0) - lowest) / widthOf(index);
+    }
+
+    /**
+     * Get the bucket a score falls in
+     *
+     * @param score The score
+     * @return The index of the bucket
+     */
+    static int indexOf(int score) {
+        if (score < SUB_BUCKETS) return Math.max(score, 0);
+        int magnitude = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(score);
+        int mantissa = score >>> (magnitude - SUB_BUCKET_BITS + 1);
+        return SUB_BUCKETS + (magnitude - SUB_BUCKET_BITS) * (SUB_BUCKETS / 2) + mantissa - SUB_BUCKETS / 2;
+    }
+
+    /**
+     * Get the lowest score of a bucket
+     *
+     * @param index The index of the bucket
+     * @return The lowest score that falls in the bucket
+     */
+    static long lowestOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int k = index - SUB_BUCKETS;
+        int magnitude = SUB_BUCKET_BITS + k / (SUB_BUCKETS / 2);
+        long mantissa = SUB_BUCKETS / 2 + k % (SUB_BUCKETS / 2);
+        return mantissa << (magnitude - SUB_BUCKET_BITS + 1);
+    }
+
+    /**
+     * Get the number of scores that fall in a bucket
+     *
+     * @param index The index of the bucket
+     * @return The width of the bucket
+     */
+    static long widthOf(int index) {
+        if (index < SUB_BUCKETS) return 1L;
+        int magnitude = SUB_BUCKET_BITS + (index - SUB_BUCKETS) / (SUB_BUCKETS / 2);
+        return 1L << (magnitude - SUB_BUCKET_BITS + 1);
+    }
+}
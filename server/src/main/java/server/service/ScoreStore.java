@@ -0,0 +1,132 @@
+package server.service;
+
+import commons.Player;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+import server.database.PlayerRepository;
+import server.database.ScoreRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ScoreStore {
+
+    public static final List<String> GAME_MODES = List.of("single", "multi", "survival", "timeAttack");
+
+    private static final int MIGRATION_PAGE_SIZE = 1000;
+
+    private final PlayerRepository playerRepo;
+    private final ScoreRepository scoreRepo;
+
+    /**
+     * Create the store of best scores. Best scores are kept in two places: the score table, which the rankings are
+     * read from, and the columns of the player table, which are part of the players sent to clients. The store
+     * writes both in one transaction, so they never disagree.
+     *
+     * @param playerRepo The repository of players
+     * @param scoreRepo  The repository of best scores per game mode
+     */
+    public ScoreStore(PlayerRepository playerRepo, ScoreRepository scoreRepo) {
+        this.playerRepo = playerRepo;
+        this.scoreRepo = scoreRepo;
+    }
+
+    /**
+     * Raise the best scores of several players in a game mode. A score is only written if it beats the player's
+     * stored best score, and only for players that exist. Each table is written with one JDBC batch, whatever the
+     * number of players.
+     *
+     * @param mode       The game mode of the scores
+     * @param scores     The new best score of every player, by player id
+     * @param achievedAt The time at which the scores were reached
+     * @return The number of players whose best score improved
+     */
+    @Transactional
+    public int raise(String mode, Map<Long, Integer> scores, long achievedAt) {
+        Map<Long, Integer> improved = new HashMap<>(scores);
+        improved.keySet().retainAll(playerRepo.raiseBestScores(mode, scores));
+        scoreRepo.raiseBest(mode, improved, achievedAt);
+        return improved.size();
+    }
+
+    /**
+     * Save a player together with its best scores in every game mode. Unlike {@link #raise}, this overwrites the
+     * stored scores, so they may also go down.
+     *
+     * @param p          The player to save
+     * @param achievedAt The time at which the scores were reached
+     * @return The saved player
+     */
+    @Transactional
+    public Player save(Player p, long achievedAt) {
+        Player saved = playerRepo.save(p);
+        for (String mode : GAME_MODES) scoreRepo.putBest(mode, saved.id, scoreOf(saved, mode), achievedAt);
+        return saved;
+    }
+
+    /**
+     * Copy the best scores stored in the player table to the score table. This only happens while the score table is
+     * still empty, i.e. the first time the server starts with a database that predates it.
+     *
+     * @param achievedAt The time to record for the copied scores
+     */
+    @Transactional
+    public void migrate(long achievedAt) {
+        if (scoreRepo.count() > 0) return;
+        for (String mode : GAME_MODES) {
+            for (int page = 0; ; ++page) {
+                Pageable pageable = PageRequest.of(page, MIGRATION_PAGE_SIZE);
+                List<Player> ranked = switch (mode) {
+                    case "single" -> playerRepo.findByBestSingleScoreGreaterThanOrderByBestSingleScoreDesc(0,
+                            pageable);
+                    case "multi" -> playerRepo.findByBestMultiScoreGreaterThanOrderByBestMultiScoreDesc(0, pageable);
+                    case "survival" -> playerRepo.findByBestSurvivalScoreGreaterThanOrderByBestSurvivalScoreDesc(0,
+                            pageable);
+                    case "timeAttack" -> playerRepo.findByBestTimeAttackScoreGreaterThanOrderByBestTimeAttackScoreDesc(
+                            0, pageable);
+                    default -> throw new IllegalArgumentException("Unknown game mode " + mode);
+                };
+                Map<Long, Integer> best = new HashMap<>();
+                ranked.forEach(p -> best.put(p.id, scoreOf(p, mode)));
+                scoreRepo.raiseBest(mode, best, achievedAt);
+                if (ranked.size() < MIGRATION_PAGE_SIZE) break;
+            }
+        }
+    }
+
+    /**
+     * Get the best score of a player in the given game mode
+     *
+     * @param p    The player
+     * @param mode The game mode
+     * @return The best score of the player in that game mode
+     */
+    public static int scoreOf(Player p, String mode) {
+        return switch (mode) {
+            case "single" -> p.getBestSingleScore();
+            case "multi" -> p.getBestMultiScore();
+            case "survival" -> p.getBestSurvivalScore();
+            case "timeAttack" -> p.getBestTimeAttackScore();
+            default -> throw new IllegalArgumentException("Unknown game mode " + mode);
+        };
+    }
+
+    /**
+     * Set the best score of a player in the given game mode, without writing it
+     *
+     * @param p      The player
+     * @param mode   The game mode
+     * @param points The best score of the player in that game mode
+     */
+    public static void setScore(Player p, String mode, int points) {
+        switch (mode) {
+            case "single" -> p.setBestSingleScore(points);
+            case "multi" -> p.setBestMultiScore(points);
+            case "survival" -> p.setBestSurvivalScore(points);
+            case "timeAttack" -> p.setBestTimeAttackScore(points);
+            default -> throw new IllegalArgumentException("Unknown game mode " + mode);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package server.service;
+
+import commons.MatchResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class ScoreWriteBuffer {
+
+    public static final int FLUSH_SIZE = 64;
+    public static final long FLUSH_MILLIS = 500L;
+    public static final long CHECK_MILLIS = 50L;
+
+    private final Map<String, Map<Long, PendingScore>> pending;
+    private List<MatchResult> results;
+    private int size;
+
+    /**
+     * Best score of a player in a game mode that still has to be written to the database
+     *
+     * @param playerId The id of the player
+     * @param username The username of the player
+     * @param score    The new best score of the player
+     */
+    public record PendingScore(long playerId, String username, int score) {
+    }
+
+    public ScoreWriteBuffer() {
+        this.pending = new HashMap<>();
+        this.results = new ArrayList<>();
+    }
+
+    /**
+     * Queue a best score to be written. A queued score of the same player in the same game mode is replaced if the
+     * new score is higher.
+     *
+     * @param mode     The game mode of the score
+     * @param playerId The id of the player
+     * @param username The username of the player
+     * @param score    The new best score of the player
+     * @return True iff enough scores are queued that the buffer should be flushed right away
+     */
+    public synchronized boolean submit(String mode, long playerId, String username, int score) {
+        Map<Long, PendingScore> scores = pending.computeIfAbsent(mode, m -> new HashMap<>());
+        PendingScore old = scores.get(playerId);
+        if (old == null) ++size;
+        if (old == null || old.score < score) scores.put(playerId, new PendingScore(playerId, username, score));
+        return size >= FLUSH_SIZE;
+    }
+
+    /**
+     * Queue the result of a finished game to be appended to the match result log
+     *
+     * @param result The result of the game
+     * @return True iff enough results are queued that the buffer should be flushed right away
+     */
+    public synchronized boolean log(MatchResult result) {
+        results.add(result);
+        return results.size() >= FLUSH_SIZE;
+    }
+
+    /**
+     * Take all queued match results. Unlike best scores, reads never need them, so they leave the queue right away.
+     *
+     * @return The queued match results, in the order they were queued
+     */
+    public synchronized List<MatchResult> drainResults() {
+        List<MatchResult> res = results;
+        results = new ArrayList<>();
+        return res;
+    }
+
+    /**
+     * Get the scores of a game mode that still have to be written. They stay queued until they are acknowledged, so
+     * that reads keep seeing them while they are being written.
+     *
+     * @param mode The game mode
+     * @return The queued scores of the game mode
+     */
+    public synchronized List<PendingScore> pending(String mode) {
+        Map<Long, PendingScore> scores = pending.get(mode);
+        return (scores == null) ? List.of() : List.copyOf(scores.values());
+    }
+
+    /**
+     * Remove scores that were written from the queue. Scores that were raised again in the meantime stay queued.
+     *
+     * @param mode    The game mode of the scores
+     * @param written The scores that were written
+     */
+    public synchronized void written(String mode, List<PendingScore> written) {
+        Map<Long, PendingScore> scores = pending.get(mode);
+        if (scores == null) return;
+        for (PendingScore s : written) {
+            if (scores.remove(s.playerId, s)) --size;
+        }
+    }
+
+    /**
+     * Get the queued best score of a player in a game mode
+     *
+     * @param mode     The game mode
+     * @param playerId The id of the player
+     * @return The queued score, if any
+     */
+    public synchronized Optional<Integer> get(String mode, long playerId) {
+        Map<Long, PendingScore> scores = pending.get(mode);
+        PendingScore s = (scores == null) ? null : scores.get(playerId);
+        return (s == null) ? Optional.empty() : Optional.of(s.score);
+    }
+
+    /**
+     * Check whether enough scores or match results are queued that the buffer should be flushed right away
+     *
+     * @return True iff the buffer is full
+     */
+    public synchronized boolean isFull() {
+        return size >= FLUSH_SIZE || results.size() >= FLUSH_SIZE;
+    }
+
+    /**
+     * Get the number of queued scores
+     *
+     * @return The number of queued scores over all game modes
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
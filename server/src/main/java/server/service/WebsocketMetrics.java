@@ -0,0 +1,91 @@
+package server.service;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class WebsocketMetrics {
+
+    private final ThreadPoolTaskExecutor inbound;
+    private final ThreadPoolTaskExecutor outbound;
+    private final AtomicLong openSessions;
+    private final AtomicLong droppedSessions;
+    private final AtomicLong inboundRejected;
+    private final AtomicLong outboundRejected;
+
+    public WebsocketMetrics(ThreadPoolTaskExecutor inbound, ThreadPoolTaskExecutor outbound) {
+        this.inbound = inbound;
+        this.outbound = outbound;
+        this.openSessions = new AtomicLong();
+        this.droppedSessions = new AtomicLong();
+        this.inboundRejected = new AtomicLong();
+        this.outboundRejected = new AtomicLong();
+    }
+
+    /**
+     * Wrap the rejection policy of a client channel, so that messages the channel's executor rejects are counted
+     *
+     * @param inbound True for the inbound channel, false for the outbound channel
+     * @param policy  The policy that handles the rejected messages
+     * @return The counting rejection policy
+     */
+    public RejectedExecutionHandler countRejections(boolean inbound, RejectedExecutionHandler policy) {
+        AtomicLong rejected = inbound ? inboundRejected : outboundRejected;
+        return (task, executor) -> {
+            rejected.incrementAndGet();
+            policy.rejectedExecution(task, executor);
+        };
+    }
+
+    /**
+     * Record that a websocket session was opened
+     */
+    public void sessionOpened() {
+        openSessions.incrementAndGet();
+    }
+
+    /**
+     * Record that a websocket session was closed
+     *
+     * @param dropped True iff the server closed the session because the client could not keep up
+     */
+    public void sessionClosed(boolean dropped) {
+        openSessions.decrementAndGet();
+        if (dropped) droppedSessions.incrementAndGet();
+    }
+
+    /**
+     * Take a snapshot of the websocket metrics
+     *
+     * @return The metrics by name
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> res = new LinkedHashMap<>();
+        res.put("openSessions", openSessions.get());
+        res.put("droppedSessions", droppedSessions.get());
+        res.put("inboundQueueDepth", (long) queueDepth(inbound));
+        res.put("outboundQueueDepth", (long) queueDepth(outbound));
+        res.put("inboundRejected", inboundRejected.get());
+        res.put("outboundRejected", outboundRejected.get());
+        res.put("inboundActiveThreads", (long) inbound.getActiveCount());
+        res.put("outboundActiveThreads", (long) outbound.getActiveCount());
+        return res;
+    }
+
+    /**
+     * Get the number of tasks waiting in the queue of an executor
+     *
+     * @param executor The executor to inspect
+     * @return The number of queued tasks, or 0 if the executor was not started yet
+     */
+    private static int queueDepth(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            return 0;
+        }
+    }
+}
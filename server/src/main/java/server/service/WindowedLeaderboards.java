@@ -0,0 +1,145 @@
+package server.service;
+
+import commons.LeaderboardEntry;
+
+import java.time.Duration;
+import java.util.*;
+
+public class WindowedLeaderboards {
+
+    /**
+     * Rolling time window of a leaderboard. Results are kept in buckets, so a window covers its length plus at most
+     * one partially expired bucket.
+     */
+    public enum Window {
+        DAY(Duration.ofDays(1), Duration.ofHours(1)),
+        WEEK(Duration.ofDays(7), Duration.ofDays(1)),
+        SEASON(Duration.ofDays(90), Duration.ofDays(1));
+
+        private final long lengthMillis;
+        private final long bucketMillis;
+
+        Window(Duration length, Duration bucket) {
+            this.lengthMillis = length.toMillis();
+            this.bucketMillis = bucket.toMillis();
+        }
+
+        /**
+         * Get the length of the window
+         *
+         * @return The length of the window in milliseconds
+         */
+        public long getLengthMillis() {
+            return lengthMillis;
+        }
+
+        /**
+         * Get the window with the given name, as used in requests
+         *
+         * @param name The name of the window, e.g. "week"
+         * @return The window, or null if no window has that name
+         */
+        public static Window parse(String name) {
+            for (Window w : values()) {
+                if (w.name().equalsIgnoreCase(name)) return w;
+            }
+            return null;
+        }
+    }
+
+    private final Map<Window, Map<String, TreeMap<Long, Map<Long, LeaderboardEntry>>>> buckets;
+    private final Map<Window, LeaderboardIndex> indexes;
+    private long clock;
+
+    public WindowedLeaderboards() {
+        this.buckets = new EnumMap<>(Window.class);
+        this.indexes = new EnumMap<>(Window.class);
+        for (Window w : Window.values()) {
+            buckets.put(w, new HashMap<>());
+            indexes.put(w, new LeaderboardIndex());
+        }
+    }
+
+    /**
+     * Record the score a player reached in a game. The best score of the player is kept per bucket, and the ranking
+     * of every window that covers the game is raised right away, so reads never have to combine buckets.
+     *
+     * @param mode       The game mode of the game
+     * @param playerId   The id of the player
+     * @param username   The username of the player
+     * @param score      The score the player reached
+     * @param finishedAt The time in milliseconds since the epoch at which the game ended
+     */
+    public synchronized void record(String mode, long playerId, String username, int score, long finishedAt) {
+        if (score <= 0) return;
+        clock = Math.max(clock, finishedAt);
+        for (Window w : Window.values()) {
+            expire(w);
+            long start = finishedAt - Math.floorMod(finishedAt, w.bucketMillis);
+            if (isExpired(w, start)) continue;
+
+            Map<Long, LeaderboardEntry> bucket = buckets.get(w)
+                    .computeIfAbsent(mode, m -> new TreeMap<>())
+                    .computeIfAbsent(start, s -> new HashMap<>());
+            LeaderboardEntry old = bucket.get(playerId);
+            if (old == null || old.score < score) bucket.put(playerId, new LeaderboardEntry(playerId, username, score));
+            indexes.get(w).raise(mode, playerId, username, score);
+        }
+    }
+
+    /**
+     * Get the rankings of a window, after dropping the results that fell out of it
+     *
+     * @param window The window
+     * @param now    The current time in milliseconds since the epoch
+     * @return The rankings of all game modes over the window, by best score of each player within the window
+     */
+    public synchronized LeaderboardIndex view(Window window, long now) {
+        clock = Math.max(clock, now);
+        expire(window);
+        return indexes.get(window);
+    }
+
+    /**
+     * Drop the buckets of a window that fell out of it entirely. The ranking of a game mode is only rebuilt from its
+     * remaining buckets when one of them was dropped, which happens at most once per bucket.
+     *
+     * @param window The window
+     */
+    private void expire(Window window) {
+        for (Map.Entry<String, TreeMap<Long, Map<Long, LeaderboardEntry>>> e : buckets.get(window).entrySet()) {
+            TreeMap<Long, Map<Long, LeaderboardEntry>> modeBuckets = e.getValue();
+            boolean dropped = false;
+            while (!modeBuckets.isEmpty() && isExpired(window, modeBuckets.firstKey())) {
+                modeBuckets.pollFirstEntry();
+                dropped = true;
+            }
+            if (dropped) indexes.get(window).replace(e.getKey(), best(modeBuckets.values()));
+        }
+    }
+
+    /**
+     * Check whether a bucket lies entirely before the start of a window
+     *
+     * @param window The window
+     * @param start  The start of the bucket in milliseconds since the epoch
+     * @return True iff the bucket ended before the window started
+     */
+    private boolean isExpired(Window window, long start) {
+        return start + window.bucketMillis <= clock - window.lengthMillis;
+    }
+
+    /**
+     * Combine buckets into the best score of every player
+     *
+     * @param modeBuckets The buckets of a game mode
+     * @return The entry with the best score of every player that appears in any of the buckets
+     */
+    private static List<LeaderboardEntry> best(Collection<Map<Long, LeaderboardEntry>> modeBuckets) {
+        Map<Long, LeaderboardEntry> best = new HashMap<>();
+        for (Map<Long, LeaderboardEntry> bucket : modeBuckets) {
+            for (LeaderboardEntry e : bucket.values()) best.merge(e.playerId, e, (a, b) -> a.score >= b.score ? a : b);
+        }
+        return new ArrayList<>(best.values());
+    }
+}
@@ -1,38 +1,70 @@
 package server.api;
 
 import commons.Emoji;
+import commons.GameSession;
 import commons.Player;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import server.service.EmojiAggregator;
+import server.service.SessionManager;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class EmojiControllerTest {
     private EmojiController sut;
-    private TestPlayerRepository repo;
-    private LeaderboardController leaderboard;
+    private SessionManager sm;
+    private List<Message<?>> sent;
+    private long sessionId;
     private long playerId;
 
     @BeforeEach
     public void setup() {
-        repo = new TestPlayerRepository();
-        leaderboard = new LeaderboardController(repo);
-        ResponseEntity<Player> resp = leaderboard.addPlayerForcibly(new Player("test", 0));
-        assertNotNull(resp.getBody());
-        playerId = resp.getBody().id;
-        sut = new EmojiController(leaderboard);
+        sm = new SessionManager();
+        Player player = new Player("test", 0);
+        player.id = 7L;
+        playerId = player.id;
+        sessionId = sm.save(new GameSession(GameSession.SessionType.MULTIPLAYER, List.of(player))).id;
+
+        sent = new ArrayList<>();
+        sut = new EmojiController(sm, new EmojiAggregator(),
+                new SimpMessagingTemplate((message, timeout) -> sent.add(message)));
     }
 
     @Test
     public void testSendEmoji() {
-        Emoji result = sut.sendEmoji(playerId, Emoji.EmojiType.FUNNY);
-        assertNotNull(result);
-        assertEquals("test", result.username);
-        assertEquals(Emoji.EmojiType.FUNNY, result.emoji);
-
-        // try with invalid player id
-        result = sut.sendEmoji(42L, Emoji.EmojiType.SAD);
-        assertNull(result);
+        sut.sendEmoji(sessionId, playerId, Emoji.EmojiType.FUNNY);
+        sut.sendEmoji(sessionId, playerId, Emoji.EmojiType.FUNNY);
+        sut.publishEmojis();
+
+        assertEquals(1, sent.size());
+        String destination = SimpMessageHeaderAccessor.getDestination(sent.get(0).getHeaders());
+        assertEquals("/updates/emoji/" + sessionId, destination);
+        assertEquals(List.of(new Emoji("test", Emoji.EmojiType.FUNNY, 2)), sent.get(0).getPayload());
+    }
+
+    @Test
+    public void testSendEmojiInvalidPlayer() {
+        sut.sendEmoji(sessionId, 42L, Emoji.EmojiType.SAD);
+        sut.publishEmojis();
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    public void testSendEmojiInvalidSession() {
+        sut.sendEmoji(42L, playerId, Emoji.EmojiType.FUNNY);
+        sut.publishEmojis();
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    public void testPublishEmojisNothingSent() {
+        sut.publishEmojis();
+        assertTrue(sent.isEmpty());
     }
 }
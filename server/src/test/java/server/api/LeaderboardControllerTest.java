@@ -1,12 +1,31 @@
 package server.api;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.LeaderboardDelta;
+import commons.LeaderboardEntry;
+import commons.MatchResult;
 import commons.Player;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-
+import org.springframework.web.context.request.async.DeferredResult;
+import server.service.BroadcastEncoder;
+import server.service.LeaderboardFeed;
+import server.service.LeaderboardIndex;
+import server.service.PlayerCache;
+import server.service.ScoreStore;
+import server.service.ScoreWriteBuffer;
+import server.service.WindowedLeaderboards;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 
@@ -16,6 +35,11 @@ class LeaderboardControllerTest {
 
     private Random random;
     private TestPlayerRepository testRepo;
+    private TestScoreRepository scoreRepo;
+    private TestMatchResultRepository resultRepo;
+    private LeaderboardFeed feed;
+    private BroadcastEncoder encoder;
+    private PlayerCache players;
 
     private LeaderboardController lbc;
 
@@ -23,12 +47,21 @@ class LeaderboardControllerTest {
     public void setup() {
         random = new Random();
         testRepo = new TestPlayerRepository();
-        lbc = new LeaderboardController(testRepo);
+        scoreRepo = new TestScoreRepository(testRepo);
+        feed = new LeaderboardFeed();
+        encoder = new BroadcastEncoder(new ObjectMapper());
+        players = new PlayerCache(PlayerCache.DEFAULT_CAPACITY);
+        resultRepo = new TestMatchResultRepository();
+        lbc = new LeaderboardController(testRepo, scoreRepo, resultRepo, feed, new LeaderboardIndex(), encoder,
+                players, new ScoreStore(testRepo, scoreRepo),
+                new ScoreWriteBuffer(), new WindowedLeaderboards());
     }
 
     @Test
     public void constructorTest() {
-        LeaderboardController temp = new LeaderboardController(testRepo);
+        LeaderboardController temp = new LeaderboardController(testRepo, scoreRepo, resultRepo, feed,
+                new LeaderboardIndex(), encoder, players, new ScoreStore(testRepo, scoreRepo),
+                new ScoreWriteBuffer(), new WindowedLeaderboards());
         assertNotNull(temp);
     }
 
@@ -71,6 +104,27 @@ class LeaderboardControllerTest {
         assertEquals(player, result);
     }
 
+    @Test
+    public void testGetPlayerByUsernameCached() {
+        Player player = lbc.addPlayerForcibly(new Player("David", 10)).getBody();
+        lbc.getPlayerByUsername("David");
+        testRepo.calledMethods.clear();
+
+        assertEquals(player, lbc.getPlayerByUsername("David").getBody());
+        assertTrue(testRepo.calledMethods.isEmpty());
+        assertEquals(1, players.getHits());
+    }
+
+    @Test
+    public void testGetPlayerByUsernameAfterSave() {
+        Player player = lbc.addPlayerForcibly(new Player("David", 10)).getBody();
+        lbc.getPlayerByUsername("David");
+
+        lbc.updateBestSingleScore(player.id, 100);
+        assertEquals(0, players.size());
+        assertEquals(100, lbc.getPlayerByUsername("David").getBody().bestSingleScore);
+    }
+
     @Test
     public void updateBestSurvivalScore() {
         Player player = new Player("David", 10);
@@ -115,23 +169,118 @@ class LeaderboardControllerTest {
 
     @Test
     public void testCommitMultiplayerUpdatesNoCommit() {
-        var resp = lbc.getLeaderboardUpdates();
+        var resp = lbc.getLeaderboardUpdates(currentVersions());
         resp.onCompletion(() -> assertFalse(resp.hasResult()));
         lbc.commitMultiplayerUpdates();
+        assertFalse(resp.hasResult());
     }
 
     @Test
     public void testCommitMultiplayerUpdates() {
         Player player = new Player("David", 10);
         lbc.addPlayerForcibly(player);
+        var versions = currentVersions();
 
         lbc.updateBestMultiScore(1L, 100);
-        var expected = lbc.getPlayerMultiScores().getBody();
-        assertNotNull(expected);
+        var resp = lbc.getLeaderboardUpdates(versions);
+        assertFalse(resp.hasResult());
 
-        var resp = lbc.getLeaderboardUpdates();
-        resp.onCompletion(() -> assertEquals(expected, resp.getResult()));
         lbc.commitMultiplayerUpdates();
+        assertTrue(resp.hasResult());
+        var deltas = decodeDeltas(resp);
+        assertNotNull(deltas);
+        assertEquals(1, deltas.size());
+        assertEquals("multi", deltas.get(0).mode);
+        assertEquals(List.of(new LeaderboardEntry(1L, "David", 100, 0)), deltas.get(0).moved);
+    }
+
+    @Test
+    public void testGetLeaderboardUpdatesInitialSnapshot() {
+        lbc.addPlayerForcibly(new Player("David", 10));
+        lbc.updateBestSingleScore(1L, 20);
+
+        var resp = lbc.getLeaderboardUpdates(Map.of());
+        assertTrue(resp.hasResult());
+        var deltas = decodeDeltas(resp);
+        assertNotNull(deltas);
+        assertEquals(ScoreStore.GAME_MODES.size(), deltas.size());
+
+        List<LeaderboardEntry> single = new ArrayList<>();
+        deltas.stream().filter(d -> d.mode.equals("single")).forEach(d -> d.applyTo(single));
+        assertEquals(List.of(new LeaderboardEntry(1L, "David", 20, 0)), single);
+    }
+
+    @Test
+    public void testGetLeaderboardUpdatesInvalidVersion() {
+        var versions = currentVersions();
+        versions.put("single", "abc");
+        var resp = lbc.getLeaderboardUpdates(versions);
+        assertTrue(resp.hasResult());
+        var deltas = decodeDeltas(resp);
+        assertNotNull(deltas);
+        assertEquals(1, deltas.size());
+        assertEquals("single", deltas.get(0).mode);
+    }
+
+    @Test
+    public void testGetLeaderboardUpdatesSingleScore() {
+        lbc.addPlayerForcibly(new Player("David", 10));
+        var versions = currentVersions();
+
+        var resp = lbc.getLeaderboardUpdates(versions);
+        lbc.updateBestSingleScore(1L, 20);
+        assertTrue(resp.hasResult());
+        var deltas = decodeDeltas(resp);
+        assertNotNull(deltas);
+        assertEquals(1, deltas.size());
+        assertEquals(Long.parseLong(versions.get("single")) + 1, deltas.get(0).version);
+    }
+
+    @Test
+    public void testLeaderboardBroadcastEncodedOncePerVersion() {
+        lbc.addPlayerForcibly(new Player("David", 10));
+        var versions = currentVersions();
+        List<DeferredResult<ResponseEntity<byte[]>>> listeners = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) listeners.add(lbc.getLeaderboardUpdates(versions));
+
+        long before = encoder.getEncodings();
+        lbc.updateBestSingleScore(1L, 20);
+        assertEquals(before + 1, encoder.getEncodings());
+
+        var encoded = ((ResponseEntity<?>) listeners.get(0).getResult()).getBody();
+        for (var listener : listeners) {
+            assertSame(encoded, ((ResponseEntity<?>) listener.getResult()).getBody());
+        }
+    }
+
+    /**
+     * Decode the leaderboard deltas sent to a listener
+     *
+     * @param resp The listener's deferred result
+     * @return The deltas the listener received
+     */
+    private static List<LeaderboardDelta> decodeDeltas(DeferredResult<ResponseEntity<byte[]>> resp) {
+        var body = (byte[]) ((ResponseEntity<?>) resp.getResult()).getBody();
+        try {
+            return new ObjectMapper().readValue(body, new TypeReference<List<LeaderboardDelta>>() {
+            });
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Seed the leaderboard feed and get the versions of all rankings
+     *
+     * @return The current version of every game mode's ranking, as query parameters
+     */
+    private Map<String, String> currentVersions() {
+        lbc.getLeaderboardUpdates(Map.of());
+        Map<String, String> versions = new HashMap<>();
+        for (String mode : ScoreStore.GAME_MODES) {
+            versions.put(mode, String.valueOf(feed.getVersion(mode)));
+        }
+        return versions;
     }
 
     @Test
@@ -155,50 +304,44 @@ class LeaderboardControllerTest {
         var savedPlayer1 = lbc.addPlayerForcibly(new Player("test1", 10)).getBody();
         var savedPlayer2 = lbc.addPlayerForcibly(new Player("test2", 20)).getBody();
         var savedPlayer3 = lbc.addPlayerForcibly(new Player("test3", 30)).getBody();
-        var list = lbc.getPlayerSingleScores();
+        var list = lbc.getPlayerSingleScores(null, null, null, null, null);
         var temp = list.getBody();
-        System.out.println(temp.size());
         assertEquals(3, temp.size());
-        System.out.println(temp.toString());
-        assertEquals(savedPlayer3, temp.get(0));
-        assertEquals(savedPlayer2, temp.get(1));
-        assertEquals(savedPlayer1, temp.get(2));
+        assertEquals(new LeaderboardEntry(savedPlayer3.id, "test3", 30, 0), temp.get(0));
+        assertEquals(new LeaderboardEntry(savedPlayer2.id, "test2", 20, 1), temp.get(1));
+        assertEquals(new LeaderboardEntry(savedPlayer1.id, "test1", 10, 2), temp.get(2));
     }
 
     @Test
     public void testGetPlayerTimeAttackScores() {
         var savedPlayer1 = lbc.addPlayerForcibly(new Player("test1", 10)).getBody();
-        savedPlayer1.bestTimeAttackScore = 100;
+        lbc.updateBestTimeAttackScore(savedPlayer1.id, 100);
         var savedPlayer2 = lbc.addPlayerForcibly(new Player("test2", 20)).getBody();
-        savedPlayer2.bestTimeAttackScore = 90;
+        lbc.updateBestTimeAttackScore(savedPlayer2.id, 90);
         var savedPlayer3 = lbc.addPlayerForcibly(new Player("test3", 30)).getBody();
-        savedPlayer3.bestTimeAttackScore = 80;
-        var list = lbc.getPlayerTimeAttackScores();
+        lbc.updateBestTimeAttackScore(savedPlayer3.id, 80);
+        var list = lbc.getPlayerTimeAttackScores(null, null, null, null, null);
         var temp = list.getBody();
-        System.out.println(temp.size());
         assertEquals(3, temp.size());
-        System.out.println(temp.toString());
-        assertEquals(savedPlayer1, temp.get(0));
-        assertEquals(savedPlayer2, temp.get(1));
-        assertEquals(savedPlayer3, temp.get(2));
+        assertEquals(new LeaderboardEntry(savedPlayer1.id, "test1", 100, 0), temp.get(0));
+        assertEquals(new LeaderboardEntry(savedPlayer2.id, "test2", 90, 1), temp.get(1));
+        assertEquals(new LeaderboardEntry(savedPlayer3.id, "test3", 80, 2), temp.get(2));
     }
 
     @Test
     public void testGetPlayerSurvivalScores() {
         var savedPlayer1 = lbc.addPlayerForcibly(new Player("test1", 10)).getBody();
-        savedPlayer1.bestSurvivalScore = 100;
+        lbc.updateBestSurvivalScore(savedPlayer1.id, 100);
         var savedPlayer2 = lbc.addPlayerForcibly(new Player("test2", 20)).getBody();
-        savedPlayer2.bestSurvivalScore = 90;
+        lbc.updateBestSurvivalScore(savedPlayer2.id, 90);
         var savedPlayer3 = lbc.addPlayerForcibly(new Player("test3", 30)).getBody();
-        savedPlayer3.bestSurvivalScore = 80;
-        var list = lbc.getPlayerSurvivalScores();
+        lbc.updateBestSurvivalScore(savedPlayer3.id, 80);
+        var list = lbc.getPlayerSurvivalScores(null, null, null, null, null);
         var temp = list.getBody();
-        System.out.println(temp.size());
         assertEquals(3, temp.size());
-        System.out.println(temp.toString());
-        assertEquals(savedPlayer1, temp.get(0));
-        assertEquals(savedPlayer2, temp.get(1));
-        assertEquals(savedPlayer3, temp.get(2));
+        assertEquals(new LeaderboardEntry(savedPlayer1.id, "test1", 100, 0), temp.get(0));
+        assertEquals(new LeaderboardEntry(savedPlayer2.id, "test2", 90, 1), temp.get(1));
+        assertEquals(new LeaderboardEntry(savedPlayer3.id, "test3", 80, 2), temp.get(2));
     }
 
     @Test
@@ -206,14 +349,173 @@ class LeaderboardControllerTest {
         var savedPlayer1 = lbc.addPlayerForcibly(new Player("test1", 10)).getBody();
         var savedPlayer2 = lbc.addPlayerForcibly(new Player("test2", 20)).getBody();
         var savedPlayer3 = lbc.addPlayerForcibly(new Player("test3", 30)).getBody();
-        var list = lbc.getPlayerMultiScores();
+        var list = lbc.getPlayerMultiScores(null, null, null, null, null);
         var temp = list.getBody();
-        System.out.println(temp.size());
         assertEquals(3, temp.size());
-        System.out.println(temp.toString());
-        assertEquals(savedPlayer3, temp.get(0));
-        assertEquals(savedPlayer2, temp.get(1));
-        assertEquals(savedPlayer1, temp.get(2));
+        assertEquals(savedPlayer3.id, temp.get(0).playerId);
+        assertEquals(savedPlayer2.id, temp.get(1).playerId);
+        assertEquals(savedPlayer1.id, temp.get(2).playerId);
+    }
+
+    @Test
+    public void testGetScoresPaged() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 5; ++i) ids.add(lbc.addPlayerForcibly(new Player("test" + i, i * 10)).getBody().id);
+
+        var page = lbc.getPlayerSingleScores(2, 1, null, null, null).getBody();
+        assertEquals(List.of(new LeaderboardEntry(ids.get(3), "test4", 40, 1),
+                new LeaderboardEntry(ids.get(2), "test3", 30, 2)), page);
+
+        var next = lbc.getPlayerSingleScores(2, null, 30, ids.get(2), null).getBody();
+        assertEquals(List.of(new LeaderboardEntry(ids.get(1), "test2", 20, 3),
+                new LeaderboardEntry(ids.get(0), "test1", 10, 4)), next);
+    }
+
+    @Test
+    public void testGetScoresInvalidPage() {
+        assertEquals(HttpStatus.BAD_REQUEST, lbc.getPlayerSingleScores(0, null, null, null, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, lbc.getPlayerSingleScores(LeaderboardController.MAX_PAGE_SIZE + 1,
+                null, null, null, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, lbc.getPlayerSingleScores(null, -1, null, null, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, lbc.getPlayerSingleScores(null, null, 10, null, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, lbc.getPlayerSingleScores(null, 1, 10, 1L, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, lbc.getPlayerSingleScores(null, null, null, null, "year").getStatusCode());
+    }
+
+    @Test
+    public void testGetScoresInWindow() {
+        var old = testRepo.save(new Player("old", 0));
+        var recent = testRepo.save(new Player("recent", 0));
+        long now = System.currentTimeMillis();
+        resultRepo.save(new MatchResult(old.id, "old", "single", 300, now - Duration.ofDays(3).toMillis()));
+        resultRepo.save(new MatchResult(old.id, "old", "single", 50, now - Duration.ofDays(100).toMillis()));
+        lbc.seedRankings();
+
+        lbc.submitBestScore("single", recent, 100);
+        lbc.submitBestScore("single", recent, 80);
+
+        assertEquals(List.of(new LeaderboardEntry(recent.id, "recent", 100, 0)),
+                lbc.getPlayerSingleScores(null, null, null, null, "day").getBody());
+        assertEquals(List.of(new LeaderboardEntry(old.id, "old", 300, 0),
+                        new LeaderboardEntry(recent.id, "recent", 100, 1)),
+                lbc.getPlayerSingleScores(null, null, null, null, "week").getBody());
+        assertEquals(List.of(), lbc.getPlayerMultiScores(null, null, null, null, "season").getBody());
+    }
+
+    @Test
+    public void testGetPercentile() {
+        lbc.addPlayerForcibly(new Player("a", 10));
+        lbc.addPlayerForcibly(new Player("b", 20));
+        var saved = lbc.addPlayerForcibly(new Player("c", 0)).getBody();
+        lbc.submitBestScore("single", saved, 30);
+
+        assertEquals(100.0 / 3, lbc.getPercentile("single", 15).getBody(), 1e-9);
+        assertEquals(100.0, lbc.getPercentile("single", 31).getBody());
+        assertEquals(HttpStatus.BAD_REQUEST, lbc.getPercentile("chess", 15).getStatusCode());
+    }
+
+    @Test
+    public void testMatchResultsLogged() {
+        var saved = lbc.addPlayerForcibly(new Player("david", 0)).getBody();
+        lbc.submitBestScore("single", saved, 100);
+        lbc.submitBestScore("single", saved, 80);
+        assertEquals(0, resultRepo.count());
+
+        lbc.flushScores();
+        assertEquals(List.of(100, 80), resultRepo.findAll().stream().map(r -> r.score).toList());
+        lbc.flushScores();
+        assertEquals(2, resultRepo.count());
+    }
+
+    @Test
+    public void testGetPlayerStanding() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1; i <= 5; ++i) ids.add(lbc.addPlayerForcibly(new Player("test" + i, i * 10)).getBody().id);
+
+        var standing = lbc.getPlayerStanding("single", ids.get(1), 1).getBody();
+        assertEquals(new LeaderboardEntry(ids.get(1), "test2", 20, 3), standing.entry);
+        assertEquals(List.of(ids.get(2), ids.get(1), ids.get(0)),
+                standing.neighbours.stream().map(e -> e.playerId).toList());
+        assertEquals(5, standing.total);
+
+        lbc.updateBestSingleScore(ids.get(1), 60);
+        assertEquals(0, lbc.getPlayerStanding("single", ids.get(1), 1).getBody().entry.rank);
+    }
+
+    @Test
+    public void testGetPlayerStandingInvalid() {
+        var saved = lbc.addPlayerForcibly(new Player("test", 0)).getBody();
+        assertEquals(HttpStatus.NOT_FOUND, lbc.getPlayerStanding("single", saved.id, 1).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, lbc.getPlayerStanding("unknown", saved.id, 1).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, lbc.getPlayerStanding("single", saved.id, -1).getStatusCode());
+    }
+
+    @Test
+    public void testScoresMigratedFromPlayerTable() {
+        Player player = new Player("migrated", 0);
+        player.bestSurvivalScore = 42;
+        testRepo.save(player);
+        lbc.seedRankings();
+
+        assertEquals(1, scoreRepo.count());
+        var score = scoreRepo.findAll().get(0);
+        assertEquals(player.id, score.playerId);
+        assertEquals("survival", score.mode);
+        assertEquals(42, score.best);
+
+        // the migration only runs while the score table is empty
+        player.bestSingleScore = 10;
+        lbc.seedRankings();
+        assertEquals(1, scoreRepo.count());
+    }
+
+    @Test
+    public void testBestScoresWrittenToScoreTable() {
+        var saved = lbc.addPlayerForcibly(new Player("david", 10)).getBody();
+        assertEquals(4, scoreRepo.count());
+
+        lbc.updateBestSingleScore(saved.id, 20);
+        lbc.submitBestScore("multi", saved, 30);
+        lbc.flushScores();
+
+        var ranking = scoreRepo.findRanking("single", PageRequest.of(0, 10));
+        assertEquals(List.of(new LeaderboardEntry(saved.id, "david", 20)), ranking);
+        assertEquals(30, scoreRepo.findRanking("multi", PageRequest.of(0, 10)).get(0).score);
+        assertEquals(4, scoreRepo.count());
+    }
+
+    @Test
+    public void testAddPlayerForciblyOverwritesScoreTable() {
+        var saved = lbc.addPlayerForcibly(new Player("david", 30)).getBody();
+        Player lowered = new Player("david", 5);
+        lowered.id = saved.id;
+        lbc.addPlayerForcibly(lowered);
+
+        // the score table, the player table and the ranking agree on the lowered score
+        assertEquals(List.of(new LeaderboardEntry(saved.id, "david", 5)),
+                scoreRepo.findRanking("single", PageRequest.of(0, 10)));
+        assertEquals(5, testRepo.findById(saved.id).get().bestSingleScore);
+        assertEquals(5, lbc.getPlayerSingleScores(null, null, null, null, null).getBody().get(0).score);
+    }
+
+    @Test
+    public void testUpdateBestScoreOfUnknownPlayerNotStored() {
+        assertEquals(HttpStatus.BAD_REQUEST, lbc.updateBestSingleScore(42L, 100).getStatusCode());
+        assertEquals(0, scoreRepo.count());
+    }
+
+    @Test
+    public void testRankingsSeededFromRepository() {
+        Player player = new Player("seeded", 0);
+        player.bestSingleScore = 42;
+        testRepo.save(player);
+        lbc.seedRankings();
+        testRepo.calledMethods.clear();
+
+        var list = lbc.getPlayerSingleScores(null, null, null, null, null).getBody();
+        assertEquals(List.of(new LeaderboardEntry(player.id, "seeded", 42, 0)), list);
+        assertEquals(List.of(), lbc.getPlayerMultiScores(null, null, null, null, null).getBody());
+        assertTrue(testRepo.calledMethods.isEmpty());
     }
 
     @Test
@@ -224,6 +526,95 @@ class LeaderboardControllerTest {
         assertEquals(200, savedPlayer1.getBestSingleScore());
     }
 
+    @Test
+    public void testUpdateBestScoreSingleStatement() {
+        var saved = lbc.addPlayerForcibly(new Player("david", 10)).getBody();
+        testRepo.calledMethods.clear();
+
+        lbc.updateBestSingleScore(saved.id, 200);
+        assertEquals(List.of("raiseBestScores", "findById"), testRepo.calledMethods);
+    }
+
+    @Test
+    public void testUpdateBestScoreWithoutImprovementNotBroadcast() {
+        var saved = lbc.addPlayerForcibly(new Player("david", 10)).getBody();
+        lbc.updateBestSingleScore(saved.id, 20);
+        long version = feed.getVersion("single");
+
+        lbc.updateBestSingleScore(saved.id, 15);
+        assertEquals(version, feed.getVersion("single"));
+        assertEquals(20, lbc.getPlayerById(saved.id).getBody().bestSingleScore);
+
+        lbc.updateBestMultiScore(saved.id, 5);
+        lbc.commitMultiplayerUpdates();
+        assertEquals(0L, feed.getVersion("multi"));
+    }
+
+    @Test
+    public void testSubmitBestScoreWriteBehind() {
+        var saved = lbc.addPlayerForcibly(new Player("david", 10)).getBody();
+        testRepo.calledMethods.clear();
+
+        lbc.submitBestScore("single", saved, 200);
+        lbc.submitBestScore("single", saved, 100);
+        assertTrue(testRepo.calledMethods.isEmpty());
+        assertEquals(10, saved.bestSingleScore);
+
+        // reads see the queued score before it is written
+        assertEquals(200, lbc.getPlayerSingleScores(null, null, null, null, null).getBody().get(0).score);
+        assertEquals(200, lbc.getPlayerById(saved.id).getBody().bestSingleScore);
+
+        lbc.flushScores();
+        assertTrue(testRepo.calledMethods.contains("raiseBestScores"));
+        testRepo.calledMethods.clear();
+        lbc.flushScores();
+        assertTrue(testRepo.calledMethods.isEmpty());
+
+        // a buffer that is not full waits for the flush interval
+        lbc.submitBestScore("single", saved, 300);
+        lbc.flushScoresIfDue();
+        assertTrue(testRepo.calledMethods.isEmpty());
+    }
+
+    @Test
+    public void testPendingScoresNotAppliedToCachedPlayer() {
+        var saved = lbc.addPlayerForcibly(new Player("david", 10)).getBody();
+        saved.setCurrentPoints(5);
+        Player cached = lbc.getPlayerByUsername("david").getBody();
+        lbc.submitBestScore("single", saved, 200);
+
+        Player read = lbc.getPlayerByUsername("david").getBody();
+        assertEquals(200, read.bestSingleScore);
+        assertEquals(0, read.currentPoints);
+        assertNotSame(cached, read);
+        // the cached player still holds the stored scores
+        assertEquals(10, cached.bestSingleScore);
+        assertSame(cached, players.get("david", username -> Optional.empty()).get());
+        assertEquals(200, lbc.getPlayerById(saved.id).getBody().bestSingleScore);
+    }
+
+    @Test
+    public void testSubmitBestScoreFlushesFullBuffer() {
+        List<Player> saved = new ArrayList<>();
+        for (int i = 0; i < ScoreWriteBuffer.FLUSH_SIZE; ++i) {
+            saved.add(lbc.addPlayerForcibly(new Player("p" + i, 0)).getBody());
+        }
+        lbc.flushScores();
+        testRepo.calledMethods.clear();
+        scoreRepo.calledMethods.clear();
+        for (Player p : saved) lbc.submitBestScore("multi", p, 100);
+        lbc.commitMultiplayerUpdates();
+
+        // a full buffer is left to the scheduled flush, which writes it without waiting for the flush interval
+        assertTrue(testRepo.calledMethods.isEmpty());
+        lbc.flushScoresIfDue();
+        // the whole buffer is written with one batch per table
+        assertEquals(List.of("raiseBestScores"), testRepo.calledMethods);
+        assertEquals(1L, scoreRepo.calledMethods.stream().filter("raiseBest"::equals).count());
+        for (Player p : saved) assertEquals(100, testRepo.findById(p.id).get().bestMultiScore);
+        assertEquals(1L, feed.getVersion("multi"));
+    }
+
     @Test
     public void updateBestMultiScore() {
         var savedPlayer1 = lbc.addPlayerForcibly(new Player("david", 10)).getBody();
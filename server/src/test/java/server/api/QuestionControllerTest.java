@@ -1,13 +1,27 @@
 package server.api;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import commons.*;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import server.service.BroadcastEncoder;
+import server.service.LeaderboardFeed;
+import server.service.LeaderboardIndex;
+import server.service.PlayerCache;
+import server.service.ScoreStore;
+import server.service.ScoreWriteBuffer;
+import server.service.WindowedLeaderboards;
 import server.service.SessionManager;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Random;
 
@@ -34,9 +48,18 @@ public class QuestionControllerTest {
     @BeforeEach
     public void setupEach() {
         playerRepo = new TestPlayerRepository();
-        leaderboardController = new LeaderboardController(playerRepo);
+        BroadcastEncoder encoder = new BroadcastEncoder(new ObjectMapper());
+        PlayerCache players = new PlayerCache(PlayerCache.DEFAULT_CAPACITY);
+        TestScoreRepository scoreRepo = new TestScoreRepository(playerRepo);
+        TestMatchResultRepository resultRepo = new TestMatchResultRepository();
+        leaderboardController = new LeaderboardController(playerRepo, scoreRepo, resultRepo, new LeaderboardFeed(),
+                new LeaderboardIndex(), encoder, players, new ScoreStore(playerRepo, scoreRepo),
+                new ScoreWriteBuffer(), new WindowedLeaderboards());
+        var sessionLeaderboard = new LeaderboardController(playerRepo, scoreRepo, resultRepo, new LeaderboardFeed(),
+                new LeaderboardIndex(), encoder, players, new ScoreStore(playerRepo, scoreRepo),
+                new ScoreWriteBuffer(), new WindowedLeaderboards());
         sessionCtrl = new SessionController(new Random(), playerRepo, "test", new SessionManager(),
-                activityCtrl, new LeaderboardController(playerRepo));
+                activityCtrl, sessionLeaderboard, encoder, players);
 
         ResponseEntity<GameSession> cur = sessionCtrl.addSession(
                 new GameSession(GameSession.SessionType.MULTIPLAYER, List.of(new Player("test", 0))));
@@ -81,7 +104,7 @@ public class QuestionControllerTest {
     @Test
     public void submitAnswerSpecialModesTest() {
         GameSession s = sessionCtrl.addSession(new GameSession(GameSession.SessionType.SURVIVAL,
-                List.of(new Player("test", 0)))).getBody();
+                List.of(new Player("survivor", 0)))).getBody();
 
         assertNotNull(s);
         sut.submitAnswer(s.id, s.getPlayers().get(0).id, new Answer(s.expectedAnswers, s.currentQuestion.type));
@@ -177,4 +200,25 @@ public class QuestionControllerTest {
         ResponseEntity<List<Long>> resp = sut.getCorrectAnswers(42L);
         assertEquals(HttpStatus.BAD_REQUEST, resp.getStatusCode());
     }
+
+    @Test
+    public void testFetchMissingImage() {
+        MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/questions/image/missing.png");
+        ResponseEntity<byte[]> resp = sut.fetchImage(req, null);
+        assertEquals(HttpStatus.OK, resp.getStatusCode());
+        assertNull(resp.getBody());
+        assertNull(resp.getHeaders().getETag());
+    }
+
+    @Test
+    public void testImageTagChangesWithFile(@TempDir Path dir) throws IOException {
+        File file = dir.resolve("image.png").toFile();
+        Files.write(file.toPath(), new byte[]{1, 2, 3});
+        String tag = QuestionController.imageTag(file);
+        assertEquals(tag, QuestionController.imageTag(file));
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""));
+
+        Files.write(file.toPath(), new byte[]{1, 2, 3, 4});
+        assertNotEquals(tag, QuestionController.imageTag(file));
+    }
 }
@@ -19,14 +19,25 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.OK;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import commons.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+import server.service.BroadcastEncoder;
+import server.service.LeaderboardFeed;
+import server.service.LeaderboardIndex;
+import server.service.PlayerCache;
+import server.service.ScoreStore;
+import server.service.ScoreWriteBuffer;
+import server.service.WindowedLeaderboards;
 
 public class SessionControllerTest {
 
@@ -36,6 +47,7 @@ public class SessionControllerTest {
     private TestActivityRepository activityRepo;
     private StubSessionManager stubSessionManager;
     private LeaderboardController lbc;
+    private BroadcastEncoder encoder;
 
     private SessionController sut;
     private GameSession first;
@@ -53,9 +65,14 @@ public class SessionControllerTest {
         activityRepo.save(new Activity("test4", 45L, "test4", "test4"));
 
         stubSessionManager = new StubSessionManager();
-        lbc = new LeaderboardController(playerRepo);
+        encoder = new BroadcastEncoder(new ObjectMapper());
+        PlayerCache players = new PlayerCache(PlayerCache.DEFAULT_CAPACITY);
+        TestScoreRepository scoreRepo = new TestScoreRepository(playerRepo);
+        lbc = new LeaderboardController(playerRepo, scoreRepo, new TestMatchResultRepository(), new LeaderboardFeed(),
+                new LeaderboardIndex(), encoder, players, new ScoreStore(playerRepo, scoreRepo),
+                new ScoreWriteBuffer(), new WindowedLeaderboards());
         sut = new SessionController(random, playerRepo, "test", stubSessionManager,
-                new ActivityController(new Random(), activityRepo), lbc);
+                new ActivityController(new Random(), activityRepo), lbc, encoder, players);
         first = new GameSession(GameSession.SessionType.MULTIPLAYER);
         waiting = new GameSession(GameSession.SessionType.WAITING_AREA);
         singleplayer = new GameSession(GameSession.SessionType.SINGLEPLAYER);
@@ -70,6 +87,36 @@ public class SessionControllerTest {
         assertTrue(sut.isUsernameActive("beniGhost"));
     }
 
+    @Test
+    public void testAddPlayerRegistersOnlyNewPlayers() {
+        sut.addSession(waiting);
+        sut.addSession(first);
+        Player p = sut.addPlayer(waiting.id, new Player("beniGhost", 1337)).getBody();
+        assertNotEquals(0L, p.id);
+        assertEquals(1, playerRepo.count());
+
+        playerRepo.calledMethods.clear();
+        sut.removePlayer(waiting.id, p.id);
+        sut.addPlayer(first.id, p);
+        assertFalse(playerRepo.calledMethods.contains("save"));
+        assertEquals(1, playerRepo.count());
+    }
+
+    @Test
+    public void testAddPlayerRejectsTakenUsername() {
+        sut.addSession(waiting);
+        sut.addSession(first);
+        Player stored = sut.addPlayer(waiting.id, new Player("beniGhost", 1337)).getBody();
+        sut.removePlayer(waiting.id, stored.id);
+
+        assertEquals(BAD_REQUEST, sut.addPlayer(first.id, new Player("beniGhost", 0)).getStatusCode());
+        assertEquals(1, playerRepo.count());
+
+        // a returning player joins with the id it was stored with
+        assertEquals(stored.id, sut.addPlayer(first.id, stored).getBody().id);
+        assertEquals(1, playerRepo.count());
+    }
+
     @Test
     public void testSetGameRounds() {
         first = sut.addSession(first).getBody();
@@ -145,8 +192,42 @@ public class SessionControllerTest {
                 new Player("Fesing M", 1337)));
 
         var resp = sut.getSelectionRoomUpdates();
-        resp.onCompletion(() -> assertEquals(gs, resp.getResult()));
         sut.addWaitingArea(gs);
+        assertTrue(resp.hasResult());
+        assertEquals(gs.id, decodeSession(resp).id);
+    }
+
+    @Test
+    public void testSelectionRoomBroadcastEncodedOnce() {
+        List<DeferredResult<ResponseEntity<byte[]>>> listeners = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) listeners.add(sut.getSelectionRoomUpdates());
+
+        long before = encoder.getEncodings();
+        sut.addWaitingArea(new GameSession(GameSession.SessionType.WAITING_AREA, List.of(new Player("test", 0))));
+        assertEquals(before + 1, encoder.getEncodings());
+
+        var encoded = ((ResponseEntity<?>) listeners.get(0).getResult()).getBody();
+        assertNotNull(encoded);
+        for (var listener : listeners) {
+            var resp = (ResponseEntity<?>) listener.getResult();
+            assertSame(encoded, resp.getBody());
+            assertEquals("[add]", resp.getHeaders().get("X-operation").toString());
+        }
+    }
+
+    /**
+     * Decode the session sent to a selection room listener
+     *
+     * @param resp The listener's deferred result
+     * @return The session the listener received
+     */
+    private static GameSession decodeSession(DeferredResult<ResponseEntity<byte[]>> resp) {
+        var body = (byte[]) ((ResponseEntity<?>) resp.getResult()).getBody();
+        try {
+            return new ObjectMapper().readValue(body, GameSession.class);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
     }
 
     @Test
@@ -165,7 +246,7 @@ public class SessionControllerTest {
 
         var resp2 = sut.getSelectionRoomUpdates();
         resp2.onCompletion(() -> {
-            GameSession sess = (GameSession) resp2.getResult();
+            GameSession sess = decodeSession(resp2);
             assertEquals(GameSession.SessionType.MULTIPLAYER, sess.sessionType);
             assertEquals(GameSession.SessionStatus.STARTED, sess.sessionStatus);
             assertEquals(1, sess.questionCounter);
@@ -433,6 +514,36 @@ public class SessionControllerTest {
         assertEquals(sut.getSessionById(1L).getBody(), first);
     }
 
+    @Test
+    public void getSessionNotModifiedTest() throws IOException {
+        first = sut.addSession(first).getBody();
+
+        var res = sut.getSessionIfModified(first.id, null);
+        String etag = res.getHeaders().getETag();
+        assertEquals(OK, res.getStatusCode());
+        assertNotNull(etag);
+
+        long encodings = encoder.getEncodings();
+        res = sut.getSessionIfModified(first.id, etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, res.getStatusCode());
+        assertNull(res.getBody());
+
+        sut.setGameRounds(first.id, 1337);
+        res = sut.getSessionIfModified(first.id, etag);
+        assertEquals(OK, res.getStatusCode());
+        assertNotEquals(etag, res.getHeaders().getETag());
+        assertEquals(1337, new ObjectMapper().readValue(res.getBody(), GameSession.class).gameRounds);
+
+        // the session is encoded once per poll, for the tag and the body together
+        assertEquals(encodings + 2, encoder.getEncodings());
+    }
+
+    @Test
+    public void getSessionByIdInvalidTest() {
+        assertEquals(BAD_REQUEST, sut.getSessionById(42L).getStatusCode());
+        assertEquals(BAD_REQUEST, sut.getSessionIfModified(42L, null).getStatusCode());
+    }
+
     @Test
     public void addSessionTest() {
         sut.addSession(first);
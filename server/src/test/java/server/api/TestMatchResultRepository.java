@@ -0,0 +1,32 @@
+package server.api;
+
+import commons.MatchResult;
+import org.springframework.data.domain.Pageable;
+import server.database.MatchResultRepository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TestMatchResultRepository extends StubRepository<MatchResult, Long> implements MatchResultRepository {
+
+    public TestMatchResultRepository() {
+        super(MatchResult.class);
+    }
+
+    /**
+     * the games that ended at or after the given time in the TestMatchResultRepository
+     *
+     * @param since    the time from which to return games
+     * @param pageable the page to return
+     * @return a page of match results, ordered by the time the game ended
+     */
+    @Override
+    public List<MatchResult> findByFinishedAtGreaterThanEqualOrderByFinishedAt(long since, Pageable pageable) {
+        calledMethods.add("findByFinishedAtGreaterThanEqualOrderByFinishedAt");
+        return db.values().stream().filter(r -> r.finishedAt >= since)
+                .sorted(Comparator.comparingLong((MatchResult r) -> r.finishedAt).thenComparingLong(r -> r.id))
+                .skip(pageable.getOffset()).limit(pageable.getPageSize())
+                .collect(Collectors.toList());
+    }
+}
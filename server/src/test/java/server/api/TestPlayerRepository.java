@@ -1,10 +1,17 @@
 package server.api;
 
 import commons.Player;
+import org.springframework.data.domain.Pageable;
 import server.database.PlayerRepository;
+import server.service.ScoreStore;
 
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 public class TestPlayerRepository extends StubRepository<Player, Long> implements PlayerRepository {
@@ -13,50 +20,92 @@ public class TestPlayerRepository extends StubRepository<Player, Long> implement
     }
 
     /**
-     * the sorting in the TestPlayerRepository for Best Single Score
+     * the lookup of a player by username in the TestPlayerRepository
      *
-     * @return a list of players sorted by the best Single Score
+     * @param username the username of the player
+     * @return the first player with the given username, if any
      */
     @Override
-    public List<Player> findByOrderByBestSingleScoreDesc() {
-        var returnList = findAll().stream().sorted(Comparator
-                .comparing(Player::getBestSingleScore).reversed()).collect(Collectors.toList());
-        return returnList;
+    public Optional<Player> findByUsername(String username) {
+        return findAll().stream().filter(p -> username.equals(p.username)).findFirst();
     }
 
     /**
-     * the sorting in the TestPlayerRepository for Best Multi Score
+     * the filtering and sorting in the TestPlayerRepository for Best Single Score
      *
-     * @return a list of players sorted by the best Multi Score
+     * @param score    the score players must exceed
+     * @param pageable the page to return
+     * @return a page of players sorted by the best Single Score
      */
     @Override
-    public List<Player> findByOrderByBestMultiScoreDesc() {
-        var returnList = findAll().stream().sorted(Comparator
-                .comparing(Player::getBestMultiScore).reversed()).collect(Collectors.toList());
-        return returnList;
+    public List<Player> findByBestSingleScoreGreaterThanOrderByBestSingleScoreDesc(int score, Pageable pageable) {
+        return page(Player::getBestSingleScore, score, pageable);
     }
 
     /**
-     * the sorting in the TestPlayerRepository for Best time attack Score
+     * the filtering and sorting in the TestPlayerRepository for Best Multi Score
      *
-     * @return a list of players sorted by the best time attack Score
+     * @param score    the score players must exceed
+     * @param pageable the page to return
+     * @return a page of players sorted by the best Multi Score
      */
     @Override
-    public List<Player> findByOrderByBestTimeAttackScoreDesc() {
-        var returnList = findAll().stream().sorted(Comparator
-                .comparing(Player::getBestTimeAttackScore).reversed()).collect(Collectors.toList());
-        return returnList;
+    public List<Player> findByBestMultiScoreGreaterThanOrderByBestMultiScoreDesc(int score, Pageable pageable) {
+        return page(Player::getBestMultiScore, score, pageable);
     }
 
     /**
-     * the sorting in the TestPlayerRepository for Best Survival Score
+     * the filtering and sorting in the TestPlayerRepository for Best time attack Score
      *
-     * @return a list of players sorted by their best survival score
+     * @param score    the score players must exceed
+     * @param pageable the page to return
+     * @return a page of players sorted by the best time attack Score
      */
-    public List<Player> findByOrderByBestSurvivalScoreDesc() {
-        var returnList = findAll().stream().sorted(Comparator
-                .comparing(Player::getBestSurvivalScore).reversed()).collect(Collectors.toList());
-        return returnList;
+    @Override
+    public List<Player> findByBestTimeAttackScoreGreaterThanOrderByBestTimeAttackScoreDesc(int score,
+                                                                                           Pageable pageable) {
+        return page(Player::getBestTimeAttackScore, score, pageable);
+    }
+
+    /**
+     * the filtering and sorting in the TestPlayerRepository for Best Survival Score
+     *
+     * @param score    the score players must exceed
+     * @param pageable the page to return
+     * @return a page of players sorted by their best survival score
+     */
+    @Override
+    public List<Player> findByBestSurvivalScoreGreaterThanOrderByBestSurvivalScoreDesc(int score,
+                                                                                       Pageable pageable) {
+        return page(Player::getBestSurvivalScore, score, pageable);
+    }
+
+    /**
+     * the batch of conditional updates in the TestPlayerRepository
+     *
+     * @param mode   the game mode of the scores
+     * @param scores the new best score of every player, by player id
+     * @return the ids of the players whose best score improved
+     */
+    @Override
+    public Set<Long> raiseBestScores(String mode, Map<Long, Integer> scores) {
+        calledMethods.add("raiseBestScores");
+        Set<Long> raised = new HashSet<>();
+        scores.forEach((id, points) -> {
+            Player p = db.get(id);
+            if (p == null || ScoreStore.scoreOf(p, mode) >= points) return;
+            ScoreStore.setScore(p, mode, points);
+            p.setCurrentPoints(0);
+            raised.add(id);
+        });
+        return raised;
+    }
+
+    private List<Player> page(ToIntFunction<Player> scoreOf, int score, Pageable pageable) {
+        return findAll().stream().filter(p -> scoreOf.applyAsInt(p) > score)
+                .sorted(Comparator.comparingInt(scoreOf).reversed())
+                .skip(pageable.getOffset()).limit(pageable.getPageSize())
+                .collect(Collectors.toList());
     }
 
 }
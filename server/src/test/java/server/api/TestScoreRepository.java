@@ -0,0 +1,113 @@
+package server.api;
+
+import commons.LeaderboardEntry;
+import commons.Player;
+import commons.Score;
+import org.springframework.data.domain.Pageable;
+import server.database.ScoreRepository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+public class TestScoreRepository extends StubRepository<Score, Long> implements ScoreRepository {
+
+    private final TestPlayerRepository playerRepo;
+
+    /**
+     * Create a score repository stub whose rankings are joined with the given player repository
+     *
+     * @param playerRepo the repository of the players the scores belong to
+     */
+    public TestScoreRepository(TestPlayerRepository playerRepo) {
+        super(Score.class);
+        this.playerRepo = playerRepo;
+    }
+
+    /**
+     * the ranking of a game mode in the TestScoreRepository
+     *
+     * @param mode     the game mode
+     * @param pageable the page to return
+     * @return a page of leaderboard entries, sorted by best score
+     */
+    @Override
+    public List<LeaderboardEntry> findRanking(String mode, Pageable pageable) {
+        calledMethods.add("findRanking");
+        return db.values().stream().filter(s -> s.mode.equals(mode) && s.best > 0)
+                .sorted(Comparator.comparingInt((Score s) -> s.best).reversed().thenComparingLong(s -> s.playerId))
+                .skip(pageable.getOffset()).limit(pageable.getPageSize())
+                .map(s -> new LeaderboardEntry(s.playerId, username(s.playerId), s.best))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * the check whether a player has a score in a game mode in the TestScoreRepository
+     *
+     * @param playerId the id of the player
+     * @param mode     the game mode
+     * @return true iff the player has a score in the game mode
+     */
+    @Override
+    public boolean existsByPlayerIdAndMode(long playerId, String mode) {
+        return find(playerId, mode).isPresent();
+    }
+
+    /**
+     * the batch of conditional updates in the TestScoreRepository
+     *
+     * @param mode       the game mode of the scores
+     * @param scores     the new best score of every player, by player id
+     * @param achievedAt the time at which the scores were reached
+     * @return the number of players whose best score improved
+     */
+    @Override
+    public int raiseBest(String mode, Map<Long, Integer> scores, long achievedAt) {
+        calledMethods.add("raiseBest");
+        int raised = 0;
+        for (Map.Entry<Long, Integer> e : scores.entrySet()) {
+            Optional<Score> score = find(e.getKey(), mode);
+            if (score.isEmpty()) {
+                save(new Score(e.getKey(), mode, e.getValue(), achievedAt));
+            } else if (score.get().best < e.getValue()) {
+                score.get().best = e.getValue();
+                score.get().achievedAt = achievedAt;
+            } else {
+                continue;
+            }
+            ++raised;
+        }
+        return raised;
+    }
+
+    /**
+     * the unconditional update in the TestScoreRepository
+     *
+     * @param mode       the game mode
+     * @param playerId   the id of the player
+     * @param points     the new score
+     * @param achievedAt the time at which the score was reached
+     * @return 1 if the player has a score in the game mode, 0 otherwise
+     */
+    @Override
+    public int replaceBest(String mode, long playerId, int points, long achievedAt) {
+        calledMethods.add("replaceBest");
+        Optional<Score> score = find(playerId, mode);
+        score.ifPresent(s -> {
+            s.best = points;
+            s.achievedAt = achievedAt;
+        });
+        return score.isPresent() ? 1 : 0;
+    }
+
+    private Optional<Score> find(long playerId, String mode) {
+        return db.values().stream().filter(s -> s.playerId == playerId && s.mode.equals(mode)).findFirst();
+    }
+
+    private String username(long playerId) {
+        Player p = playerRepo.db.get(playerId);
+        return (p == null) ? null : p.username;
+    }
+}
@@ -0,0 +1,145 @@
+package server.database;
+
+import commons.LeaderboardEntry;
+import commons.Player;
+import commons.Score;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class ScoreRepositoryTest {
+
+    @Autowired
+    private ScoreRepository scores;
+
+    @Autowired
+    private PlayerRepository players;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private CountingJdbcTemplate jdbc;
+
+    private List<Player> saved;
+
+    @BeforeEach
+    public void setup() {
+        saved = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            Player p = players.save(new Player("p" + i, 0));
+            saved.add(p);
+            scores.save(new Score(p.id, "single", i, 0L));
+            scores.save(new Score(p.id, "multi", 100 - i, 0L));
+        }
+        em.flush();
+    }
+
+    @Test
+    public void testFindRanking() {
+        var page = scores.findRanking("single", PageRequest.of(1, 2));
+        assertEquals(List.of(new LeaderboardEntry(saved.get(97).id, "p97", 97),
+                new LeaderboardEntry(saved.get(96).id, "p96", 96)), page);
+
+        // players without a score are not ranked
+        assertEquals(99, scores.findRanking("single", PageRequest.of(0, 200)).size());
+    }
+
+    @Test
+    public void testRaiseBest() {
+        long first = saved.get(0).id;
+        long last = saved.get(99).id;
+        Player fresh = players.save(new Player("fresh", 0));
+
+        int updated = scores.raiseBest("single", Map.of(first, 500, last, 50, fresh.id, 10), 42L);
+        assertEquals(2, updated);
+
+        var ranking = scores.findRanking("single", PageRequest.of(0, 1));
+        assertEquals(new LeaderboardEntry(first, "p0", 500), ranking.get(0));
+        assertTrue(scores.existsByPlayerIdAndMode(fresh.id, "single"));
+        assertFalse(scores.existsByPlayerIdAndMode(fresh.id, "multi"));
+    }
+
+    @Test
+    public void testRaiseSendsOneBatchPerTable() {
+        Map<Long, Integer> raised = new HashMap<>();
+        saved.forEach(p -> raised.put(p.id, 1000));
+        jdbc.batches.clear();
+
+        Set<Long> ids = saved.stream().map(p -> p.id).collect(Collectors.toSet());
+        assertEquals(ids, players.raiseBestScores("single", raised));
+        assertEquals(100, scores.raiseBest("single", raised, 42L));
+        assertEquals(List.of(100, 100), jdbc.batches);
+
+        // nothing improves the second time, and the batches still report that per player
+        assertEquals(Set.of(), players.raiseBestScores("single", raised));
+        assertEquals(0, scores.raiseBest("single", raised, 43L));
+        assertEquals(1000, players.findById(saved.get(0).id).get().bestSingleScore);
+    }
+
+    @Test
+    public void testRankingReadFromIndex() {
+        String plan = explain("SELECT player_id, best FROM score WHERE mode = 'single' "
+                + "ORDER BY mode, best DESC, player_id LIMIT 10");
+        assertTrue(plan.contains("IDX_SCORE_MODE_BEST"), plan);
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    /**
+     * Get the query plan H2 chooses for a query
+     *
+     * @param sql The query
+     * @return The plan of the query
+     */
+    private String explain(String sql) {
+        return String.valueOf(em.createNativeQuery("EXPLAIN " + sql).getSingleResult());
+    }
+
+    @TestConfiguration
+    static class JdbcConfig {
+        /**
+         * Replace the JDBC template of the repositories by one that records its batches
+         *
+         * @param dataSource the data source of the test database
+         * @return a new CountingJdbcTemplate
+         */
+        @Bean
+        public CountingJdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new CountingJdbcTemplate(dataSource);
+        }
+    }
+
+    /**
+     * A JDBC template that records the size of every batch it sends
+     */
+    static class CountingJdbcTemplate extends JdbcTemplate {
+        private final List<Integer> batches = new ArrayList<>();
+
+        CountingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            batches.add(batchArgs.size());
+            return super.batchUpdate(sql, batchArgs);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package server.service;
+
+import commons.Emoji;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmojiAggregatorTest {
+
+    private EmojiAggregator sut;
+
+    @BeforeEach
+    public void setup() {
+        sut = new EmojiAggregator();
+    }
+
+    @Test
+    public void testDrainEmpty() {
+        assertEquals(Map.of(), sut.drain(0L));
+    }
+
+    @Test
+    public void testBatchCountsPerUsernameAndType() {
+        sut.offer(1L, 10L, "a", Emoji.EmojiType.FUNNY, 0L);
+        sut.offer(1L, 10L, "a", Emoji.EmojiType.FUNNY, 0L);
+        sut.offer(1L, 11L, "b", Emoji.EmojiType.FUNNY, 0L);
+        sut.offer(1L, 10L, "a", Emoji.EmojiType.SAD, 0L);
+        sut.offer(2L, 12L, "c", Emoji.EmojiType.ANGRY, 0L);
+
+        var batches = sut.drain(0L);
+        assertEquals(List.of(new Emoji("a", Emoji.EmojiType.FUNNY, 2), new Emoji("b", Emoji.EmojiType.FUNNY, 1),
+                new Emoji("a", Emoji.EmojiType.SAD, 1)), batches.get(1L));
+        assertEquals(List.of(new Emoji("c", Emoji.EmojiType.ANGRY, 1)), batches.get(2L));
+        assertEquals(Map.of(), sut.drain(0L));
+    }
+
+    @Test
+    public void testRateLimit() {
+        for (int i = 0; i < EmojiAggregator.BUCKET_CAPACITY; ++i) {
+            assertTrue(sut.offer(1L, 10L, "a", Emoji.EmojiType.FUNNY, 0L));
+        }
+        assertFalse(sut.offer(1L, 10L, "a", Emoji.EmojiType.FUNNY, 0L));
+        // other players have their own bucket
+        assertTrue(sut.offer(1L, 11L, "b", Emoji.EmojiType.FUNNY, 0L));
+
+        long refill = (long) (1000 / EmojiAggregator.TOKENS_PER_SECOND) + 1;
+        assertTrue(sut.offer(1L, 10L, "a", Emoji.EmojiType.FUNNY, refill));
+        assertFalse(sut.offer(1L, 10L, "a", Emoji.EmojiType.FUNNY, refill));
+    }
+
+    @Test
+    public void testDrainKeepsLimitOfActivePlayers() {
+        for (int i = 0; i < EmojiAggregator.BUCKET_CAPACITY; ++i) {
+            sut.offer(1L, 10L, "a", Emoji.EmojiType.FUNNY, 0L);
+        }
+        sut.drain(0L);
+        assertFalse(sut.offer(1L, 10L, "a", Emoji.EmojiType.FUNNY, 0L));
+    }
+}
@@ -0,0 +1,99 @@
+package server.service;
+
+import commons.LeaderboardDelta;
+import commons.LeaderboardEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardFeedTest {
+
+    private LeaderboardFeed sut;
+
+    @BeforeEach
+    public void setup() {
+        sut = new LeaderboardFeed();
+    }
+
+    @Test
+    public void testPublishFirstRanking() {
+        assertFalse(sut.isSeeded("single"));
+        var delta = sut.publish("single", List.of());
+
+        assertNotNull(delta);
+        assertTrue(sut.isSeeded("single"));
+        assertEquals(1L, sut.getVersion("single"));
+        assertEquals(0L, sut.getVersion("multi"));
+    }
+
+    @Test
+    public void testPublishUnchanged() {
+        var ranking = List.of(new LeaderboardEntry(1L, "a", 10));
+        sut.publish("single", ranking);
+
+        assertNull(sut.publish("single", ranking));
+        assertEquals(1L, sut.getVersion("single"));
+    }
+
+    @Test
+    public void testPublishOnlySendsChanges() {
+        sut.publish("single", List.of(new LeaderboardEntry(1L, "a", 30), new LeaderboardEntry(2L, "b", 20),
+                new LeaderboardEntry(3L, "c", 10)));
+        var delta = sut.publish("single", List.of(new LeaderboardEntry(1L, "a", 30),
+                new LeaderboardEntry(2L, "b", 20), new LeaderboardEntry(3L, "c", 25)));
+
+        assertNotNull(delta);
+        assertTrue(delta.inserted.isEmpty());
+        assertTrue(delta.removed.isEmpty());
+        assertEquals(List.of(new LeaderboardEntry(3L, "c", 25, 1)), delta.moved);
+    }
+
+    @Test
+    public void testSinceUpToDate() {
+        sut.publish("single", List.of());
+        assertEquals(List.of(), sut.since("single", 1L));
+        assertEquals(List.of(), sut.since("multi", 0L));
+    }
+
+    @Test
+    public void testSinceReplaysHistory() {
+        List<LeaderboardEntry> client = new ArrayList<>();
+        sut.publish("single", List.of(new LeaderboardEntry(1L, "a", 10)));
+        sut.since("single", 0L).forEach(d -> d.applyTo(client));
+
+        sut.publish("single", List.of(new LeaderboardEntry(1L, "a", 10), new LeaderboardEntry(2L, "b", 20)));
+        sut.publish("single", List.of(new LeaderboardEntry(2L, "b", 20), new LeaderboardEntry(3L, "c", 15)));
+        var deltas = sut.since("single", 1L);
+
+        assertEquals(List.of(2L, 3L), deltas.stream().map(d -> d.version).toList());
+        deltas.forEach(d -> d.applyTo(client));
+        assertEquals(List.of(new LeaderboardEntry(2L, "b", 20, 0), new LeaderboardEntry(3L, "c", 15, 1)), client);
+    }
+
+    @Test
+    public void testSinceTooOld() {
+        for (int i = 0; i <= LeaderboardFeed.HISTORY_SIZE; ++i) {
+            sut.publish("single", List.of(new LeaderboardEntry(1L, "a", i + 1)));
+        }
+        List<LeaderboardDelta> deltas = sut.since("single", 0L);
+
+        assertEquals(1, deltas.size());
+        assertTrue(deltas.get(0).snapshot);
+        assertEquals(sut.getVersion("single"), deltas.get(0).version);
+        assertEquals(List.of(new LeaderboardEntry(1L, "a", LeaderboardFeed.HISTORY_SIZE + 1, 0)),
+                deltas.get(0).inserted);
+    }
+
+    @Test
+    public void testSinceUnknownVersion() {
+        sut.publish("single", List.of());
+        var deltas = sut.since("single", 42L);
+
+        assertEquals(1, deltas.size());
+        assertTrue(deltas.get(0).snapshot);
+    }
+}
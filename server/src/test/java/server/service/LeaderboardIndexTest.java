@@ -0,0 +1,148 @@
+package server.service;
+
+import commons.LeaderboardEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardIndexTest {
+
+    private LeaderboardIndex sut;
+
+    @BeforeEach
+    public void setup() {
+        sut = new LeaderboardIndex();
+    }
+
+    @Test
+    public void testEnsureSeeded() {
+        assertFalse(sut.isSeeded("single"));
+        sut.ensureSeeded("single", () -> List.of(new LeaderboardEntry(1L, "a", 10),
+                new LeaderboardEntry(2L, "b", 20), new LeaderboardEntry(3L, "c", 0)));
+
+        assertTrue(sut.isSeeded("single"));
+        assertEquals(2, sut.size("single"));
+        assertEquals(List.of(new LeaderboardEntry(2L, "b", 20, 0), new LeaderboardEntry(1L, "a", 10, 1)),
+                sut.top("single", 10));
+
+        // seeding twice keeps the current ranking
+        sut.ensureSeeded("single", List::of);
+        assertEquals(2, sut.size("single"));
+    }
+
+    @Test
+    public void testTopUnknownMode() {
+        assertEquals(List.of(), sut.top("multi", 10));
+        assertEquals(0, sut.size("multi"));
+    }
+
+    @Test
+    public void testTopLimit() {
+        for (int i = 1; i <= 5; ++i) sut.update("single", i, "p" + i, i * 10);
+
+        var top = sut.top("single", 2);
+        assertEquals(List.of(new LeaderboardEntry(5L, "p5", 50, 0), new LeaderboardEntry(4L, "p4", 40, 1)), top);
+    }
+
+    @Test
+    public void testPage() {
+        for (int i = 1; i <= 5; ++i) sut.update("single", i, "p" + i, i * 10);
+
+        assertEquals(List.of(new LeaderboardEntry(3L, "p3", 30, 2), new LeaderboardEntry(2L, "p2", 20, 3)),
+                sut.page("single", 2, 2));
+        assertEquals(List.of(new LeaderboardEntry(1L, "p1", 10, 4)), sut.page("single", 4, 2));
+        assertEquals(List.of(), sut.page("single", 5, 2));
+    }
+
+    @Test
+    public void testPageAfter() {
+        sut.update("single", 1L, "a", 30);
+        sut.update("single", 2L, "b", 20);
+        sut.update("single", 3L, "c", 20);
+        sut.update("single", 4L, "d", 10);
+
+        assertEquals(List.of(new LeaderboardEntry(3L, "c", 20, 2), new LeaderboardEntry(4L, "d", 10, 3)),
+                sut.pageAfter("single", 20, 2L, 5));
+
+        // the key stays valid when the player it belongs to moves up
+        sut.update("single", 2L, "b", 40);
+        assertEquals(List.of(new LeaderboardEntry(3L, "c", 20, 2)), sut.pageAfter("single", 20, 2L, 1));
+        assertEquals(List.of(), sut.pageAfter("multi", 20, 2L, 1));
+    }
+
+    @Test
+    public void testStanding() {
+        for (int i = 1; i <= 10; ++i) sut.update("single", i, "p" + i, i * 10);
+
+        var standing = sut.standing("single", 3L, 2);
+        assertEquals(new LeaderboardEntry(3L, "p3", 30, 7), standing.entry);
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), standing.neighbours.stream().map(e -> e.playerId).toList());
+        assertEquals(10, standing.total);
+
+        // neighbours are cut off at the top of the ranking
+        standing = sut.standing("single", 10L, 2);
+        assertEquals(0, standing.entry.rank);
+        assertEquals(List.of(10L, 9L, 8L), standing.neighbours.stream().map(e -> e.playerId).toList());
+
+        sut.update("single", 3L, "p3", 0);
+        assertNull(sut.standing("single", 3L, 2));
+        assertNull(sut.standing("multi", 3L, 2));
+    }
+
+    @Test
+    public void testUpdateMovesPlayer() {
+        sut.update("single", 1L, "a", 10);
+        sut.update("single", 2L, "b", 20);
+        sut.update("single", 1L, "a", 30);
+
+        assertEquals(2, sut.size("single"));
+        assertEquals(1L, sut.top("single", 1).get(0).playerId);
+    }
+
+    @Test
+    public void testUpdateTiesOrderedById() {
+        sut.update("single", 2L, "b", 10);
+        sut.update("single", 1L, "a", 10);
+
+        var top = sut.top("single", 2);
+        assertEquals(1L, top.get(0).playerId);
+        assertEquals(2L, top.get(1).playerId);
+    }
+
+    @Test
+    public void testUpdateZeroRemovesPlayer() {
+        sut.update("single", 1L, "a", 10);
+        sut.update("single", 1L, "a", 0);
+        assertEquals(0, sut.size("single"));
+    }
+
+    @Test
+    public void testReplace() {
+        sut.update("single", 1L, "a", 10);
+        sut.update("multi", 1L, "a", 10);
+        sut.replace("single", List.of(new LeaderboardEntry(2L, "b", 5), new LeaderboardEntry(3L, "c", 7)));
+
+        assertEquals(List.of(new LeaderboardEntry(3L, "c", 7, 0), new LeaderboardEntry(2L, "b", 5, 1)),
+                sut.top("single", 10));
+        assertEquals(1, sut.size("multi"));
+        assertTrue(sut.isSeeded("single"));
+    }
+
+    @Test
+    public void testPercentile() {
+        assertEquals(0.0, sut.percentile("single", 10));
+        sut.update("single", 1L, "a", 10);
+        sut.update("single", 2L, "b", 20);
+        sut.update("single", 3L, "c", 5);
+        sut.update("single", 3L, "c", 30);
+
+        assertEquals(0.0, sut.percentile("single", 10));
+        // 10 and 20 of the scores 10, 20 and 30 are below 25
+        assertEquals(200.0 / 3, sut.percentile("single", 25), 1e-9);
+        assertEquals(100.0, sut.percentile("single", 31));
+        assertEquals(0.0, sut.percentile("multi", 31));
+    }
+}
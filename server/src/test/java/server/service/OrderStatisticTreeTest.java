@@ -0,0 +1,78 @@
+package server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatisticTreeTest {
+
+    private OrderStatisticTree<Integer> sut;
+
+    @BeforeEach
+    public void setup() {
+        sut = new OrderStatisticTree<>(Comparator.naturalOrder());
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        assertTrue(sut.add(5));
+        assertTrue(sut.add(3));
+        assertFalse(sut.add(5));
+        assertEquals(2, sut.size());
+        assertTrue(sut.contains(3));
+
+        assertTrue(sut.remove(3));
+        assertFalse(sut.remove(3));
+        assertFalse(sut.contains(3));
+        assertEquals(1, sut.size());
+    }
+
+    @Test
+    public void testRankOf() {
+        List.of(10, 20, 30, 40).forEach(sut::add);
+
+        assertEquals(0, sut.rankOf(10));
+        assertEquals(2, sut.rankOf(30));
+        assertEquals(2, sut.rankOf(25));
+        assertEquals(4, sut.rankOf(50));
+    }
+
+    @Test
+    public void testRange() {
+        List.of(10, 20, 30, 40).forEach(sut::add);
+
+        assertEquals(List.of(20, 30), sut.range(1, 2));
+        assertEquals(List.of(30, 40), sut.range(2, 10));
+        assertEquals(List.of(), sut.range(4, 2));
+        assertEquals(List.of(10, 20, 30, 40), sut.range(0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testMatchesSortedSet() {
+        Random random = new Random(42);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 2000; ++i) {
+            int value = random.nextInt(300);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), sut.add(value));
+            } else {
+                assertEquals(expected.remove(value), sut.remove(value));
+            }
+        }
+
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertEquals(sorted.size(), sut.size());
+        assertEquals(sorted, sut.range(0, sorted.size()));
+        for (int i = 0; i < sorted.size(); i += 7) {
+            assertEquals(i, sut.rankOf(sorted.get(i)));
+            assertEquals(sorted.subList(i, Math.min(i + 5, sorted.size())), sut.range(i, 5));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package server.service;
+
+import commons.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerCacheTest {
+
+    private PlayerCache sut;
+    private List<String> loaded;
+
+    @BeforeEach
+    public void setup() {
+        sut = new PlayerCache(2);
+        loaded = new ArrayList<>();
+    }
+
+    private Optional<Player> load(String username) {
+        loaded.add(username);
+        return username.startsWith("unknown") ? Optional.empty() : Optional.of(new Player(username, 0));
+    }
+
+    @Test
+    public void testReadThrough() {
+        Player first = sut.get("a", this::load).get();
+        Player second = sut.get("a", this::load).get();
+
+        assertSame(first, second);
+        assertEquals(List.of("a"), loaded);
+        assertEquals(1, sut.getHits());
+        assertEquals(1, sut.getMisses());
+    }
+
+    @Test
+    public void testMissingPlayerNotCached() {
+        assertTrue(sut.get("unknown", this::load).isEmpty());
+        assertTrue(sut.get("unknown", this::load).isEmpty());
+        assertEquals(List.of("unknown", "unknown"), loaded);
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        sut.get("a", this::load);
+        sut.get("b", this::load);
+        sut.get("a", this::load);
+        sut.get("c", this::load);
+
+        assertEquals(2, sut.size());
+        loaded.clear();
+        sut.get("a", this::load);
+        sut.get("b", this::load);
+        assertEquals(List.of("b"), loaded);
+    }
+
+    @Test
+    public void testEvict() {
+        sut.get("a", this::load);
+        sut.evict("a");
+        sut.get("a", this::load);
+        assertEquals(List.of("a", "a"), loaded);
+    }
+
+    @Test
+    public void testStaleLoadNotCached() {
+        // a save that happens while the player is being loaded must not leave the loaded copy in the cache
+        sut.get("a", username -> {
+            sut.evict(username);
+            return load(username);
+        });
+        assertEquals(0, sut.size());
+    }
+}
@@ -0,0 +1,60 @@
+package server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreHistogramTest {
+
+    private ScoreHistogram sut;
+
+    @BeforeEach
+    public void setup() {
+        sut = new ScoreHistogram();
+    }
+
+    @Test
+    public void testBucketsCoverAllScores() {
+        for (int i = 0; i < ScoreHistogram.BUCKETS; ++i) {
+            long lowest = ScoreHistogram.lowestOf(i);
+            long highest = Math.min(lowest + ScoreHistogram.widthOf(i) - 1, Integer.MAX_VALUE);
+            assertEquals(i, ScoreHistogram.indexOf((int) lowest));
+            assertEquals(i, ScoreHistogram.indexOf((int) highest));
+            if (i + 1 < ScoreHistogram.BUCKETS) assertEquals(highest + 1, ScoreHistogram.lowestOf(i + 1));
+        }
+        assertEquals(ScoreHistogram.BUCKETS - 1, ScoreHistogram.indexOf(Integer.MAX_VALUE));
+        assertEquals(0, ScoreHistogram.indexOf(-1));
+    }
+
+    @Test
+    public void testCountBelowExactForSmallScores() {
+        sut.add(3);
+        sut.add(5);
+        sut.add(5);
+
+        assertEquals(0.0, sut.countBelow(3));
+        assertEquals(1.0, sut.countBelow(4));
+        assertEquals(3.0, sut.countBelow(6));
+        assertEquals(3, sut.total());
+    }
+
+    @Test
+    public void testCountBelowEstimatesLargeScores() {
+        for (int score = 0; score < 10000; ++score) sut.add(score);
+        for (int score : new int[] {100, 1234, 5000, 9999}) {
+            assertEquals(score, sut.countBelow(score), score * 0.07);
+        }
+        assertEquals(10000.0, sut.countBelow(20000));
+    }
+
+    @Test
+    public void testRemove() {
+        sut.add(1000);
+        sut.add(10);
+        sut.remove(1000);
+
+        assertEquals(1, sut.total());
+        assertEquals(1.0, sut.countBelow(2000));
+    }
+}
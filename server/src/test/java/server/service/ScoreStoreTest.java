@@ -0,0 +1,75 @@
+package server.service;
+
+import commons.LeaderboardEntry;
+import commons.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import server.api.TestPlayerRepository;
+import server.api.TestScoreRepository;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreStoreTest {
+
+    private TestPlayerRepository playerRepo;
+    private TestScoreRepository scoreRepo;
+    private ScoreStore sut;
+
+    @BeforeEach
+    public void setup() {
+        playerRepo = new TestPlayerRepository();
+        scoreRepo = new TestScoreRepository(playerRepo);
+        sut = new ScoreStore(playerRepo, scoreRepo);
+    }
+
+    @Test
+    public void testRaiseWritesBothTables() {
+        Player a = sut.save(new Player("a", 10), 0L);
+        Player b = sut.save(new Player("b", 50), 0L);
+
+        assertEquals(1, sut.raise("single", Map.of(a.id, 20, b.id, 20), 1L));
+        assertEquals(20, playerRepo.findById(a.id).get().bestSingleScore);
+        assertEquals(50, playerRepo.findById(b.id).get().bestSingleScore);
+        assertEquals(List.of(new LeaderboardEntry(b.id, "b", 50), new LeaderboardEntry(a.id, "a", 20)),
+                scoreRepo.findRanking("single", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    public void testRaiseIgnoresUnknownPlayers() {
+        assertEquals(0, sut.raise("multi", Map.of(42L, 100), 0L));
+        assertEquals(0, scoreRepo.count());
+    }
+
+    @Test
+    public void testSaveOverwritesScores() {
+        Player p = sut.save(new Player("a", 30), 0L);
+        assertEquals(4, scoreRepo.count());
+
+        Player lowered = new Player("a", 5);
+        lowered.id = p.id;
+        sut.save(lowered, 1L);
+        assertEquals(4, scoreRepo.count());
+        for (String mode : List.of("single", "multi", "survival", "timeAttack")) {
+            assertEquals(5, scoreRepo.findRanking(mode, PageRequest.of(0, 1)).get(0).score);
+        }
+    }
+
+    @Test
+    public void testSaveWithoutPointsCreatesNoScores() {
+        sut.save(new Player("a", 0), 0L);
+        assertEquals(0, scoreRepo.count());
+    }
+
+    @Test
+    public void testScoreOfAndSetScore() {
+        Player p = new Player("a", 0);
+        ScoreStore.setScore(p, "survival", 7);
+        assertEquals(7, ScoreStore.scoreOf(p, "survival"));
+        assertEquals(0, ScoreStore.scoreOf(p, "single"));
+        assertThrows(IllegalArgumentException.class, () -> ScoreStore.scoreOf(p, "unknown"));
+    }
+}
@@ -0,0 +1,79 @@
+package server.service;
+
+import commons.MatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreWriteBufferTest {
+
+    private ScoreWriteBuffer sut;
+
+    @BeforeEach
+    public void setup() {
+        sut = new ScoreWriteBuffer();
+    }
+
+    @Test
+    public void testSubmitKeepsHighestScore() {
+        sut.submit("single", 1L, "a", 20);
+        sut.submit("single", 1L, "a", 10);
+
+        assertEquals(1, sut.size());
+        assertEquals(Optional.of(20), sut.get("single", 1L));
+        assertEquals(Optional.empty(), sut.get("multi", 1L));
+    }
+
+    @Test
+    public void testSubmitReportsFullBuffer() {
+        for (int i = 1; i < ScoreWriteBuffer.FLUSH_SIZE; ++i) assertFalse(sut.submit("multi", i, "p" + i, i));
+        assertTrue(sut.submit("multi", 0L, "p0", 1));
+        assertTrue(sut.isFull());
+
+        sut.written("multi", sut.pending("multi"));
+        assertFalse(sut.isFull());
+    }
+
+    @Test
+    public void testWritten() {
+        sut.submit("single", 1L, "a", 20);
+        sut.submit("single", 2L, "b", 30);
+        List<ScoreWriteBuffer.PendingScore> pending = sut.pending("single");
+        assertEquals(2, pending.size());
+
+        // a score raised while the batch was being written stays queued
+        sut.submit("single", 2L, "b", 40);
+        sut.written("single", pending);
+
+        assertEquals(List.of(new ScoreWriteBuffer.PendingScore(2L, "b", 40)), sut.pending("single"));
+        assertEquals(1, sut.size());
+    }
+
+    @Test
+    public void testLogDrainsResultsInOrder() {
+        var first = new MatchResult(1L, "a", "single", 20, 1000L);
+        var second = new MatchResult(1L, "a", "single", 10, 2000L);
+        assertFalse(sut.log(first));
+        assertFalse(sut.log(second));
+
+        assertEquals(List.of(first, second), sut.drainResults());
+        assertEquals(List.of(), sut.drainResults());
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    public void testLogFullBuffer() {
+        for (int i = 1; i < ScoreWriteBuffer.FLUSH_SIZE; ++i) {
+            assertFalse(sut.log(new MatchResult(i, "p" + i, "multi", i, 1000L)));
+        }
+        assertTrue(sut.log(new MatchResult(0L, "p0", "multi", 1, 1000L)));
+        assertTrue(sut.isFull());
+
+        sut.drainResults();
+        assertFalse(sut.isFull());
+    }
+}
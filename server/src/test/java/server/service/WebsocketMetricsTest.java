@@ -0,0 +1,91 @@
+package server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebsocketMetricsTest {
+
+    private ThreadPoolTaskExecutor inbound;
+    private ThreadPoolTaskExecutor outbound;
+    private WebsocketMetrics sut;
+
+    @BeforeEach
+    public void setup() {
+        inbound = new ThreadPoolTaskExecutor();
+        outbound = new ThreadPoolTaskExecutor();
+        sut = new WebsocketMetrics(inbound, outbound);
+    }
+
+    @Test
+    public void testSessions() {
+        sut.sessionOpened();
+        sut.sessionOpened();
+        sut.sessionClosed(true);
+        sut.sessionClosed(false);
+        sut.sessionOpened();
+
+        var metrics = sut.snapshot();
+        assertEquals(1L, metrics.get("openSessions"));
+        assertEquals(1L, metrics.get("droppedSessions"));
+    }
+
+    @Test
+    public void testQueueDepthNotStarted() {
+        var metrics = sut.snapshot();
+        assertEquals(0L, metrics.get("inboundQueueDepth"));
+        assertEquals(0L, metrics.get("outboundQueueDepth"));
+    }
+
+    @Test
+    public void testQueueDepth() {
+        outbound.setCorePoolSize(1);
+        outbound.setMaxPoolSize(1);
+        outbound.initialize();
+        var release = new CountDownLatch(1);
+        for (int i = 0; i < 3; ++i) {
+            outbound.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            });
+        }
+
+        assertEquals(2L, sut.snapshot().get("outboundQueueDepth"));
+        release.countDown();
+        outbound.shutdown();
+    }
+
+    @Test
+    public void testRejectionsCounted() {
+        inbound.setCorePoolSize(1);
+        inbound.setMaxPoolSize(1);
+        inbound.setQueueCapacity(1);
+        inbound.setRejectedExecutionHandler(sut.countRejections(true, new ThreadPoolExecutor.CallerRunsPolicy()));
+        inbound.initialize();
+        var release = new CountDownLatch(1);
+        var ranByCaller = new CountDownLatch(1);
+        for (int i = 0; i < 2; ++i) {
+            inbound.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            });
+        }
+        inbound.execute(ranByCaller::countDown);
+
+        // the rejected message was run by the caller instead of being dropped
+        assertEquals(0L, ranByCaller.getCount());
+        assertEquals(1L, sut.snapshot().get("inboundRejected"));
+        assertEquals(0L, sut.snapshot().get("outboundRejected"));
+        release.countDown();
+        inbound.shutdown();
+    }
+}
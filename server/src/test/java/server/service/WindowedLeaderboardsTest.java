@@ -0,0 +1,82 @@
+package server.service;
+
+import commons.LeaderboardEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import server.service.WindowedLeaderboards.Window;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowedLeaderboardsTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+    private static final long DAY = Duration.ofDays(1).toMillis();
+    private static final long START = 1000 * DAY;
+
+    private WindowedLeaderboards sut;
+
+    @BeforeEach
+    public void setup() {
+        sut = new WindowedLeaderboards();
+    }
+
+    @Test
+    public void testParse() {
+        assertEquals(Window.DAY, Window.parse("day"));
+        assertEquals(Window.WEEK, Window.parse("WEEK"));
+        assertEquals(Window.SEASON, Window.parse("season"));
+        assertNull(Window.parse("year"));
+        assertNull(Window.parse(null));
+    }
+
+    @Test
+    public void testRecordKeepsBestScoreInWindow() {
+        sut.record("single", 1L, "a", 20, START);
+        sut.record("single", 1L, "a", 10, START + HOUR);
+        sut.record("single", 2L, "b", 15, START + HOUR);
+
+        assertEquals(List.of(new LeaderboardEntry(1L, "a", 20, 0), new LeaderboardEntry(2L, "b", 15, 1)),
+                sut.view(Window.DAY, START + HOUR).top("single", 10));
+        assertEquals(0, sut.view(Window.DAY, START + HOUR).size("multi"));
+    }
+
+    @Test
+    public void testRecordIgnoresZeroScore() {
+        sut.record("single", 1L, "a", 0, START);
+        assertEquals(0, sut.view(Window.SEASON, START).size("single"));
+    }
+
+    @Test
+    public void testOldBucketsExpire() {
+        sut.record("single", 1L, "a", 20, START);
+        sut.record("single", 2L, "b", 10, START + 12 * HOUR);
+
+        LeaderboardIndex day = sut.view(Window.DAY, START + DAY + HOUR);
+        assertEquals(List.of(new LeaderboardEntry(2L, "b", 10, 0)), day.top("single", 10));
+        assertEquals(2, sut.view(Window.WEEK, START + DAY + HOUR).size("single"));
+
+        assertEquals(0, sut.view(Window.WEEK, START + 8 * DAY).size("single"));
+        assertEquals(2, sut.view(Window.SEASON, START + 8 * DAY).size("single"));
+    }
+
+    @Test
+    public void testExpiryFallsBackToBestRemainingScore() {
+        sut.record("single", 1L, "a", 20, START);
+        sut.record("single", 1L, "a", 10, START + 12 * HOUR);
+        assertEquals(20, sut.view(Window.DAY, START + 12 * HOUR).top("single", 1).get(0).score);
+
+        assertEquals(10, sut.view(Window.DAY, START + DAY + HOUR).top("single", 1).get(0).score);
+    }
+
+    @Test
+    public void testRecordOutsideWindowSkipped() {
+        sut.record("single", 1L, "a", 10, START + 2 * DAY);
+        sut.record("single", 2L, "b", 20, START);
+
+        assertEquals(1, sut.view(Window.DAY, START + 2 * DAY).size("single"));
+        assertEquals(2, sut.view(Window.WEEK, START + 2 * DAY).size("single"));
+    }
+}